@@ -0,0 +1,84 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2020-- Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2020-- Yue Li <yueli@nju.edu.cn>
+ * All rights reserved.
+ *
+ * Tai-e is only for educational and academic purposes,
+ * and any form of commercial use is disallowed.
+ * Distribution of Tai-e is disallowed without the approval.
+ */
+
+package pascal.taie.analysis.dataflow.analysis;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import pascal.taie.analysis.dataflow.fact.SetFact;
+import pascal.taie.analysis.graph.cfg.SyntheticCFG;
+import pascal.taie.config.AnalysisConfig;
+import pascal.taie.ir.IR;
+import pascal.taie.ir.exp.Var;
+import pascal.taie.ir.stmt.Stmt;
+
+import java.util.List;
+
+/**
+ * Benchmark of {@link LiveVariableAnalysis#transferNode}. Each invocation
+ * applies the transfer function of every statement of a straight-line
+ * synthetic method to the same OUT fact, in which all variables are live.
+ */
+@State(Scope.Thread)
+public class LiveVarTransferBenchmark {
+
+    private static final int STMTS = 1000;
+
+    /**
+     * Number of variables of the method.
+     */
+    @Param({"16", "256"})
+    public int vars;
+
+    /**
+     * "bitset" for the facts created by the analysis, or "hybrid"
+     * for plain {@link SetFact}s.
+     */
+    @Param({"bitset", "hybrid"})
+    public String kind;
+
+    private LiveVariableAnalysis analysis;
+
+    private List<Stmt> stmts;
+
+    private SetFact<Var> in;
+
+    private SetFact<Var> out;
+
+    @Setup
+    public void setup() {
+        SyntheticCFG cfg = SyntheticCFG.straightLine(STMTS, vars, 0);
+        IR ir = cfg.getIR();
+        analysis = new LiveVariableAnalysis(
+                AnalysisConfig.of(LiveVariableAnalysis.ID));
+        stmts = ir.getStmts();
+        in = kind.equals("bitset") ?
+                analysis.newInitialFact(cfg) : analysis.newInitialFact();
+        out = kind.equals("bitset") ?
+                analysis.newInitialFact(cfg) : analysis.newInitialFact();
+        ir.getVars().forEach(out::add);
+    }
+
+    @Benchmark
+    public int transferNode() {
+        int changes = 0;
+        for (Stmt stmt : stmts) {
+            if (analysis.transferNode(stmt, in, out)) {
+                ++changes;
+            }
+        }
+        return changes;
+    }
+}
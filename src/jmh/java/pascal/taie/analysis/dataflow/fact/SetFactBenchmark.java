@@ -0,0 +1,175 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2020-- Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2020-- Yue Li <yueli@nju.edu.cn>
+ * All rights reserved.
+ *
+ * Tai-e is only for educational and academic purposes,
+ * and any form of commercial use is disallowed.
+ * Distribution of Tai-e is disallowed without the approval.
+ */
+
+package pascal.taie.analysis.dataflow.fact;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Benchmarks of the operations of {@link SetFact}s. Fact {@code a} holds
+ * the even numbers and fact {@code b} holds the multiples of three in
+ * [0, 2 * size), so they overlap partially. The copying operations are
+ * measured instead of the in-place ones, so that the facts stay the same
+ * over the invocations, except {@link #unionUnchanged()}, which does
+ * not change its target.
+ * <p>
+ * {@link #copyAndUpdate()} and {@link #copyChain()} are the copy-heavy
+ * workloads of the transfer functions which copy their input facts, which
+ * compare {@link PersistentSetFact} with the other kinds.
+ */
+@State(Scope.Thread)
+public class SetFactBenchmark {
+
+    /**
+     * Number of elements of fact {@code a}.
+     */
+    @Param({"16", "256", "4096"})
+    public int size;
+
+    /**
+     * "hybrid" for {@link SetFact}, "bitset" for {@link BitSetFact},
+     * or "persistent" for {@link PersistentSetFact}.
+     */
+    @Param({"hybrid", "bitset", "persistent"})
+    public String kind;
+
+    private SetFact<Integer> a;
+
+    private SetFact<Integer> aCopy;
+
+    private SetFact<Integer> b;
+
+    private SetFact<Integer> subsetOfA;
+
+    @Setup
+    public void setup() {
+        Indexer<Integer> indexer = new IntIndexer(2 * size);
+        a = newFact(indexer);
+        b = newFact(indexer);
+        subsetOfA = newFact(indexer);
+        for (int i = 0; i < 2 * size; ++i) {
+            if (i % 2 == 0) {
+                a.add(i);
+            }
+            if (i % 3 == 0) {
+                b.add(i);
+            }
+            if (i % 4 == 0) {
+                subsetOfA.add(i);
+            }
+        }
+        aCopy = a.copy();
+    }
+
+    private SetFact<Integer> newFact(Indexer<Integer> indexer) {
+        switch (kind) {
+            case "hybrid":
+                return new SetFact<>();
+            case "bitset":
+                return new BitSetFact<>(indexer);
+            case "persistent":
+                return new PersistentSetFact<>();
+            default:
+                throw new IllegalArgumentException("Unknown fact kind: " + kind);
+        }
+    }
+
+    @Benchmark
+    public SetFact<Integer> union() {
+        return a.unionWith(b);
+    }
+
+    @Benchmark
+    public boolean unionUnchanged() {
+        return a.union(subsetOfA);
+    }
+
+    @Benchmark
+    public SetFact<Integer> intersect() {
+        return a.intersectWith(b);
+    }
+
+    @Benchmark
+    public boolean equalsCopy() {
+        return a.equals(aCopy);
+    }
+
+    @Benchmark
+    public boolean equalsOther() {
+        return a.equals(b);
+    }
+
+    @Benchmark
+    public SetFact<Integer> copy() {
+        return a.copy();
+    }
+
+    /**
+     * Copies fact {@code a}, then kills one element and generates another,
+     * like the transfer function of a statement.
+     */
+    @Benchmark
+    public SetFact<Integer> copyAndUpdate() {
+        SetFact<Integer> result = a.copy();
+        result.remove(0);
+        result.add(1);
+        return result;
+    }
+
+    /**
+     * Propagates fact {@code a} along a chain of 16 statements, each of
+     * which copies the fact of its predecessor and generates an element.
+     */
+    @Benchmark
+    public SetFact<Integer> copyChain() {
+        SetFact<Integer> fact = a;
+        for (int i = 0; i < 16; ++i) {
+            fact = fact.copy();
+            fact.add(2 * i + 1);
+        }
+        return fact;
+    }
+
+    /**
+     * Indexer of the integers in [0, size), which are their own indexes.
+     */
+    private static class IntIndexer implements Indexer<Integer> {
+
+        private final Integer[] objects;
+
+        private IntIndexer(int size) {
+            objects = new Integer[size];
+            for (int i = 0; i < size; ++i) {
+                objects[i] = i;
+            }
+        }
+
+        @Override
+        public int getIndex(Integer o) {
+            return o;
+        }
+
+        @Override
+        public Integer getObject(int index) {
+            return objects[index];
+        }
+
+        @Override
+        public int size() {
+            return objects.length;
+        }
+    }
+}
@@ -0,0 +1,97 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2020-- Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2020-- Yue Li <yueli@nju.edu.cn>
+ * All rights reserved.
+ *
+ * Tai-e is only for educational and academic purposes,
+ * and any form of commercial use is disallowed.
+ * Distribution of Tai-e is disallowed without the approval.
+ */
+
+package pascal.taie.analysis.dataflow.solver;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import pascal.taie.analysis.dataflow.analysis.LiveVariableAnalysis;
+import pascal.taie.analysis.dataflow.fact.DataflowResult;
+import pascal.taie.analysis.dataflow.fact.SetFact;
+import pascal.taie.analysis.graph.cfg.SyntheticCFG;
+import pascal.taie.config.AnalysisConfig;
+import pascal.taie.ir.exp.Var;
+import pascal.taie.ir.stmt.Stmt;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmark of {@link Solver#solve} for live variable analysis on
+ * synthetic CFGs of different shapes and sizes. The per-IR data built
+ * on the first solving (e.g., the indexed CFG and the def/use table)
+ * are reused by the later invocations, like when a method is solved
+ * by several analyses.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class SolverBenchmark {
+
+    /**
+     * Shape of the CFG: "straight" (a single run of statements),
+     * "diamonds" (a chain of if-then-else) or "loops" (a chain of
+     * loop nests of depth 3).
+     */
+    @Param({"straight", "diamonds", "loops"})
+    public String shape;
+
+    /**
+     * Number of statements of the CFG.
+     */
+    @Param({"1000", "10000"})
+    public int size;
+
+    /**
+     * Kind of the solver, see {@link Solver#makeSolver}. Note that the
+     * block solver only computes the facts of the blocks in solving.
+     */
+    @Param({"iterative", "worklist", "scc", "delta", "block"})
+    public String solver;
+
+    private static final int VARS = 64;
+
+    private SyntheticCFG cfg;
+
+    private Solver<Stmt, SetFact<Var>> dataflowSolver;
+
+    @Setup
+    public void setup() {
+        switch (shape) {
+            case "straight":
+                cfg = SyntheticCFG.straightLine(size, VARS, 0);
+                break;
+            case "diamonds":
+                cfg = SyntheticCFG.diamondChain(size, VARS, 0);
+                break;
+            case "loops":
+                cfg = SyntheticCFG.nestedLoops(size, 3, VARS, 0);
+                break;
+            default:
+                throw new IllegalArgumentException("Unknown CFG shape: " + shape);
+        }
+        AnalysisConfig config = AnalysisConfig.of(
+                LiveVariableAnalysis.ID, "solver", solver);
+        dataflowSolver = Solver.makeSolver(
+                new LiveVariableAnalysis(config), config.getOptions());
+    }
+
+    @Benchmark
+    public DataflowResult<Stmt, SetFact<Var>> solve() {
+        return dataflowSolver.solve(cfg);
+    }
+}
@@ -12,32 +12,341 @@
 
 package pascal.taie.analysis.dataflow.analysis;
 
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import pascal.taie.World;
 import pascal.taie.analysis.IntraproceduralAnalysis;
 import pascal.taie.analysis.dataflow.fact.DataflowResult;
+import pascal.taie.analysis.dataflow.fact.FactInterner;
+import pascal.taie.analysis.dataflow.fact.InternStatistics;
+import pascal.taie.analysis.dataflow.solver.BlockDataflowResult;
 import pascal.taie.analysis.dataflow.solver.Solver;
 import pascal.taie.analysis.graph.cfg.CFG;
 import pascal.taie.analysis.graph.cfg.CFGBuilder;
 import pascal.taie.analysis.graph.cfg.Edge;
 import pascal.taie.config.AnalysisConfig;
 import pascal.taie.ir.IR;
+import pascal.taie.language.classes.JClass;
+import pascal.taie.language.classes.JMethod;
+import pascal.taie.util.collection.Sets;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.stream.Collectors;
 
 public abstract class AbstractDataflowAnalysis<Node, Fact>
         extends IntraproceduralAnalysis
         implements DataflowAnalysis<Node, Fact> {
 
+    private static final Logger logger = LogManager.getLogger(AbstractDataflowAnalysis.class);
+
     private final Solver<Node, Fact> solver;
 
+    /**
+     * Number of threads for analyzing the methods in parallel.
+     */
+    private final int threads;
+
+    /**
+     * Whether the results of {@link #reanalyze} are validated.
+     */
+    private final boolean validateIncremental;
+
+    /**
+     * Results computed in parallel, which are handed out (and removed)
+     * by {@link #analyze(IR)}.
+     */
+    private Map<IR, DataflowResult<Node, Fact>> parallelResults;
+
+    /**
+     * Persistent cache of the results, or null if the results
+     * are not cached.
+     */
+    private final ResultCache cache;
+
+    /**
+     * Application IRs which have not been analyzed by {@link #analyze(IR)}
+     * yet, so that the statistics of the cache are logged once after all
+     * of them are analyzed.
+     */
+    private Set<IR> pendingIRs;
+
+    /**
+     * Number of expanded blocks kept in each compacted result,
+     * or 0 if the results are not compacted.
+     */
+    private final int compactCacheSize;
+
+    /**
+     * Whether the facts of the results are interned, and the table of the
+     * canonical facts which is shared by all methods. The latter is null
+     * if each result has its own table.
+     */
+    private final boolean internFacts;
+
+    private final FactInterner globalInterner;
+
     protected AbstractDataflowAnalysis(AnalysisConfig config) {
         super(config);
-        solver = Solver.makeSolver(this);
+        solver = Solver.makeSolver(this, getOptions());
+        int n = getOptions().has("threads") ? getOptions().getInt("threads") : 1;
+        threads = n > 0 ? n : Runtime.getRuntime().availableProcessors();
+        validateIncremental = getOptions().has("validate-incremental") &&
+                getOptions().getBoolean("validate-incremental");
+        cache = createCache();
+        if (getOptions().has("compact-result") &&
+                getOptions().getBoolean("compact-result")) {
+            compactCacheSize = getOptions().has("compact-cache") ?
+                    getOptions().getInt("compact-cache") : 8;
+        } else {
+            compactCacheSize = 0;
+        }
+        String intern = getOptions().has("intern-facts") ?
+                getOptions().getString("intern-facts") : null;
+        if (intern == null) {
+            internFacts = false;
+            globalInterner = null;
+        } else if (intern.equals("method") || intern.equals("global")) {
+            internFacts = true;
+            globalInterner = intern.equals("global") ? FactInterner.global() : null;
+        } else {
+            throw new IllegalArgumentException(
+                    "Unknown scope of interning facts: " + intern);
+        }
+    }
+
+    /**
+     * Creates the result cache if option "cache-dir" is given. The results
+     * can be cached only if this analysis is a {@link ResultCodec}.
+     * Option "cache-size" gives the maximum size of the cache in MB.
+     */
+    private ResultCache createCache() {
+        if (!getOptions().has("cache-dir") ||
+                getOptions().getString("cache-dir") == null) {
+            return null;
+        }
+        if (!(this instanceof ResultCodec)) {
+            throw new IllegalArgumentException(
+                    "Results of analysis " + getId() + " cannot be cached");
+        }
+        long mb = getOptions().has("cache-size") ?
+                getOptions().getInt("cache-size") : 256;
+        return new ResultCache(Path.of(getOptions().getString("cache-dir")),
+                mb * 1024 * 1024);
+    }
+
+    /**
+     * @return the result cache of this analysis, or null if the results
+     * are not cached. The statistics of the cache are logged after all
+     * application methods are analyzed.
+     */
+    public ResultCache getResultCache() {
+        return cache;
     }
 
     @Override
     public DataflowResult<Node, Fact> analyze(IR ir) {
+        if (threads > 1) {
+            DataflowResult<Node, Fact> result = getParallelResults().remove(ir);
+            if (result != null) {
+                return result;
+            }
+        }
+        AnalysisEvent event = new AnalysisEvent();
+        event.begin();
+        DataflowResult<Node, Fact> result = solveCached(ir);
+        event.commit(getId(), ir);
+        if (cache != null && threads == 1 && ir.getMethod() != null) {
+            markAnalyzed(ir);
+        }
+        return result;
+    }
+
+    /**
+     * Marks given application IR as analyzed, and logs the statistics of
+     * the cache if all application IRs have been analyzed.
+     */
+    private synchronized void markAnalyzed(IR ir) {
+        if (pendingIRs == null) {
+            List<IR> irs = getApplicationIRs();
+            pendingIRs = Sets.newSet(irs.size());
+            pendingIRs.addAll(irs);
+        }
+        if (pendingIRs.remove(ir) && pendingIRs.isEmpty()) {
+            logger.info("{}", cache);
+        }
+    }
+
+    /**
+     * Solves given IR, or loads its result from the cache if the result
+     * of the same method has been cached.
+     */
+    private DataflowResult<Node, Fact> solveCached(IR ir) {
+        if (cache == null) {
+            return finish(ir, solve(ir));
+        }
+        @SuppressWarnings("unchecked")
+        ResultCodec<Node, Fact> codec = (ResultCodec<Node, Fact>) this;
+        CFG<Node> cfg = ir.getResult(CFGBuilder.ID);
+        String key = ResultCache.getKey(getId(), ir, cfg);
+        byte[] data = cache.load(key);
+        if (data != null) {
+            try {
+                return finish(ir, codec.readResult(cfg,
+                        new DataInputStream(new ByteArrayInputStream(data))));
+            } catch (IOException e) {
+                logger.warn("Discard malformed cached result of {}: {}",
+                        ir.getMethod(), e.toString());
+            }
+        }
+        DataflowResult<Node, Fact> result = solve(ir);
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            codec.writeResult(cfg, result, out);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        cache.store(key, bytes.toByteArray());
+        return finish(ir, result);
+    }
+
+    /**
+     * Finishes given result of given IR, i.e., interns and compacts the
+     * result if they are enabled, see {@link #intern} and {@link #compact}.
+     */
+    private DataflowResult<Node, Fact> finish(IR ir, DataflowResult<Node, Fact> result) {
+        return compact(ir, intern(ir, result));
+    }
+
+    /**
+     * If option "intern-facts" is given, replaces the set facts of given
+     * result by the canonical facts given by a {@link FactInterner}, so that
+     * equal facts, e.g., the facts of a run of statements which do not
+     * change the facts, are shared by one frozen instance. The option is
+     * the scope of the sharing, i.e., "method" for sharing the facts in
+     * each result, or "global" for sharing the facts among all results.
+     * The {@link InternStatistics} are stored in the IR.
+     */
+    private DataflowResult<Node, Fact> intern(IR ir, DataflowResult<Node, Fact> result) {
+        if (internFacts) {
+            FactInterner interner = globalInterner != null ?
+                    globalInterner : new FactInterner();
+            ir.storeResult(InternStatistics.KEY,
+                    interner.internResult(ir.getMethod(), result));
+        }
+        return result;
+    }
+
+    /**
+     * If option "compact-result" is true, compacts given result of given IR
+     * so that it only keeps the facts at the boundaries of basic blocks,
+     * and the facts inside the blocks are recomputed when they are queried,
+     * see {@link BlockDataflowResult}. Option "compact-cache" gives the
+     * number of recently queried blocks whose facts are kept (8 by default).
+     */
+    private DataflowResult<Node, Fact> compact(IR ir, DataflowResult<Node, Fact> result) {
+        if (compactCacheSize == 0) {
+            return result;
+        }
+        CFG<Node> cfg = ir.getResult(CFGBuilder.ID);
+        return BlockDataflowResult.compact(this, cfg, result, compactCacheSize);
+    }
+
+    /**
+     * Re-analyzes given IR after some of its statements are changed,
+     * starting from the previous result of the IR, see
+     * {@link Solver#solveIncrementally(CFG, DataflowResult, Collection)}.
+     * The CFG is taken from the IR, so if the control flow is changed,
+     * the CFG in the IR should be rebuilt before the call.
+     * <p>
+     * If option "validate-incremental" is true, then the result is checked
+     * against solving the IR from scratch.
+     *
+     * @param ir       the changed IR
+     * @param previous the previous result of the IR
+     * @param changed  the changed nodes
+     * @return the new result of the IR
+     */
+    public DataflowResult<Node, Fact> reanalyze(
+            IR ir, DataflowResult<Node, Fact> previous, Collection<Node> changed) {
+        invalidateCaches(ir);
+        CFG<Node> cfg = ir.getResult(CFGBuilder.ID);
+        DataflowResult<Node, Fact> result = finish(ir,
+                solver.solveIncrementally(cfg, previous, changed));
+        if (validateIncremental) {
+            DataflowResult<Node, Fact> expected = solver.solve(cfg);
+            for (Node node : cfg) {
+                if (!Objects.equals(result.getInFact(node), expected.getInFact(node)) ||
+                        !Objects.equals(result.getOutFact(node), expected.getOutFact(node))) {
+                    throw new IllegalStateException(String.format(
+                            "Incremental result of %s differs from full re-solve at %s",
+                            ir.getMethod(), node));
+                }
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Invalidates the per-method data cached in the IR, which may be
+     * stale after the IR is changed. By default, this method does nothing.
+     */
+    protected void invalidateCaches(IR ir) {
+    }
+
+    /**
+     * Solves the data-flow problem of given IR by the solver.
+     * Subclasses may override this method to provide their own engines.
+     */
+    protected DataflowResult<Node, Fact> solve(IR ir) {
         CFG<Node> cfg = ir.getResult(CFGBuilder.ID);
         return solver.solve(cfg);
     }
 
+    /**
+     * On the first call, analyzes all application methods in parallel.
+     * The analysis manager invokes {@link #analyze(IR)} method by method,
+     * so the results are computed ahead of the calls.
+     */
+    private synchronized Map<IR, DataflowResult<Node, Fact>> getParallelResults() {
+        if (parallelResults == null) {
+            // obtain the IRs in the current thread, as the IRs are built lazily
+            List<IR> irs = getApplicationIRs();
+            AnalysisEvent event = new AnalysisEvent();
+            event.begin();
+            parallelResults = ParallelDriver.analyze(irs, this::solveCached, threads);
+            event.commit(getId(), null);
+            if (cache != null) {
+                logger.info("{}", cache);
+            }
+        }
+        return parallelResults;
+    }
+
+    /**
+     * @return the IRs of the application methods which have CFGs.
+     */
+    private static List<IR> getApplicationIRs() {
+        return World.getClassHierarchy()
+                .applicationClasses()
+                .map(JClass::getDeclaredMethods)
+                .flatMap(Collection::stream)
+                .filter(m -> !m.isAbstract() && !m.isNative())
+                .map(JMethod::getIR)
+                .filter(ir -> ir.getResult(CFGBuilder.ID) != null)
+                .collect(Collectors.toList());
+    }
+
     /**
      * By default, a data-flow analysis does not have edge transfer.
      */
@@ -0,0 +1,60 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2020-- Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2020-- Yue Li <yueli@nju.edu.cn>
+ * All rights reserved.
+ *
+ * Tai-e is only for educational and academic purposes,
+ * and any form of commercial use is disallowed.
+ * Distribution of Tai-e is disallowed without the approval.
+ */
+
+package pascal.taie.analysis.dataflow.analysis;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import pascal.taie.ir.IR;
+
+/**
+ * Flight recorder event of running an analysis, either on a method or,
+ * if the method is null, on the whole program.
+ */
+@Name("pascal.taie.Analysis")
+@Label("Analysis")
+@Category({"Tai-e", "Analysis"})
+@Description("Run of an analysis on a method or the whole program")
+class AnalysisEvent extends Event {
+
+    @Label("Analysis")
+    String analysis;
+
+    @Label("Method")
+    String method;
+
+    @Label("Statements")
+    int stmts;
+
+    @Label("Variables")
+    int vars;
+
+    /**
+     * Commits this event for the run of given analysis on given IR,
+     * or on the whole program if the IR is null.
+     */
+    void commit(String analysis, IR ir) {
+        end();
+        if (shouldCommit()) {
+            this.analysis = analysis;
+            if (ir != null) {
+                method = String.valueOf(ir.getMethod());
+                stmts = ir.getStmts().size();
+                vars = ir.getVars().size();
+            }
+            commit();
+        }
+    }
+}
@@ -0,0 +1,276 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2020-- Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2020-- Yue Li <yueli@nju.edu.cn>
+ * All rights reserved.
+ *
+ * Tai-e is only for educational and academic purposes,
+ * and any form of commercial use is disallowed.
+ * Distribution of Tai-e is disallowed without the approval.
+ */
+
+package pascal.taie.analysis.dataflow.analysis;
+
+import pascal.taie.util.collection.Maps;
+
+import java.io.BufferedOutputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+/**
+ * Reader of the binary result files written by action "dump-binary"
+ * of {@link ResultProcessor}. The file is read through memory mapping,
+ * and the sections (i.e., the results of an analysis on a method) can be
+ * accessed randomly, without reading the whole file.
+ * <p>
+ * The layout of the file (in big-endian) is:
+ * <pre>
+ * header:        magic, version, #sections, #strings,
+ *                offsets of string data, string index and section table
+ * section data:  for node results, (stmt, fact) of each statement, where
+ *                fact is either (SET_FACT, #elements, elements) or
+ *                (TEXT_FACT, text); for other results, the lines
+ * string data:   (length, UTF-8 bytes) of each string
+ * string index:  offset of each string
+ * section table: (method, analysis, kind, #entries, offset, length)
+ *                of each section
+ * </pre>
+ * All strings are stored by their indexes in the string table, and the
+ * indexes and counts in section data are written in variable-length format.
+ * Each of the mapped regions must be smaller than 2GB.
+ */
+public class BinaryResultFile {
+
+    static final byte[] MAGIC = "TAIE-RES".getBytes(StandardCharsets.US_ASCII);
+
+    static final int VERSION = 1;
+
+    static final int HEADER_SIZE = 8 + 4 * 3 + 8 * 3;
+
+    private static final int SECTION_ENTRY_SIZE = 4 * 2 + 1 + 4 + 8 * 2;
+
+    /**
+     * Kind of sections of node results.
+     */
+    static final byte NODES = 0;
+
+    /**
+     * Kind of sections of lines, e.g., the elements of set results.
+     */
+    static final byte LINES = 1;
+
+    static final byte SET_FACT = 0;
+
+    static final byte TEXT_FACT = 1;
+
+    private final int sectionCount;
+
+    private final MappedByteBuffer sectionData;
+
+    private final MappedByteBuffer stringData;
+
+    private final long stringDataOffset;
+
+    private final MappedByteBuffer stringIndex;
+
+    private final MappedByteBuffer sectionTable;
+
+    /**
+     * Decoded strings, which are filled on demand.
+     */
+    private final String[] strings;
+
+    /**
+     * Map from (method, analysis) to section, built on demand.
+     */
+    private Map<String, Integer> sectionIndex;
+
+    private BinaryResultFile(FileChannel channel) throws IOException {
+        ByteBuffer header = channel.map(FileChannel.MapMode.READ_ONLY, 0, HEADER_SIZE);
+        byte[] magic = new byte[MAGIC.length];
+        header.get(magic);
+        if (!Arrays.equals(magic, MAGIC) || header.getInt() != VERSION) {
+            throw new IOException("Not a binary result file of version " + VERSION);
+        }
+        sectionCount = header.getInt();
+        int stringCount = header.getInt();
+        stringDataOffset = header.getLong();
+        long stringIndexOffset = header.getLong();
+        long sectionTableOffset = header.getLong();
+        sectionData = channel.map(FileChannel.MapMode.READ_ONLY,
+                HEADER_SIZE, stringDataOffset - HEADER_SIZE);
+        stringData = channel.map(FileChannel.MapMode.READ_ONLY,
+                stringDataOffset, stringIndexOffset - stringDataOffset);
+        stringIndex = channel.map(FileChannel.MapMode.READ_ONLY,
+                stringIndexOffset, 8L * stringCount);
+        sectionTable = channel.map(FileChannel.MapMode.READ_ONLY,
+                sectionTableOffset, (long) SECTION_ENTRY_SIZE * sectionCount);
+        strings = new String[stringCount];
+    }
+
+    /**
+     * Opens a binary result file. The file is mapped into memory,
+     * so it need not to be closed.
+     */
+    public static BinaryResultFile open(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            return new BinaryResultFile(channel);
+        }
+    }
+
+    public int getSectionCount() {
+        return sectionCount;
+    }
+
+    /**
+     * @return the method of given section.
+     */
+    public String getMethod(int section) {
+        return getString(sectionTable.getInt(section * SECTION_ENTRY_SIZE));
+    }
+
+    /**
+     * @return the analysis ID of given section.
+     */
+    public String getAnalysis(int section) {
+        return getString(sectionTable.getInt(section * SECTION_ENTRY_SIZE + 4));
+    }
+
+    /**
+     * @return the index of the section of given method and analysis,
+     * or -1 if the file does not contain such section.
+     */
+    public synchronized int findSection(String method, String analysis) {
+        if (sectionIndex == null) {
+            sectionIndex = Maps.newMap(sectionCount);
+            for (int i = 0; i < sectionCount; ++i) {
+                sectionIndex.putIfAbsent(getMethod(i) + " " + getAnalysis(i), i);
+            }
+        }
+        return sectionIndex.getOrDefault(method + " " + analysis, -1);
+    }
+
+    /**
+     * @return the lines of given section, which are the same as the lines
+     * dumped by action "dump" of {@link ResultProcessor}.
+     */
+    public List<String> getLines(int section) throws IOException {
+        int base = section * SECTION_ENTRY_SIZE;
+        byte kind = sectionTable.get(base + 8);
+        int entries = sectionTable.getInt(base + 9);
+        long offset = sectionTable.getLong(base + 13);
+        long length = sectionTable.getLong(base + 21);
+        ByteBuffer data = sectionData.slice(
+                (int) (offset - HEADER_SIZE), (int) length);
+        List<String> lines = new ArrayList<>(entries);
+        for (int i = 0; i < entries; ++i) {
+            String text = getString(getVarInt(data));
+            if (kind == NODES) {
+                text = text + " " + readFact(data);
+            }
+            lines.add(text);
+        }
+        return lines;
+    }
+
+    private String readFact(ByteBuffer data) {
+        if (data.get() == SET_FACT) {
+            int size = getVarInt(data);
+            List<String> elements = new ArrayList<>(size);
+            for (int i = 0; i < size; ++i) {
+                elements.add(getString(getVarInt(data)));
+            }
+            return toSetString(elements);
+        } else {
+            return getString(getVarInt(data));
+        }
+    }
+
+    /**
+     * Reads an int written by {@link BinaryResultWriter} in variable-length
+     * format, i.e., 7 bits per byte, and the highest bit means that more
+     * bytes follow.
+     */
+    private static int getVarInt(ByteBuffer data) {
+        int result = 0;
+        for (int shift = 0; ; shift += 7) {
+            byte b = data.get();
+            result |= (b & 0x7f) << shift;
+            if (b >= 0) {
+                return result;
+            }
+        }
+    }
+
+    /**
+     * @return the string of a set whose elements are given by
+     * their sorted strings, the same as
+     * {@link pascal.taie.util.Strings#toString}.
+     */
+    static String toSetString(List<String> elements) {
+        return elements.stream().collect(Collectors.joining(", ", "[", "]"));
+    }
+
+    private synchronized String getString(int id) {
+        String s = strings[id];
+        if (s == null) {
+            int offset = (int) (stringIndex.getLong(id * 8) - stringDataOffset);
+            int length = stringData.getInt(offset);
+            byte[] bytes = new byte[length];
+            stringData.get(offset + 4, bytes);
+            s = new String(bytes, StandardCharsets.UTF_8);
+            strings[id] = s;
+        }
+        return s;
+    }
+
+    /**
+     * Writes all sections in the text format of action "dump"
+     * of {@link ResultProcessor}.
+     */
+    public void toText(PrintStream out) throws IOException {
+        for (int i = 0; i < sectionCount; ++i) {
+            out.printf("-------------------- %s (%s) --------------------%n",
+                    getMethod(i), getAnalysis(i));
+            for (String line : getLines(i)) {
+                out.println(line);
+            }
+            out.println();
+        }
+    }
+
+    /**
+     * Converts a binary result file to text.
+     * Usage: {@code BinaryResultFile <binary-file> [<text-file>]};
+     * the text is printed to standard output if no text file is given.
+     */
+    public static void main(String[] args) throws IOException {
+        if (args.length < 1) {
+            System.err.println("Usage: BinaryResultFile <binary-file> [<text-file>]");
+            System.exit(1);
+        }
+        BinaryResultFile file = open(Path.of(args[0]));
+        if (args.length > 1) {
+            try (PrintStream out = new PrintStream(new BufferedOutputStream(
+                    new FileOutputStream(args[1]), 1 << 16))) {
+                file.toText(out);
+            }
+        } else {
+            file.toText(System.out);
+            System.out.flush();
+        }
+    }
+}
@@ -0,0 +1,238 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2020-- Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2020-- Yue Li <yueli@nju.edu.cn>
+ * All rights reserved.
+ *
+ * Tai-e is only for educational and academic purposes,
+ * and any form of commercial use is disallowed.
+ * Distribution of Tai-e is disallowed without the approval.
+ */
+
+package pascal.taie.analysis.dataflow.analysis;
+
+import pascal.taie.analysis.dataflow.fact.SetFact;
+import pascal.taie.util.collection.Maps;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Writes analysis results in the binary format of {@link BinaryResultFile}.
+ * All strings, e.g., methods, statements and variable names, are interned
+ * in a string table, and the results refer to them by their indexes.
+ * The sections are written as they come, and the string table and the
+ * section table are written when this writer is closed.
+ */
+public class BinaryResultWriter implements Closeable {
+
+    private static final int BUFFER_SIZE = 1 << 20;
+
+    private final FileChannel channel;
+
+    private final ByteBuffer buffer = ByteBuffer.allocateDirect(BUFFER_SIZE);
+
+    /**
+     * Position in the file of the next byte to be written.
+     */
+    private long position = BinaryResultFile.HEADER_SIZE;
+
+    private final Map<String, Integer> stringIds = Maps.newMap();
+
+    private final List<String> strings = new ArrayList<>();
+
+    private final List<Section> sections = new ArrayList<>();
+
+    private record Section(int method, int analysis, byte kind,
+                           int entries, long offset, long length) {
+    }
+
+    public BinaryResultWriter(Path path) throws IOException {
+        channel = FileChannel.open(path, StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING);
+        channel.position(position);
+    }
+
+    /**
+     * Writes a section of node results, i.e., the statements of a method
+     * and the facts of the statements.
+     */
+    public void writeNodes(String method, String analysis,
+                           List<String> stmts, List<?> facts) throws IOException {
+        long offset = position;
+        for (int i = 0; i < stmts.size(); ++i) {
+            putVarInt(intern(stmts.get(i)));
+            writeFact(facts.get(i));
+        }
+        addSection(method, analysis, BinaryResultFile.NODES, stmts.size(), offset);
+    }
+
+    /**
+     * Facts that are sets are written as the indexes of their elements,
+     * if the sorted elements give the same string as the fact itself.
+     * Other facts are written as strings.
+     */
+    private void writeFact(Object fact) throws IOException {
+        if (fact instanceof SetFact) {
+            String[] elements = ((SetFact<?>) fact).stream()
+                    .map(Objects::toString)
+                    .sorted()
+                    .toArray(String[]::new);
+            if (BinaryResultFile.toSetString(Arrays.asList(elements))
+                    .equals(fact.toString())) {
+                putByte(BinaryResultFile.SET_FACT);
+                putVarInt(elements.length);
+                for (String e : elements) {
+                    putVarInt(intern(e));
+                }
+                return;
+            }
+        }
+        putByte(BinaryResultFile.TEXT_FACT);
+        putVarInt(intern(Objects.toString(fact)));
+    }
+
+    /**
+     * Writes a section of lines, e.g., the elements of a set result.
+     */
+    public void writeLines(String method, String analysis,
+                           List<String> lines) throws IOException {
+        long offset = position;
+        for (String line : lines) {
+            putVarInt(intern(line));
+        }
+        addSection(method, analysis, BinaryResultFile.LINES, lines.size(), offset);
+    }
+
+    private void addSection(String method, String analysis, byte kind,
+                            int entries, long offset) {
+        sections.add(new Section(intern(method), intern(analysis),
+                kind, entries, offset, position - offset));
+    }
+
+    private int intern(String s) {
+        Integer id = stringIds.get(s);
+        if (id == null) {
+            id = strings.size();
+            stringIds.put(s, id);
+            strings.add(s);
+        }
+        return id;
+    }
+
+    /**
+     * Writes the string table, the section table and the header,
+     * and closes the file.
+     */
+    @Override
+    public void close() throws IOException {
+        try {
+            long[] stringOffsets = new long[strings.size()];
+            long stringDataOffset = position;
+            for (int i = 0; i < strings.size(); ++i) {
+                stringOffsets[i] = position;
+                byte[] bytes = strings.get(i).getBytes(StandardCharsets.UTF_8);
+                putInt(bytes.length);
+                putBytes(bytes);
+            }
+            long stringIndexOffset = position;
+            for (long offset : stringOffsets) {
+                putLong(offset);
+            }
+            long sectionTableOffset = position;
+            for (Section section : sections) {
+                putInt(section.method());
+                putInt(section.analysis());
+                putByte(section.kind());
+                putInt(section.entries());
+                putLong(section.offset());
+                putLong(section.length());
+            }
+            flush();
+            ByteBuffer header = ByteBuffer.allocate(BinaryResultFile.HEADER_SIZE);
+            header.put(BinaryResultFile.MAGIC)
+                    .putInt(BinaryResultFile.VERSION)
+                    .putInt(sections.size())
+                    .putInt(strings.size())
+                    .putLong(stringDataOffset)
+                    .putLong(stringIndexOffset)
+                    .putLong(sectionTableOffset)
+                    .flip();
+            channel.write(header, 0);
+        } finally {
+            channel.close();
+        }
+    }
+
+    private void ensureRemaining(int bytes) throws IOException {
+        if (buffer.remaining() < bytes) {
+            flush();
+        }
+    }
+
+    private void flush() throws IOException {
+        buffer.flip();
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+        buffer.clear();
+    }
+
+    private void putByte(byte b) throws IOException {
+        ensureRemaining(1);
+        buffer.put(b);
+        position += 1;
+    }
+
+    private void putInt(int i) throws IOException {
+        ensureRemaining(4);
+        buffer.putInt(i);
+        position += 4;
+    }
+
+    /**
+     * Writes a non-negative int in variable-length format, i.e.,
+     * 7 bits per byte, and the highest bit means that more bytes follow.
+     */
+    private void putVarInt(int i) throws IOException {
+        ensureRemaining(5);
+        while ((i & ~0x7f) != 0) {
+            buffer.put((byte) ((i & 0x7f) | 0x80));
+            i >>>= 7;
+            ++position;
+        }
+        buffer.put((byte) i);
+        ++position;
+    }
+
+    private void putLong(long l) throws IOException {
+        ensureRemaining(8);
+        buffer.putLong(l);
+        position += 8;
+    }
+
+    private void putBytes(byte[] bytes) throws IOException {
+        if (bytes.length > buffer.capacity()) {
+            flush();
+            ByteBuffer wrapped = ByteBuffer.wrap(bytes);
+            while (wrapped.hasRemaining()) {
+                channel.write(wrapped);
+            }
+        } else {
+            ensureRemaining(bytes.length);
+            buffer.put(bytes);
+        }
+        position += bytes.length;
+    }
+}
@@ -39,6 +39,16 @@ public interface DataflowAnalysis<Node, Fact> {
      */
     Fact newInitialFact();
 
+    /**
+     * @return new initial fact for non-boundary nodes of given CFG.
+     * By default, this is the same as {@link #newInitialFact()}.
+     * Analyses whose facts depend on the analyzed method, e.g., the facts
+     * indexed by the variables of the method, should override this method.
+     */
+    default Fact newInitialFact(CFG<Node> cfg) {
+        return newInitialFact();
+    }
+
     /**
      * Meets a fact into another (target) fact.
      * This function will be used to handle control-flow confluences.
@@ -69,4 +79,34 @@ public interface DataflowAnalysis<Node, Fact> {
      * Edge Transfer function for this analysis.
      */
     void transferEdge(Edge<Node> edge, Fact nodeFact, Fact edgeFact);
+
+    /**
+     * @return true if this analysis supports delta propagation, i.e., its
+     * facts are {@link pascal.taie.analysis.dataflow.fact.SetFact}s,
+     * its initial facts are empty, its meet operator is set union,
+     * its node transfer is distributive over union, and it implements
+     * {@link #transferNodeDelta(Object, Object, Object, Object, Object)}.
+     * By default, this is false.
+     */
+    default boolean hasDeltaTransfer() {
+        return false;
+    }
+
+    /**
+     * Delta-aware node transfer function, which is used by the solver
+     * in delta propagation mode. Given the elements newly added to in (out)
+     * fact of forward (backward) analysis since the last transfer of the
+     * node, this function updates out (in) fact with the transfer of
+     * only these elements, and collects the elements that are newly added
+     * to out (in) fact into {@code newDelta}.
+     *
+     * @param delta    the elements newly added to in (out) fact, which
+     *                 may be modified by this function
+     * @param newDelta the fact to collect the newly added elements of out
+     *                 (in) fact
+     */
+    default void transferNodeDelta(Node node, Fact delta, Fact in, Fact out,
+                                   Fact newDelta) {
+        throw new UnsupportedOperationException();
+    }
 }
@@ -0,0 +1,145 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2020-- Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2020-- Yue Li <yueli@nju.edu.cn>
+ * All rights reserved.
+ *
+ * Tai-e is only for educational and academic purposes,
+ * and any form of commercial use is disallowed.
+ * Distribution of Tai-e is disallowed without the approval.
+ */
+
+package pascal.taie.analysis.dataflow.analysis;
+
+import pascal.taie.util.collection.Maps;
+import pascal.taie.util.collection.Pair;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The expected results in a result file of {@link ResultProcessor}.
+ * On creation, the file is scanned once to index the positions of the
+ * sections, i.e., the results of an analysis on a method, and the lines of
+ * each section are read from the file on demand. Thus, the memory usage
+ * is proportional to the number of sections, instead of the size of the
+ * file. This class is thread-safe.
+ */
+class ExpectedResults {
+
+    private final Path path;
+
+    /**
+     * Map from (method, analysis) to the [start, end) positions of
+     * the section(s) in the file.
+     */
+    private final Map<Pair<String, String>, List<long[]>> sections = Maps.newMap();
+
+    ExpectedResults(Path path) throws IOException {
+        this.path = path;
+        try (InputStream in = new BufferedInputStream(
+                Files.newInputStream(path), 1 << 16)) {
+            ByteArrayOutputStream line = new ByteArrayOutputStream();
+            // only the header lines, which start with "----------",
+            // are decoded
+            boolean maybeHeader = true;
+            int column = 0;
+            long position = 0;
+            long lineStart = 0;
+            long[] current = null;
+            int b;
+            while ((b = in.read()) != -1) {
+                ++position;
+                if (b != '\n') {
+                    if (column++ < 10 && b != '-') {
+                        maybeHeader = false;
+                    }
+                    if (maybeHeader) {
+                        line.write(b);
+                    }
+                    continue;
+                }
+                Pair<String, String> key = maybeHeader && column >= 10 ?
+                        extractKey(line.toString(StandardCharsets.UTF_8).strip()) : null;
+                if (key != null) {
+                    if (current != null) {
+                        current[1] = lineStart;
+                    }
+                    current = new long[]{ position, -1 };
+                    sections.computeIfAbsent(key, k -> new ArrayList<>()).add(current);
+                }
+                line.reset();
+                maybeHeader = true;
+                column = 0;
+                lineStart = position;
+            }
+            if (current != null) {
+                current[1] = position;
+            }
+        }
+    }
+
+    /**
+     * @return the key (method, analysis) of given header line of a section,
+     * or null if the line is not a header.
+     */
+    static Pair<String, String> extractKey(String line) {
+        if (line.startsWith("----------") && line.endsWith("----------")) {
+            int ms = line.indexOf('<'); // method start
+            int me = line.indexOf("> "); // method end
+            String method = line.substring(ms, me + 1);
+            int as = line.lastIndexOf('('); // analysis start
+            int ae = line.lastIndexOf(')'); // analysis end
+            String analysis = line.substring(as + 1, ae);
+            return new Pair<>(method, analysis);
+        } else {
+            return null;
+        }
+    }
+
+    /**
+     * @return the non-blank lines of the section(s) of given method
+     * and analysis, in the order of the file.
+     */
+    List<String> getLines(String method, String analysis) {
+        List<long[]> ranges = sections.get(new Pair<>(method, analysis));
+        if (ranges == null) {
+            return List.of();
+        }
+        List<String> lines = new ArrayList<>();
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            for (long[] range : ranges) {
+                ByteBuffer buffer = ByteBuffer.allocate((int) (range[1] - range[0]));
+                long position = range[0];
+                while (buffer.hasRemaining()) {
+                    int n = channel.read(buffer, position);
+                    if (n < 0) {
+                        break;
+                    }
+                    position += n;
+                }
+                String text = new String(buffer.array(), 0, buffer.position(),
+                        StandardCharsets.UTF_8);
+                text.lines()
+                        .filter(line -> !line.isBlank())
+                        .forEach(lines::add);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to read input file", e);
+        }
+        return lines;
+    }
+}
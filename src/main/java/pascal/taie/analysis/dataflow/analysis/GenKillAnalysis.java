@@ -0,0 +1,45 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2020-- Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2020-- Yue Li <yueli@nju.edu.cn>
+ * All rights reserved.
+ *
+ * Tai-e is only for educational and academic purposes,
+ * and any form of commercial use is disallowed.
+ * Distribution of Tai-e is disallowed without the approval.
+ */
+
+package pascal.taie.analysis.dataflow.analysis;
+
+/**
+ * Template interface for data-flow analyses whose node transfer functions
+ * have the form {@code target = gen U (source - kill)}, where source
+ * (target) is the in (out) fact for forward analysis, and the out (in)
+ * fact for backward analysis.
+ * <p>
+ * The transfer functions of such analyses are closed under composition,
+ * thus the transfer function of a sequence of nodes, e.g., a basic block,
+ * can be summarized by a single pair of gen and kill facts.
+ * Gen/kill analyses do not have edge transfer.
+ *
+ * @param <Node> type of CFG nodes
+ * @param <Fact> type of data-flow facts
+ */
+public interface GenKillAnalysis<Node, Fact> extends DataflowAnalysis<Node, Fact> {
+
+    /**
+     * Composes the transfer function of given node after the transfer
+     * function summarized by gen and kill (in the direction of the analysis),
+     * and updates gen and kill to the summary of the composed function.
+     */
+    void composeTransfer(Node node, Fact gen, Fact kill);
+
+    /**
+     * Applies a gen/kill summary, i.e., sets target to
+     * {@code gen U (source - kill)}.
+     *
+     * @return true if the target fact changed, otherwise false.
+     */
+    boolean transferGenKill(Fact gen, Fact kill, Fact source, Fact target);
+}
@@ -12,25 +12,123 @@
 
 package pascal.taie.analysis.dataflow.analysis;
 
+import pascal.taie.analysis.dataflow.fact.BitSetFact;
+import pascal.taie.analysis.dataflow.fact.DataflowResult;
+import pascal.taie.analysis.dataflow.fact.DefUseTable;
+import pascal.taie.analysis.dataflow.fact.IndexedDataflowResult;
+import pascal.taie.analysis.dataflow.fact.PersistentSetFact;
 import pascal.taie.analysis.dataflow.fact.SetFact;
+import pascal.taie.analysis.dataflow.fact.VarIndexer;
 import pascal.taie.analysis.graph.cfg.CFG;
+import pascal.taie.analysis.graph.cfg.CFGBuilder;
+import pascal.taie.analysis.graph.cfg.IndexedCFG;
 import pascal.taie.config.AnalysisConfig;
+import pascal.taie.ir.IR;
 import pascal.taie.ir.exp.RValue;
 import pascal.taie.ir.exp.Var;
 import pascal.taie.ir.stmt.Stmt;
 
-import java.util.Set;
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
 
 /**
  * Implementation of classic live variable analysis.
+ * <p>
+ * Option "engine" selects how the analysis is solved: "dense" (default)
+ * propagates the facts over all statements by the data-flow solver,
+ * and "sparse" computes the live range of each variable separately,
+ * see {@link SparseLiveVariables}. The sparse engine does not use the
+ * solver, thus it cannot be combined with the options of the solver which
+ * record statistics ("stats") or traces ("trace"), nor with option "fact",
+ * and its solving is only recorded by the flight recorder events of
+ * analyzing the methods.
+ * <p>
+ * Option "fact" selects the representation of the facts of the dense
+ * engine: "bitset" (default) for {@link BitSetFact}, and "persistent"
+ * for {@link PersistentSetFact}, whose copies are O(1).
  */
 public class LiveVariableAnalysis extends
-        AbstractDataflowAnalysis<Stmt, SetFact<Var>> {
+        AbstractDataflowAnalysis<Stmt, SetFact<Var>>
+        implements GenKillAnalysis<Stmt, SetFact<Var>>,
+        ResultCodec<Stmt, SetFact<Var>> {
 
     public static final String ID = "livevar";
 
+    /**
+     * Whether the sparse engine is used.
+     */
+    private final boolean sparse;
+
+    /**
+     * Whether the facts are {@link PersistentSetFact}.
+     */
+    private final boolean persistent;
+
     public LiveVariableAnalysis(AnalysisConfig config) {
         super(config);
+        String engine = getOptions().has("engine") ?
+                getOptions().getString("engine") : "dense";
+        switch (engine) {
+            case "dense":
+                sparse = false;
+                break;
+            case "sparse":
+                sparse = true;
+                break;
+            default:
+                throw new IllegalArgumentException(
+                        "Unknown live variable analysis engine: " + engine);
+        }
+        String fact = getOptions().has("fact") ?
+                getOptions().getString("fact") : "bitset";
+        switch (fact) {
+            case "bitset":
+                persistent = false;
+                break;
+            case "persistent":
+                persistent = true;
+                break;
+            default:
+                throw new IllegalArgumentException(
+                        "Unknown live variable fact: " + fact);
+        }
+        if (sparse) {
+            checkSparseOptions();
+        }
+    }
+
+    /**
+     * @throws IllegalArgumentException if the options that are ignored
+     *                                  by the sparse engine are given.
+     */
+    private void checkSparseOptions() {
+        if (getOptions().has("stats") && getOptions().getBoolean("stats")) {
+            throw new IllegalArgumentException(
+                    "Option stats is not supported by the sparse engine");
+        }
+        if (getOptions().has("trace") && getOptions().getString("trace") != null) {
+            throw new IllegalArgumentException(
+                    "Option trace is not supported by the sparse engine");
+        }
+        if (persistent) {
+            throw new IllegalArgumentException(
+                    "Persistent facts are not supported by the sparse engine");
+        }
+    }
+
+    @Override
+    protected DataflowResult<Stmt, SetFact<Var>> solve(IR ir) {
+        if (sparse) {
+            return SparseLiveVariables.solve(ir.getResult(CFGBuilder.ID));
+        }
+        return super.solve(ir);
+    }
+
+    @Override
+    protected void invalidateCaches(IR ir) {
+        VarIndexer.invalidate(ir);
+        ir.clearResult(LivenessOracle.ID);
     }
 
     @Override
@@ -40,7 +138,7 @@ public class LiveVariableAnalysis extends
 
     @Override
     public SetFact<Var> newBoundaryFact(CFG<Stmt> cfg) {
-        return new SetFact<>();
+        return newInitialFact(cfg);
     }
 
     @Override
@@ -48,6 +146,17 @@ public class LiveVariableAnalysis extends
         return new SetFact<>();
     }
 
+    /**
+     * Live variables are represented by bit vectors indexed by
+     * the variables of the method, or by persistent sets if
+     * option "fact" is "persistent".
+     */
+    @Override
+    public SetFact<Var> newInitialFact(CFG<Stmt> cfg) {
+        return persistent ? new PersistentSetFact<>() :
+                new BitSetFact<>(VarIndexer.of(cfg.getIR()));
+    }
+
     @Override
     public void meetInto(SetFact<Var> fact, SetFact<Var> target) {
         target.union(fact);
@@ -55,22 +164,164 @@ public class LiveVariableAnalysis extends
 
     @Override
     public boolean transferNode(Stmt stmt, SetFact<Var> in, SetFact<Var> out) {
-        SetFact<Var> result = new SetFact<>();
-        result.set(out);
-        if(stmt.getDef().isPresent()){
-            if(stmt.getDef().get() instanceof Var){
-                result.remove((Var)stmt.getDef().get());
+        if (in instanceof BitSetFact && out instanceof BitSetFact) {
+            return transfer(stmt, (BitSetFact<Var>) in, (BitSetFact<Var>) out);
+        }
+        SetFact<Var> result = out.copy();
+        stmt.getDef().ifPresent(def -> {
+            if (def instanceof Var) {
+                result.remove((Var) def);
             }
+        });
+        for (RValue use : stmt.getUses()) {
+            if (use instanceof Var) {
+                result.add((Var) use);
+            }
+        }
+        if (result.equals(in)) {
+            return false;
         }
-        for(RValue rValue : stmt.getUses()){
-            if(rValue instanceof Var){
-                result.add((Var)rValue);
+        in.set(result);
+        return true;
+    }
+
+    /**
+     * Transfer function on bit-vector facts, which updates in fact in place
+     * with the def/use table of the method, and allocates nothing.
+     * The table is taken from the indexer of the facts.
+     */
+    static boolean transfer(Stmt stmt, BitSetFact<Var> in, BitSetFact<Var> out) {
+        DefUseTable table = ((VarIndexer) in.getIndexer()).getDefUseTable();
+        return in.setGenKill(out, table.getDef(stmt), table.getUses(stmt));
+    }
+
+    @Override
+    public boolean hasDeltaTransfer() {
+        return true;
+    }
+
+    /**
+     * A variable newly live at the exit of a statement is newly live at
+     * its entry, unless it is defined by the statement or already live.
+     */
+    @Override
+    public void transferNodeDelta(Stmt stmt, SetFact<Var> delta,
+                                  SetFact<Var> in, SetFact<Var> out,
+                                  SetFact<Var> newDelta) {
+        stmt.getDef().ifPresent(def -> {
+            if (def instanceof Var) {
+                delta.remove((Var) def);
+            }
+        });
+        in.unionNew(delta, newDelta);
+    }
+
+    @Override
+    public void composeTransfer(Stmt stmt, SetFact<Var> gen, SetFact<Var> kill) {
+        stmt.getDef().ifPresent(def -> {
+            if (def instanceof Var) {
+                gen.remove((Var) def);
+                kill.add((Var) def);
             }
+        });
+        for (RValue use : stmt.getUses()) {
+            if (use instanceof Var) {
+                gen.add((Var) use);
+            }
+        }
+    }
+
+    @Override
+    public boolean transferGenKill(SetFact<Var> gen, SetFact<Var> kill,
+                                   SetFact<Var> out, SetFact<Var> in) {
+        if (in instanceof BitSetFact && out instanceof BitSetFact &&
+                gen instanceof BitSetFact && kill instanceof BitSetFact) {
+            return ((BitSetFact<Var>) in).setGenKill((BitSetFact<Var>) out,
+                    (BitSetFact<Var>) gen, (BitSetFact<Var>) kill);
         }
-        if(result.equals(in)){
+        SetFact<Var> result = out.copy();
+        result.removeIf(kill::contains);
+        result.union(gen);
+        if (result.equals(in)) {
             return false;
         }
         in.set(result);
         return true;
     }
+
+    /**
+     * Writes the in and out facts of each node (in the order of
+     * {@link IndexedCFG}) as the indexes of the live variables
+     * given by {@link VarIndexer}.
+     */
+    @Override
+    public void writeResult(CFG<Stmt> cfg, DataflowResult<Stmt, SetFact<Var>> result,
+                            DataOutput out) throws IOException {
+        IndexedCFG<Stmt> g = IndexedCFG.of(cfg);
+        VarIndexer indexer = VarIndexer.of(cfg.getIR());
+        out.writeInt(g.getNumberOfNodes());
+        out.writeInt(indexer.size());
+        for (int i = 0; i < g.getNumberOfNodes(); ++i) {
+            Stmt node = g.getNode(i);
+            writeFact(result.getInFact(node), indexer, out);
+            writeFact(result.getOutFact(node), indexer, out);
+        }
+    }
+
+    private static void writeFact(SetFact<Var> fact, VarIndexer indexer,
+                                  DataOutput out) throws IOException {
+        if (fact == null) {
+            out.writeInt(-1);
+            return;
+        }
+        int[] indexes = fact.stream()
+                .mapToInt(indexer::getIndex)
+                .sorted()
+                .toArray();
+        out.writeInt(indexes.length);
+        for (int index : indexes) {
+            out.writeInt(index);
+        }
+    }
+
+    @Override
+    public DataflowResult<Stmt, SetFact<Var>> readResult(
+            CFG<Stmt> cfg, DataInput in) throws IOException {
+        IndexedCFG<Stmt> g = IndexedCFG.of(cfg);
+        VarIndexer indexer = VarIndexer.of(cfg.getIR());
+        if (in.readInt() != g.getNumberOfNodes() ||
+                in.readInt() != indexer.size()) {
+            throw new IOException("Result does not match the CFG of " +
+                    cfg.getMethod());
+        }
+        IndexedDataflowResult<Stmt, SetFact<Var>> result =
+                new IndexedDataflowResult<>(g, false);
+        for (int i = 0; i < g.getNumberOfNodes(); ++i) {
+            Stmt node = g.getNode(i);
+            result.setInFact(node, readFact(indexer, in));
+            result.setOutFact(node, readFact(indexer, in));
+        }
+        return result;
+    }
+
+    /**
+     * Reads a fact of the kind given by option "fact".
+     */
+    private SetFact<Var> readFact(VarIndexer indexer, DataInput in)
+            throws IOException {
+        int size = in.readInt();
+        if (size < 0) {
+            return null;
+        }
+        SetFact<Var> fact = persistent ? new PersistentSetFact<>() :
+                new BitSetFact<>(indexer);
+        for (int i = 0; i < size; ++i) {
+            int index = in.readInt();
+            if (index < 0 || index >= indexer.size()) {
+                throw new IOException("Invalid variable index: " + index);
+            }
+            fact.add(indexer.getObject(index));
+        }
+        return fact;
+    }
 }
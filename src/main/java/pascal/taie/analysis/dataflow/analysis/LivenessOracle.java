@@ -0,0 +1,518 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2020-- Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2020-- Yue Li <yueli@nju.edu.cn>
+ * All rights reserved.
+ *
+ * Tai-e is only for educational and academic purposes,
+ * and any form of commercial use is disallowed.
+ * Distribution of Tai-e is disallowed without the approval.
+ */
+
+package pascal.taie.analysis.dataflow.analysis;
+
+import pascal.taie.analysis.dataflow.fact.DefUseTable;
+import pascal.taie.analysis.dataflow.fact.VarIndexer;
+import pascal.taie.analysis.graph.cfg.CFG;
+import pascal.taie.analysis.graph.cfg.CFGBuilder;
+import pascal.taie.analysis.graph.cfg.IndexedCFG;
+import pascal.taie.ir.IR;
+import pascal.taie.ir.exp.Var;
+import pascal.taie.ir.stmt.Stmt;
+import pascal.taie.util.graph.ReversePostOrder;
+
+import java.util.Arrays;
+import java.util.BitSet;
+
+/**
+ * Answers liveness queries of single variables at single statements,
+ * without solving live variable analysis for the whole method.
+ * The results are the same as the ones of {@link LiveVariableAnalysis}.
+ * <p>
+ * The queries follow fast liveness checking (Boissinot et al., CGO'08):
+ * for a variable that has a unique definition d which dominates all
+ * its uses, the variable is live-in at q if and only if d strictly
+ * dominates q, and some use is reachable from q, or from the header of
+ * a loop that encloses q and is strictly dominated by d, in the CFG
+ * without back edges. The queries only need the dominator tree and
+ * the back edges, which are computed once per method, and the reachable
+ * sets of the queried nodes. Other variables, and all variables of
+ * methods with irreducible CFGs, are handled by walking backward from
+ * their uses, once per variable.
+ * <p>
+ * The answers are cached, and the oracle of a method is built on demand
+ * by {@link #of(IR)}, so that the clients which only query the liveness of
+ * a few variables need not to run {@link LiveVariableAnalysis}.
+ * The oracle is not thread-safe.
+ */
+public class LivenessOracle {
+
+    /**
+     * Key of the oracle stored in the IR.
+     */
+    public static final String ID = "liveness-oracle";
+
+    private final IndexedCFG<Stmt> cfg;
+
+    private final DefUseTable table;
+
+    private final VarIndexer indexer;
+
+    private final int size;
+
+    /**
+     * Number of variables of the method.
+     */
+    private final int vars;
+
+    /**
+     * Index of the definition node of each variable if the variable
+     * can be checked by fast liveness checking, otherwise -1.
+     */
+    private final int[] defOf;
+
+    /**
+     * The nodes which use each variable, in compressed sparse row format.
+     */
+    private final int[] useOffsets;
+
+    private final int[] uses;
+
+    /**
+     * Whether the CFG is reducible, i.e., the target of each back edge
+     * dominates its source.
+     */
+    private final boolean reducible;
+
+    private final boolean[] reachable;
+
+    /**
+     * Pre-order and post-order numbers of the nodes in dominator tree,
+     * for constant-time dominance checks.
+     */
+    private final int[] domPre;
+
+    private final int[] domPost;
+
+    /**
+     * Whether each edge (by its edge index) is a back edge.
+     */
+    private final boolean[] backEdges;
+
+    /**
+     * Nodes reachable from each node in the CFG without back edges,
+     * computed on demand.
+     */
+    private final BitSet[] reduced;
+
+    /**
+     * Loop headers to be considered for each node, computed on demand.
+     */
+    private final int[][] targets;
+
+    /**
+     * Live-in nodes of the variables which are not checked
+     * by fast liveness checking, computed on demand.
+     */
+    private final BitSet[] liveIns;
+
+    /**
+     * Cached answers of {@link #isLiveIn(Var, Stmt)}, indexed by
+     * variable index * size + node index: whether the answer of each
+     * query is known, and the known answers. The answers are not cached
+     * if the number of queries exceeds the range of the indexes.
+     */
+    private final BitSet known;
+
+    private final BitSet answers;
+
+    private LivenessOracle(CFG<Stmt> cfg) {
+        this.cfg = IndexedCFG.of(cfg);
+        this.table = DefUseTable.of(cfg.getIR());
+        this.indexer = table.getVarIndexer();
+        size = this.cfg.getNumberOfNodes();
+        vars = indexer.size();
+        if ((long) vars * size <= Integer.MAX_VALUE) {
+            known = new BitSet();
+            answers = new BitSet();
+        } else {
+            known = null;
+            answers = null;
+        }
+        // uses of each variable
+        useOffsets = new int[vars + 1];
+        for (int i = 0; i < size; ++i) {
+            for (int v : table.getUses(this.cfg.getNode(i))) {
+                ++useOffsets[v + 1];
+            }
+        }
+        for (int v = 0; v < vars; ++v) {
+            useOffsets[v + 1] += useOffsets[v];
+        }
+        uses = new int[useOffsets[vars]];
+        int[] filled = new int[vars];
+        for (int i = 0; i < size; ++i) {
+            for (int v : table.getUses(this.cfg.getNode(i))) {
+                uses[useOffsets[v] + filled[v]++] = i;
+            }
+        }
+        // dominator tree and back edges
+        int entry = this.cfg.getIndex(cfg.getEntry());
+        reachable = new boolean[size];
+        int[] order = computeReachableOrder(entry);
+        int[] idom = computeDominators(order);
+        domPre = new int[size];
+        domPost = new int[size];
+        numberDominatorTree(entry, idom);
+        backEdges = new boolean[this.cfg.getNumberOfEdges()];
+        reducible = findBackEdges(order);
+        reduced = new BitSet[size];
+        targets = new int[size][];
+        liveIns = new BitSet[vars];
+        // variables that can be checked by fast liveness checking
+        defOf = new int[vars];
+        int[] defCount = new int[vars];
+        Arrays.fill(defOf, entry);
+        for (int i = 0; i < size; ++i) {
+            int v = table.getDef(this.cfg.getNode(i));
+            if (v >= 0) {
+                defOf[v] = i;
+                ++defCount[v];
+            }
+        }
+        for (int v = 0; v < vars; ++v) {
+            if (!reducible || defCount[v] > 1 || !reachable[defOf[v]]) {
+                defOf[v] = -1;
+                continue;
+            }
+            for (int u = useOffsets[v]; u < useOffsets[v + 1]; ++u) {
+                if (!reachable[uses[u]] || !strictlyDominates(defOf[v], uses[u])) {
+                    defOf[v] = -1;
+                    break;
+                }
+            }
+        }
+    }
+
+    /**
+     * @return the liveness oracle of given IR. The oracle is built once
+     * and stored in the IR with key {@link #ID}. The IR must have its CFG.
+     */
+    public static LivenessOracle of(IR ir) {
+        LivenessOracle oracle = ir.getResult(ID);
+        if (oracle == null) {
+            oracle = new LivenessOracle(ir.getResult(CFGBuilder.ID));
+            ir.storeResult(ID, oracle);
+        }
+        return oracle;
+    }
+
+    /**
+     * @return true if given variable is live at the entry of given statement.
+     */
+    public boolean isLiveIn(Var var, Stmt stmt) {
+        int v = indexer.getIndex(var);
+        if (v < 0) { // not a variable of the method
+            return false;
+        }
+        int q = cfg.getIndex(stmt);
+        if (known == null) {
+            return answer(v, q);
+        }
+        int key = v * size + q;
+        if (!known.get(key)) {
+            known.set(key);
+            answers.set(key, answer(v, q));
+        }
+        return answers.get(key);
+    }
+
+    private boolean answer(int v, int q) {
+        return defOf[v] >= 0 && reachable[q] ?
+                checkLiveIn(v, q) : getLiveIns(v).get(q);
+    }
+
+    /**
+     * @return true if given variable is live at the exit of given statement,
+     * i.e., it is live at the entry of any successor of the statement.
+     */
+    public boolean isLiveOut(Var var, Stmt stmt) {
+        int q = cfg.getIndex(stmt);
+        for (int k = 0; k < cfg.succCount(q); ++k) {
+            if (isLiveIn(var, cfg.getNode(cfg.succAt(q, k)))) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Fast liveness checking of variable v at node q.
+     */
+    private boolean checkLiveIn(int v, int q) {
+        int def = defOf[v];
+        if (!strictlyDominates(def, q)) {
+            return false;
+        }
+        for (int t : getTargets(q)) {
+            if (t == q || strictlyDominates(def, t)) {
+                BitSet reach = getReduced(t);
+                for (int u = useOffsets[v]; u < useOffsets[v + 1]; ++u) {
+                    if (reach.get(uses[u])) {
+                        return true;
+                    }
+                }
+            }
+        }
+        return false;
+    }
+
+    /**
+     * @return the nodes reachable from given node in the CFG without
+     * back edges (including the node itself).
+     */
+    private BitSet getReduced(int node) {
+        BitSet reach = reduced[node];
+        if (reach == null) {
+            reach = new BitSet(size);
+            int[] stack = new int[size];
+            int top = 0;
+            reach.set(node);
+            stack[top++] = node;
+            while (top > 0) {
+                int n = stack[--top];
+                for (int k = 0; k < cfg.succCount(n); ++k) {
+                    int succ = cfg.succAt(n, k);
+                    if (!backEdges[cfg.getOutEdgeIndex(n, k)] && !reach.get(succ)) {
+                        reach.set(succ);
+                        stack[top++] = succ;
+                    }
+                }
+            }
+            reduced[node] = reach;
+        }
+        return reach;
+    }
+
+    /**
+     * @return given node and the headers of the loops which enclose the
+     * node, i.e., the targets of the back edges whose sources are reachable
+     * from the node (or from the other such headers) in the CFG without
+     * back edges, but the targets themselves are not.
+     */
+    private int[] getTargets(int node) {
+        int[] result = targets[node];
+        if (result == null) {
+            BitSet found = new BitSet(size);
+            int[] queue = new int[size];
+            int tail = 0;
+            found.set(node);
+            queue[tail++] = node;
+            for (int head = 0; head < tail; ++head) {
+                BitSet reach = getReduced(queue[head]);
+                for (int s = reach.nextSetBit(0); s >= 0; s = reach.nextSetBit(s + 1)) {
+                    for (int k = 0; k < cfg.succCount(s); ++k) {
+                        int t = cfg.succAt(s, k);
+                        // the headers in reach are covered by reach itself
+                        if (backEdges[cfg.getOutEdgeIndex(s, k)] &&
+                                !reach.get(t) && !found.get(t)) {
+                            found.set(t);
+                            queue[tail++] = t;
+                        }
+                    }
+                }
+            }
+            result = Arrays.copyOf(queue, tail);
+            targets[node] = result;
+        }
+        return result;
+    }
+
+    /**
+     * @return the nodes where variable v is live-in, computed by walking
+     * backward from its uses until reaching its definitions.
+     */
+    private BitSet getLiveIns(int v) {
+        BitSet live = liveIns[v];
+        if (live == null) {
+            live = new BitSet(size);
+            int[] stack = new int[size];
+            int top = 0;
+            for (int u = useOffsets[v]; u < useOffsets[v + 1]; ++u) {
+                if (!live.get(uses[u])) {
+                    live.set(uses[u]);
+                    stack[top++] = uses[u];
+                }
+            }
+            while (top > 0) {
+                int node = stack[--top];
+                for (int k = 0; k < cfg.predCount(node); ++k) {
+                    int pred = cfg.predAt(node, k);
+                    if (!live.get(pred) && table.getDef(cfg.getNode(pred)) != v) {
+                        live.set(pred);
+                        stack[top++] = pred;
+                    }
+                }
+            }
+            liveIns[v] = live;
+        }
+        return live;
+    }
+
+    /**
+     * Marks the nodes reachable from entry.
+     *
+     * @return the reachable nodes in reverse postorder.
+     */
+    private int[] computeReachableOrder(int entry) {
+        int[] stack = new int[size];
+        int top = 0;
+        reachable[entry] = true;
+        stack[top++] = entry;
+        int count = 0;
+        while (top > 0) {
+            int n = stack[--top];
+            ++count;
+            for (int k = 0; k < cfg.succCount(n); ++k) {
+                int succ = cfg.succAt(n, k);
+                if (!reachable[succ]) {
+                    reachable[succ] = true;
+                    stack[top++] = succ;
+                }
+            }
+        }
+        // the unreachable nodes are placed after the reachable ones
+        return Arrays.copyOf(ReversePostOrder.compute(cfg, entry, false), count);
+    }
+
+    /**
+     * Computes immediate dominators of the reachable nodes by the
+     * algorithm of Cooper, Harvey and Kennedy.
+     *
+     * @param order the reachable nodes in reverse postorder
+     * @return immediate dominator of each reachable node
+     * (entry for entry itself), or -1 for unreachable nodes.
+     */
+    private int[] computeDominators(int[] order) {
+        int[] rpo = new int[size];
+        Arrays.fill(rpo, -1);
+        for (int i = 0; i < order.length; ++i) {
+            rpo[order[i]] = i;
+        }
+        int[] idom = new int[size];
+        Arrays.fill(idom, -1);
+        int entry = order[0];
+        idom[entry] = entry;
+        boolean changed = true;
+        while (changed) {
+            changed = false;
+            for (int i = 1; i < order.length; ++i) {
+                int n = order[i];
+                int newIdom = -1;
+                for (int k = 0; k < cfg.predCount(n); ++k) {
+                    int pred = cfg.predAt(n, k);
+                    if (idom[pred] < 0) {
+                        continue;
+                    }
+                    newIdom = newIdom < 0 ? pred : intersect(pred, newIdom, idom, rpo);
+                }
+                if (idom[n] != newIdom) {
+                    idom[n] = newIdom;
+                    changed = true;
+                }
+            }
+        }
+        return idom;
+    }
+
+    private static int intersect(int n1, int n2, int[] idom, int[] rpo) {
+        while (n1 != n2) {
+            while (rpo[n1] > rpo[n2]) {
+                n1 = idom[n1];
+            }
+            while (rpo[n2] > rpo[n1]) {
+                n2 = idom[n2];
+            }
+        }
+        return n1;
+    }
+
+    /**
+     * Numbers the nodes of dominator tree in pre-order and post-order.
+     */
+    private void numberDominatorTree(int entry, int[] idom) {
+        int[] childOffsets = new int[size + 1];
+        for (int n = 0; n < size; ++n) {
+            if (idom[n] >= 0 && n != entry) {
+                ++childOffsets[idom[n] + 1];
+            }
+        }
+        for (int n = 0; n < size; ++n) {
+            childOffsets[n + 1] += childOffsets[n];
+        }
+        int[] children = new int[childOffsets[size]];
+        int[] filled = new int[size];
+        for (int n = 0; n < size; ++n) {
+            if (idom[n] >= 0 && n != entry) {
+                children[childOffsets[idom[n]] + filled[idom[n]]++] = n;
+            }
+        }
+        int[] stack = new int[size];
+        int[] next = new int[size];
+        int top = 0;
+        int pre = 0;
+        int post = 0;
+        stack[0] = entry;
+        next[0] = childOffsets[entry];
+        domPre[entry] = pre++;
+        while (top >= 0) {
+            int n = stack[top];
+            if (next[top] < childOffsets[n + 1]) {
+                int child = children[next[top]++];
+                ++top;
+                stack[top] = child;
+                next[top] = childOffsets[child];
+                domPre[child] = pre++;
+            } else {
+                domPost[n] = post++;
+                --top;
+            }
+        }
+    }
+
+    /**
+     * Marks the back edges, i.e., the edges whose targets come no later
+     * than their sources in reverse postorder.
+     *
+     * @return true if the target of every back edge dominates its source.
+     */
+    private boolean findBackEdges(int[] order) {
+        int[] rpo = new int[size];
+        for (int i = 0; i < order.length; ++i) {
+            rpo[order[i]] = i;
+        }
+        boolean result = true;
+        for (int n : order) {
+            for (int k = 0; k < cfg.succCount(n); ++k) {
+                int succ = cfg.succAt(n, k);
+                if (rpo[succ] <= rpo[n]) {
+                    backEdges[cfg.getOutEdgeIndex(n, k)] = true;
+                    result &= dominates(succ, n);
+                }
+            }
+        }
+        return result;
+    }
+
+    /**
+     * @return true if node n1 dominates node n2. Both nodes are reachable.
+     */
+    private boolean dominates(int n1, int n2) {
+        return domPre[n1] <= domPre[n2] && domPost[n2] <= domPost[n1];
+    }
+
+    private boolean strictlyDominates(int n1, int n2) {
+        return n1 != n2 && dominates(n1, n2);
+    }
+}
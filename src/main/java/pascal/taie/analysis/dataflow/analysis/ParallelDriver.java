@@ -0,0 +1,94 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2020-- Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2020-- Yue Li <yueli@nju.edu.cn>
+ * All rights reserved.
+ *
+ * Tai-e is only for educational and academic purposes,
+ * and any form of commercial use is disallowed.
+ * Distribution of Tai-e is disallowed without the approval.
+ */
+
+package pascal.taie.analysis.dataflow.analysis;
+
+import pascal.taie.ir.IR;
+import pascal.taie.util.collection.Maps;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+/**
+ * Runs an intraprocedural analysis on the IRs of many methods in parallel.
+ * <p>
+ * The IRs are sorted by their estimated cost, and the worker threads of
+ * a {@link ForkJoinPool} repeatedly take the most expensive IR which has
+ * not been analyzed, so that the largest methods are started first and
+ * do not become the stragglers at the end of the run.
+ * The result of each IR only depends on the IR itself, thus the results
+ * are the same as the ones of sequential execution.
+ */
+class ParallelDriver {
+
+    private ParallelDriver() {
+    }
+
+    /**
+     * Analyzes the given IRs in parallel.
+     *
+     * @param irs      the IRs to be analyzed
+     * @param analysis the analysis function, which must be safe to be
+     *                 applied to different IRs concurrently
+     * @param threads  number of worker threads
+     * @return map from each IR to its analysis result
+     */
+    static <R> Map<IR, R> analyze(List<IR> irs, Function<IR, R> analysis,
+                                  int threads) {
+        List<IR> sorted = new ArrayList<>(irs);
+        sorted.sort(Comparator.comparingLong(ParallelDriver::estimateCost)
+                .reversed());
+        Object[] results = new Object[sorted.size()];
+        AtomicInteger next = new AtomicInteger();
+        Runnable worker = () -> {
+            int i;
+            while ((i = next.getAndIncrement()) < sorted.size()) {
+                results[i] = analysis.apply(sorted.get(i));
+            }
+        };
+        ForkJoinPool pool = new ForkJoinPool(threads);
+        try {
+            List<ForkJoinTask<?>> tasks = new ArrayList<>(threads);
+            for (int t = 0; t < threads; ++t) {
+                tasks.add(pool.submit(worker));
+            }
+            // join() re-throws the exceptions thrown by the workers
+            tasks.forEach(ForkJoinTask::join);
+        } finally {
+            pool.shutdown();
+        }
+        Map<IR, R> resultMap = Maps.newMap(sorted.size());
+        for (int i = 0; i < sorted.size(); ++i) {
+            @SuppressWarnings("unchecked")
+            R result = (R) results[i];
+            resultMap.put(sorted.get(i), result);
+        }
+        return resultMap;
+    }
+
+    /**
+     * Estimates the cost of analyzing given IR. Data-flow analyses visit
+     * each statement at least once, and the cost of each visit is roughly
+     * proportional to the number of variables (e.g., the size of
+     * bit-vector facts), thus the cost is estimated as the product of
+     * the numbers of statements and words needed by the variables.
+     */
+    static long estimateCost(IR ir) {
+        return (long) ir.getStmts().size() * (ir.getVars().size() / 64 + 1);
+    }
+}
@@ -0,0 +1,270 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2020-- Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2020-- Yue Li <yueli@nju.edu.cn>
+ * All rights reserved.
+ *
+ * Tai-e is only for educational and academic purposes,
+ * and any form of commercial use is disallowed.
+ * Distribution of Tai-e is disallowed without the approval.
+ */
+
+package pascal.taie.analysis.dataflow.analysis;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import pascal.taie.analysis.graph.cfg.CFG;
+import pascal.taie.analysis.graph.cfg.IndexedCFG;
+import pascal.taie.ir.IR;
+import pascal.taie.ir.exp.Var;
+import pascal.taie.ir.stmt.Stmt;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.FileTime;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Persistent cache of analysis results on disk. Each entry is a file in the
+ * cache directory, whose name is a hash of the analysis and the content of
+ * the analyzed method, i.e., its signature, variables, statements and
+ * CFG, so that the entries of unchanged methods can be reused across runs,
+ * and the entries of changed methods are never hit.
+ * <p>
+ * The total size of the entries is bounded: when it exceeds the limit,
+ * the least recently used entries are evicted. This class is thread-safe.
+ */
+public class ResultCache {
+
+    private static final Logger logger = LogManager.getLogger(ResultCache.class);
+
+    /**
+     * Version of the key and data formats, which should be increased
+     * when the formats are changed.
+     */
+    private static final int VERSION = 1;
+
+    private static final String SUFFIX = ".bin";
+
+    private final Path dir;
+
+    private final long maxBytes;
+
+    /**
+     * Sizes of the entries, in least-recently-used order.
+     */
+    private final LinkedHashMap<String, Long> entries =
+            new LinkedHashMap<>(16, 0.75f, true);
+
+    private long totalBytes;
+
+    private long hits;
+
+    private long misses;
+
+    private long evictions;
+
+    /**
+     * @param dir      the cache directory, which is created if absent
+     * @param maxBytes maximum total size of the entries in bytes
+     */
+    public ResultCache(Path dir, long maxBytes) {
+        this.dir = dir;
+        this.maxBytes = maxBytes;
+        try {
+            Files.createDirectories(dir);
+            // load the existing entries, oldest first
+            List<Path> files;
+            try (Stream<Path> paths = Files.list(dir)) {
+                files = paths.filter(p -> p.toString().endsWith(SUFFIX))
+                        .sorted(Comparator.comparing(ResultCache::lastModified))
+                        .collect(Collectors.toList());
+            }
+            for (Path file : files) {
+                long size = Files.size(file);
+                String name = file.getFileName().toString();
+                entries.put(name.substring(0, name.length() - SUFFIX.length()), size);
+                totalBytes += size;
+            }
+            evict();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to open result cache " + dir, e);
+        }
+    }
+
+    private static FileTime lastModified(Path file) {
+        try {
+            return Files.getLastModifiedTime(file);
+        } catch (IOException e) {
+            return FileTime.fromMillis(0);
+        }
+    }
+
+    /**
+     * @return the cache key of the result of given analysis on given IR.
+     */
+    public static String getKey(String analysisId, IR ir, CFG<?> cfg) {
+        MessageDigest digest;
+        try {
+            digest = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new AssertionError(e);
+        }
+        StringBuilder content = new StringBuilder();
+        content.append(VERSION).append('\n')
+                .append(analysisId).append('\n')
+                .append(ir.getMethod()).append('\n');
+        for (Var var : ir.getVars()) {
+            content.append(var.getName()).append(':')
+                    .append(var.getType()).append('\n');
+        }
+        for (Stmt stmt : ir.getStmts()) {
+            content.append(stmt.getIndex()).append(' ')
+                    .append(stmt).append('\n');
+        }
+        IndexedCFG<?> g = IndexedCFG.of(cfg);
+        for (int i = 0; i < g.getNumberOfNodes(); ++i) {
+            content.append(i).append(" ->");
+            for (int k = 0; k < g.succCount(i); ++k) {
+                content.append(' ').append(g.outEdgeAt(i, k).getKind())
+                        .append(':').append(g.succAt(i, k));
+            }
+            content.append('\n');
+        }
+        byte[] hash = digest.digest(
+                content.toString().getBytes(StandardCharsets.UTF_8));
+        StringBuilder key = new StringBuilder(hash.length * 2);
+        for (byte b : hash) {
+            key.append(Character.forDigit((b >> 4) & 0xf, 16))
+                    .append(Character.forDigit(b & 0xf, 16));
+        }
+        return key.toString();
+    }
+
+    /**
+     * @return the data of given key, or null if the key is absent.
+     */
+    public byte[] load(String key) {
+        synchronized (this) {
+            if (entries.get(key) == null) {
+                ++misses;
+                return null;
+            }
+        }
+        Path file = getFile(key);
+        try {
+            byte[] data = Files.readAllBytes(file);
+            Files.setLastModifiedTime(file, FileTime.fromMillis(System.currentTimeMillis()));
+            synchronized (this) {
+                ++hits;
+            }
+            return data;
+        } catch (IOException e) {
+            logger.warn("Failed to read cache entry {}: {}", file, e.toString());
+            remove(key);
+            synchronized (this) {
+                ++misses;
+            }
+            return null;
+        }
+    }
+
+    /**
+     * Saves the data of given key, and evicts the least recently used
+     * entries if the total size exceeds the limit.
+     */
+    public void store(String key, byte[] data) {
+        if (data.length > maxBytes) {
+            return;
+        }
+        Path file = getFile(key);
+        try {
+            Path temp = Files.createTempFile(dir, key, ".tmp");
+            Files.write(temp, data);
+            Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING,
+                    StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            logger.warn("Failed to write cache entry {}: {}", file, e.toString());
+            return;
+        }
+        synchronized (this) {
+            Long old = entries.put(key, (long) data.length);
+            totalBytes += data.length - (old != null ? old : 0);
+            evict();
+        }
+    }
+
+    /**
+     * Evicts the least recently used entries until the total size
+     * does not exceed the limit.
+     */
+    private synchronized void evict() {
+        Iterator<Map.Entry<String, Long>> iter = entries.entrySet().iterator();
+        while (totalBytes > maxBytes && iter.hasNext()) {
+            Map.Entry<String, Long> eldest = iter.next();
+            iter.remove();
+            totalBytes -= eldest.getValue();
+            ++evictions;
+            delete(getFile(eldest.getKey()));
+        }
+    }
+
+    private synchronized void remove(String key) {
+        Long size = entries.remove(key);
+        if (size != null) {
+            totalBytes -= size;
+        }
+        delete(getFile(key));
+    }
+
+    private static void delete(Path file) {
+        try {
+            Files.deleteIfExists(file);
+        } catch (IOException e) {
+            logger.warn("Failed to delete cache entry {}: {}", file, e.toString());
+        }
+    }
+
+    private Path getFile(String key) {
+        return dir.resolve(key + SUFFIX);
+    }
+
+    public synchronized long getHits() {
+        return hits;
+    }
+
+    public synchronized long getMisses() {
+        return misses;
+    }
+
+    public synchronized long getEvictions() {
+        return evictions;
+    }
+
+    /**
+     * @return total size of the entries in bytes.
+     */
+    public synchronized long getTotalBytes() {
+        return totalBytes;
+    }
+
+    @Override
+    public synchronized String toString() {
+        return String.format("ResultCache{%s, %d entries, %d bytes," +
+                        " %d hits, %d misses, %d evictions}", dir,
+                entries.size(), totalBytes, hits, misses, evictions);
+    }
+}
@@ -0,0 +1,47 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2020-- Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2020-- Yue Li <yueli@nju.edu.cn>
+ * All rights reserved.
+ *
+ * Tai-e is only for educational and academic purposes,
+ * and any form of commercial use is disallowed.
+ * Distribution of Tai-e is disallowed without the approval.
+ */
+
+package pascal.taie.analysis.dataflow.analysis;
+
+import pascal.taie.analysis.dataflow.fact.DataflowResult;
+import pascal.taie.analysis.graph.cfg.CFG;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+
+/**
+ * Interface for data-flow analyses whose results can be serialized,
+ * e.g., to be saved in {@link ResultCache}. The results are encoded
+ * relative to the CFG, e.g., by the indexes of the nodes and variables,
+ * so they can only be decoded with the same CFG.
+ *
+ * @param <Node> type of CFG nodes
+ * @param <Fact> type of data-flow facts
+ */
+public interface ResultCodec<Node, Fact> extends DataflowAnalysis<Node, Fact> {
+
+    /**
+     * Writes the node facts of given result of the CFG.
+     */
+    void writeResult(CFG<Node> cfg, DataflowResult<Node, Fact> result,
+                     DataOutput out) throws IOException;
+
+    /**
+     * Reads a result written by
+     * {@link #writeResult(CFG, DataflowResult, DataOutput)}.
+     *
+     * @throws IOException if the data is malformed or does not match the CFG
+     */
+    DataflowResult<Node, Fact> readResult(CFG<Node> cfg, DataInput in)
+            throws IOException;
+}
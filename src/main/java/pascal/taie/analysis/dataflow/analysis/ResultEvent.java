@@ -0,0 +1,45 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2020-- Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2020-- Yue Li <yueli@nju.edu.cn>
+ * All rights reserved.
+ *
+ * Tai-e is only for educational and academic purposes,
+ * and any form of commercial use is disallowed.
+ * Distribution of Tai-e is disallowed without the approval.
+ */
+
+package pascal.taie.analysis.dataflow.analysis;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * Flight recorder event of processing the result of an analysis
+ * on a method by {@link ResultProcessor}.
+ */
+@Name("pascal.taie.ProcessResult")
+@Label("Result Processing")
+@Category({"Tai-e", "Analysis"})
+@Description("Dump or comparison of the result of an analysis on a method")
+class ResultEvent extends Event {
+
+    @Label("Action")
+    String action;
+
+    @Label("Analysis")
+    String analysis;
+
+    @Label("Method")
+    String method;
+
+    @Label("Statements")
+    int stmts;
+
+    @Label("Variables")
+    int vars;
+}
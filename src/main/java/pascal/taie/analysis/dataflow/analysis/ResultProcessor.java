@@ -16,7 +16,9 @@ import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 import pascal.taie.World;
 import pascal.taie.analysis.InterproceduralAnalysis;
+import pascal.taie.analysis.dataflow.fact.InternStatistics;
 import pascal.taie.analysis.dataflow.fact.NodeResult;
+import pascal.taie.analysis.dataflow.solver.SolverStatistics;
 import pascal.taie.config.AnalysisConfig;
 import pascal.taie.ir.IR;
 import pascal.taie.ir.IRPrinter;
@@ -24,14 +26,15 @@ import pascal.taie.ir.stmt.Stmt;
 import pascal.taie.language.classes.JClass;
 import pascal.taie.language.classes.JMethod;
 import pascal.taie.util.collection.Maps;
-import pascal.taie.util.collection.Pair;
 
-import java.io.BufferedReader;
-import java.io.FileNotFoundException;
 import java.io.IOException;
 import java.io.PrintStream;
-import java.nio.file.Files;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
 import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Comparator;
 import java.util.LinkedHashSet;
@@ -39,17 +42,30 @@ import java.util.List;
 import java.util.Map;
 import java.util.Objects;
 import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
 import java.util.function.BiFunction;
+import java.util.function.IntFunction;
+import java.util.function.Supplier;
 import java.util.stream.Collectors;
+import java.util.stream.IntStream;
 import java.util.stream.Stream;
 
-import static pascal.taie.util.collection.CollectionUtils.getOne;
-
 /**
  * Special class for process the results of other analyses after they finish.
  * This class is designed mainly for testing purpose. Currently, it supports
  * input/output analysis results from/to file, and compare analysis results
  * with input results. This analysis should be placed after the other analyses.
+ * <p>
+ * Action "dump-binary" dumps the results to a compact binary file, which can
+ * be read by {@link BinaryResultFile}, and converted to the text format of
+ * action "dump" by {@link BinaryResultFile#main(String[])}.
+ * <p>
+ * Option "solver-stats" reports the {@link SolverStatistics} of the methods,
+ * which are recorded by the solvers of the analyses with option "stats".
+ * If the option is "log", then a summary is logged, otherwise the statistics
+ * are written to the file given by the option in CSV format.
+ * Similarly, option "intern-stats" reports the {@link InternStatistics} of
+ * the methods, which are recorded by the analyses with option "intern-facts".
  */
 public class ResultProcessor extends InterproceduralAnalysis {
 
@@ -57,80 +73,97 @@ public class ResultProcessor extends InterproceduralAnalysis {
 
     private static final Logger logger = LogManager.getLogger(ResultProcessor.class);
 
+    private static final int OUT_BUFFER_SIZE = 1 << 20;
+
+    /**
+     * Number of results formatted in parallel for each thread
+     * before they are written out.
+     */
+    private static final int DUMP_BATCH_SIZE = 64;
+
+    /**
+     * Number of the methods listed in the summaries of statistics.
+     */
+    private static final int STATS_LOG_LIMIT = 20;
+
     private final String action;
 
-    private PrintStream out;
+    /**
+     * Channel of the output file of action "dump", or null if the results
+     * are dumped to standard output.
+     */
+    private FileChannel out;
+
+    private ByteBuffer outBuffer;
+
+    private BinaryResultWriter binaryOut;
 
-    private Map<Pair<String, String>, Set<String>> inputs;
+    private ExpectedResults inputs;
+
+    /**
+     * Number of threads for formatting or comparing the results.
+     */
+    private final int threads;
 
     private Set<String> mismatches;
 
     public ResultProcessor(AnalysisConfig config) {
         super(config);
         action = getOptions().getString("action");
+        int n = getOptions().has("threads") ? getOptions().getInt("threads") : 1;
+        threads = n > 0 ? n : Runtime.getRuntime().availableProcessors();
         switch (action) {
             case "dump":
                 setupOut();
                 break;
+            case "dump-binary":
+                setupBinaryOut();
+                break;
             case "compare":
                 readInputs();
                 break;
         }
     }
 
-    private void setupOut() {
+    private void setupBinaryOut() {
         String output = getOptions().getString("file");
-        if (output != null) {
-            try {
-                out = new PrintStream(output);
-            } catch (FileNotFoundException e) {
-                throw new RuntimeException("Failed to open output file", e);
-            }
-        } else {
-            out = System.out;
+        if (output == null) {
+            throw new IllegalArgumentException(
+                    "Action dump-binary requires an output file");
+        }
+        try {
+            binaryOut = new BinaryResultWriter(Path.of(output));
+        } catch (IOException e) {
+            throw new RuntimeException("Failed to open output file", e);
         }
     }
 
-    private void readInputs() {
-        String action = getOptions().getString("action");
-        if (action.equals("compare")) {
-            String input = getOptions().getString("file");
-            Path path = Path.of(input);
+    private void setupOut() {
+        String output = getOptions().getString("file");
+        if (output != null) {
             try {
-                inputs = Maps.newMap();
-                BufferedReader reader = Files.newBufferedReader(path);
-                String line;
-                Pair<String, String> currentKey = null;
-                while ((line = reader.readLine()) != null) {
-                    Pair<String, String> key = extractKey(line);
-                    if (key != null) {
-                        currentKey = key;
-                    } else if (!line.isBlank()) {
-                        Maps.addToMapSet(inputs, currentKey, line);
-                    }
-                }
+                out = FileChannel.open(Path.of(output), StandardOpenOption.CREATE,
+                        StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING);
+                outBuffer = ByteBuffer.allocateDirect(OUT_BUFFER_SIZE);
             } catch (IOException e) {
-                throw new RuntimeException("Failed to read input file", e);
+                throw new RuntimeException("Failed to open output file", e);
             }
         }
     }
 
-    private static Pair<String, String> extractKey(String line) {
-        if (line.startsWith("----------") && line.endsWith("----------")) {
-            int ms = line.indexOf('<'); // method start
-            int me = line.indexOf("> "); // method end
-            String method = line.substring(ms, me + 1);
-            int as = line.lastIndexOf('('); // analysis start
-            int ae = line.lastIndexOf(')'); // analysis end
-            String analysis = line.substring(as + 1, ae);
-            return new Pair<>(method, analysis);
-        } else {
-            return null;
+    private void readInputs() {
+        String input = getOptions().getString("file");
+        try {
+            inputs = new ExpectedResults(Path.of(input));
+        } catch (IOException e) {
+            throw new RuntimeException("Failed to read input file", e);
         }
     }
 
     @Override
     public Object analyze() {
+        AnalysisEvent event = new AnalysisEvent();
+        event.begin();
         mismatches = new LinkedHashSet<>();
         // Classify given analysis IDs into two groups, one for inter-procedural
         // and the another one for intra-procedural analysis.
@@ -143,9 +176,23 @@ public class ResultProcessor extends InterproceduralAnalysis {
         if (groups.containsKey(false)) {
             processIntraResults(groups.get(false));
         }
+        try {
+            if (out != null) {
+                flushOut();
+                out.close();
+            } else if (action.equals("dump")) {
+                System.out.flush();
+            }
+            if (binaryOut != null) {
+                binaryOut.close();
+            }
+        } catch (IOException e) {
+            throw new RuntimeException("Failed to write output file", e);
+        }
         if (getOptions().getBoolean("log-mismatches")) {
             mismatches.forEach(logger::info);
         }
+        event.commit(getId(), null);
         return mismatches;
     }
 
@@ -160,37 +207,256 @@ public class ResultProcessor extends InterproceduralAnalysis {
         processResults(methods, analyses, (m, id) -> m.getIR().getResult(id));
     }
 
+    /**
+     * The result of an analysis on a method.
+     */
+    private record MethodResult(JMethod method, String id, Object result) {
+    }
+
     private void processResults(Stream<JMethod> methods, List<String> analyses,
                                 BiFunction<JMethod, String, ?> resultGetter) {
-        methods.forEach(method ->
-                analyses.forEach(id -> {
-                    switch (action) {
-                        case "dump":
-                            dumpResult(method, id, resultGetter);
-                            break;
-                        case "compare":
-                            compareResult(method, id, resultGetter);
-                            break;
-                    }
-                })
-        );
+        // obtain the results (and IRs) in the current thread,
+        // as the IRs are built lazily
+        List<MethodResult> results = new ArrayList<>();
+        methods.forEach(method -> {
+            method.getIR();
+            analyses.forEach(id -> results.add(new MethodResult(
+                    method, id, resultGetter.apply(method, id))));
+        });
+        switch (action) {
+            case "dump":
+                dumpResults(results);
+                break;
+            case "dump-binary":
+                results.forEach(r -> process(r, () -> {
+                    dumpBinaryResult(r.method(), r.id(), r.result());
+                    return null;
+                }));
+                break;
+            case "compare":
+                compareResults(results);
+                break;
+        }
+        if (getOptions().has("solver-stats") &&
+                getOptions().getString("solver-stats") != null) {
+            reportSolverStatistics(results);
+        }
+        if (getOptions().has("intern-stats") &&
+                getOptions().getString("intern-stats") != null) {
+            reportInternStatistics(results);
+        }
+    }
+
+    /**
+     * Reports the solver statistics of the methods of given results,
+     * sorted by solving time in descending order.
+     */
+    private void reportSolverStatistics(List<MethodResult> results) {
+        List<SolverStatistics> stats = results.stream()
+                .map(MethodResult::method)
+                .distinct()
+                .map(m -> m.getIR().<SolverStatistics>getResult(SolverStatistics.KEY))
+                .filter(Objects::nonNull)
+                .sorted(Comparator.comparingLong(SolverStatistics::getNanos).reversed())
+                .collect(Collectors.toList());
+        String output = getOptions().getString("solver-stats");
+        if (output.equals("log")) {
+            logger.info("Solved {} methods in {}ms, the most costly ones:",
+                    stats.size(), stats.stream()
+                            .mapToLong(SolverStatistics::getNanos).sum() / 1_000_000);
+            stats.stream()
+                    .limit(STATS_LOG_LIMIT)
+                    .forEach(s -> logger.info("{}", s));
+        } else {
+            try (PrintStream csv = new PrintStream(output)) {
+                csv.println(SolverStatistics.CSV_HEADER);
+                stats.forEach(s -> csv.println(s.toCSV()));
+            } catch (IOException e) {
+                throw new RuntimeException("Failed to write solver statistics", e);
+            }
+        }
     }
 
-    private void dumpResult(JMethod method, String id,
-                            BiFunction<JMethod, String, ?> resultGetter) {
-        out.printf("-------------------- %s (%s) --------------------%n", method, id);
-        Object result = resultGetter.apply(method, id);
+    /**
+     * Reports the statistics of interning the facts of the methods of
+     * given results, sorted by saved bytes in descending order.
+     */
+    private void reportInternStatistics(List<MethodResult> results) {
+        List<InternStatistics> stats = results.stream()
+                .map(MethodResult::method)
+                .distinct()
+                .map(m -> m.getIR().<InternStatistics>getResult(InternStatistics.KEY))
+                .filter(Objects::nonNull)
+                .sorted(Comparator.comparingLong(InternStatistics::getSavedBytes).reversed())
+                .collect(Collectors.toList());
+        String output = getOptions().getString("intern-stats");
+        if (output.equals("log")) {
+            long facts = stats.stream().mapToLong(InternStatistics::getFacts).sum();
+            long before = stats.stream().mapToLong(InternStatistics::getBytesBefore).sum();
+            long after = stats.stream().mapToLong(InternStatistics::getBytesAfter).sum();
+            logger.info("Interned {} facts of {} methods: {} -> {} objects," +
+                            " {}KB -> {}KB, the most saving ones:",
+                    facts, stats.size(),
+                    stats.stream().mapToLong(InternStatistics::getDistinctBefore).sum(),
+                    stats.stream().mapToLong(InternStatistics::getDistinctAfter).sum(),
+                    before / 1024, after / 1024);
+            stats.stream()
+                    .limit(STATS_LOG_LIMIT)
+                    .forEach(s -> logger.info("{}", s));
+        } else {
+            try (PrintStream csv = new PrintStream(output)) {
+                csv.println(InternStatistics.CSV_HEADER);
+                stats.forEach(s -> csv.println(s.toCSV()));
+            } catch (IOException e) {
+                throw new RuntimeException("Failed to write intern statistics", e);
+            }
+        }
+    }
+
+    /**
+     * Processes given result by given function, and records
+     * the processing as a flight recorder event.
+     *
+     * @return the return value of the function.
+     */
+    private <R> R process(MethodResult r, Supplier<R> processing) {
+        ResultEvent event = new ResultEvent();
+        event.begin();
+        R ret = processing.get();
+        event.end();
+        if (event.shouldCommit()) {
+            IR ir = r.method().getIR();
+            event.action = action;
+            event.analysis = r.id();
+            event.method = r.method().toString();
+            event.stmts = ir.getStmts().size();
+            event.vars = ir.getVars().size();
+            event.commit();
+        }
+        return ret;
+    }
+
+    /**
+     * Applies given function to the integers in [from, to), in parallel
+     * if option "threads" is greater than 1.
+     *
+     * @return the results of the function, in the order of the integers.
+     */
+    private <R> List<R> mapInOrder(int from, int to, IntFunction<R> function) {
+        if (threads > 1) {
+            ForkJoinPool pool = new ForkJoinPool(threads);
+            try {
+                return pool.submit(() -> IntStream.range(from, to)
+                                .parallel()
+                                .mapToObj(function)
+                                .collect(Collectors.toList()))
+                        .join();
+            } finally {
+                pool.shutdown();
+            }
+        } else {
+            return IntStream.range(from, to)
+                    .mapToObj(function)
+                    .collect(Collectors.toList());
+        }
+    }
+
+    /**
+     * Dumps the results. The results are formatted in parallel by batches,
+     * and each batch is written in order, so the output is the same as
+     * formatting and writing the results one by one.
+     */
+    private void dumpResults(List<MethodResult> results) {
+        int batchSize = threads * DUMP_BATCH_SIZE;
+        for (int start = 0; start < results.size(); start += batchSize) {
+            int end = Math.min(start + batchSize, results.size());
+            mapInOrder(start, end, i -> process(results.get(i),
+                    () -> formatResult(results.get(i))))
+                    .forEach(this::writeOut);
+        }
+    }
+
+    /**
+     * @return the text of given result in the dump format.
+     */
+    private static String formatResult(MethodResult r) {
+        String nl = System.lineSeparator();
+        StringBuilder builder = new StringBuilder(String.format(
+                "-------------------- %s (%s) --------------------%n",
+                r.method(), r.id()));
+        Object result = r.result();
         if (result instanceof Set) {
-            ((Set<?>) result).forEach(e -> out.println(toString(e)));
+            ((Set<?>) result).forEach(e ->
+                    builder.append(toString(e)).append(nl));
         } else if (result instanceof NodeResult) {
             @SuppressWarnings("unchecked")
             NodeResult<Stmt, ?> nodeResult = (NodeResult<Stmt, ?>) result;
-            IR ir = method.getIR();
-            ir.forEach(stmt -> out.println(toString(stmt, nodeResult)));
+            IR ir = r.method().getIR();
+            ir.forEach(stmt -> builder.append(toString(stmt, nodeResult)).append(nl));
         } else {
-            out.println(toString(result));
+            builder.append(toString(result)).append(nl);
+        }
+        return builder.append(nl).toString();
+    }
+
+    /**
+     * Writes text to the output. The output file is encoded in the default
+     * charset, like {@link PrintStream#PrintStream(String)}.
+     */
+    private void writeOut(String text) {
+        if (out == null) {
+            System.out.print(text);
+            return;
+        }
+        try {
+            ByteBuffer bytes = Charset.defaultCharset().encode(text);
+            if (bytes.remaining() > outBuffer.remaining()) {
+                flushOut();
+            }
+            if (bytes.remaining() > outBuffer.capacity()) {
+                while (bytes.hasRemaining()) {
+                    out.write(bytes);
+                }
+            } else {
+                outBuffer.put(bytes);
+            }
+        } catch (IOException e) {
+            throw new RuntimeException("Failed to write output file", e);
+        }
+    }
+
+    private void flushOut() throws IOException {
+        outBuffer.flip();
+        while (outBuffer.hasRemaining()) {
+            out.write(outBuffer);
+        }
+        outBuffer.clear();
+    }
+
+    private void dumpBinaryResult(JMethod method, String id, Object result) {
+        try {
+            if (result instanceof Set) {
+                binaryOut.writeLines(method.toString(), id, ((Set<?>) result)
+                        .stream()
+                        .map(ResultProcessor::toString)
+                        .collect(Collectors.toList()));
+            } else if (result instanceof NodeResult) {
+                @SuppressWarnings("unchecked")
+                NodeResult<Stmt, ?> nodeResult = (NodeResult<Stmt, ?>) result;
+                List<String> stmts = new ArrayList<>();
+                List<Object> facts = new ArrayList<>();
+                method.getIR().forEach(stmt -> {
+                    stmts.add(toString(stmt));
+                    facts.add(nodeResult.getOutFact(stmt));
+                });
+                binaryOut.writeNodes(method.toString(), id, stmts, facts);
+            } else {
+                binaryOut.writeLines(method.toString(), id,
+                        List.of(toString(result)));
+            }
+        } catch (IOException e) {
+            throw new RuntimeException("Failed to write output file", e);
         }
-        out.println();
     }
 
     /**
@@ -213,12 +479,28 @@ public class ResultProcessor extends InterproceduralAnalysis {
         return toString(stmt) + " " + toString(result.getOutFact(stmt));
     }
 
-    private void compareResult(JMethod method, String id,
-                               BiFunction<JMethod, String, ?> resultGetter) {
-        Set<String> inputResult = inputs.getOrDefault(
-                new Pair<>(method.toString(), id), Set.of());
-        Object result = resultGetter.apply(method, id);
+    /**
+     * Compares the results of the methods with the expected results.
+     * The methods are compared in parallel if option "threads" is greater
+     * than 1, and the mismatches are collected in the order of the methods
+     * and analyses, regardless of the number of threads.
+     */
+    private void compareResults(List<MethodResult> results) {
+        mapInOrder(0, results.size(), i -> process(results.get(i),
+                () -> compareResult(results.get(i).method(),
+                        results.get(i).id(), results.get(i).result())))
+                .forEach(mismatches::addAll);
+    }
+
+    /**
+     * @return the mismatches between given result of a method and
+     * the expected result.
+     */
+    private List<String> compareResult(JMethod method, String id, Object result) {
+        List<String> mismatches = new ArrayList<>();
+        List<String> lines = inputs.getLines(method.toString(), id);
         if (result instanceof Set) {
+            Set<String> inputResult = new LinkedHashSet<>(lines);
             Set<String> given = ((Set<?>) result)
                     .stream()
                     .map(ResultProcessor::toString)
@@ -236,31 +518,50 @@ public class ResultProcessor extends InterproceduralAnalysis {
                 }
             });
         } else if (result instanceof NodeResult) {
-            Set<String> lines = inputs.get(new Pair<>(method.toString(), id));
             @SuppressWarnings("unchecked")
             NodeResult<Stmt, ?> nodeResult = (NodeResult<Stmt, ?>) result;
+            // index the expected lines by their statements, i.e., the
+            // prefixes of the lines which are followed by a space
             IR ir = method.getIR();
+            Map<String, Integer> stmtIndexes = Maps.newMap(ir.getStmts().size());
+            List<String> stmtStrs = new ArrayList<>(ir.getStmts().size());
             ir.forEach(stmt -> {
-                String stmtStr = toString(stmt);
-                String given = toString(stmt, nodeResult);
-                for (String line : lines) {
-                    if (line.startsWith(stmtStr) && !line.equals(given)) {
+                stmtIndexes.putIfAbsent(toString(stmt), stmtStrs.size());
+                stmtStrs.add(toString(stmt));
+            });
+            Map<Integer, List<String>> expected = Maps.newMap();
+            for (String line : lines) {
+                for (int i = line.indexOf(' '); i >= 0; i = line.indexOf(' ', i + 1)) {
+                    Integer index = stmtIndexes.get(line.substring(0, i));
+                    if (index != null) {
+                        expected.computeIfAbsent(index, k -> new ArrayList<>())
+                                .add(line);
+                    }
+                }
+            }
+            for (int i = 0; i < stmtStrs.size(); ++i) {
+                String stmtStr = stmtStrs.get(i);
+                String given = toString(ir.getStmt(i), nodeResult);
+                for (String line : expected.getOrDefault(
+                        stmtIndexes.get(stmtStr), List.of())) {
+                    if (!line.equals(given)) {
                         int idx = stmtStr.length();
                         mismatches.add(String.format("%s %s expected: %s, given: %s",
                                 method, stmtStr, line.substring(idx + 1),
                                 given.substring(idx + 1)));
                     }
                 }
-            });
-        } else if (inputResult.size() == 1) {
-            if (!toString(result).equals(getOne(inputResult))) {
+            }
+        } else if (lines.size() == 1) {
+            if (!toString(result).equals(lines.get(0))) {
                 mismatches.add(String.format("%s expected: %s, given: %s",
-                        method, getOne(inputResult), toString(result)));
+                        method, lines.get(0), toString(result)));
             }
         } else {
             logger.warn("Cannot compare result of analysis {} for {}," +
                             " expected: {}, given: {}",
-                    id, method, inputResult, result);
+                    id, method, lines, result);
         }
+        return mismatches;
     }
 }
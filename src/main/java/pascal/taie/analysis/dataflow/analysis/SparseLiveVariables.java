@@ -0,0 +1,111 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2020-- Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2020-- Yue Li <yueli@nju.edu.cn>
+ * All rights reserved.
+ *
+ * Tai-e is only for educational and academic purposes,
+ * and any form of commercial use is disallowed.
+ * Distribution of Tai-e is disallowed without the approval.
+ */
+
+package pascal.taie.analysis.dataflow.analysis;
+
+import pascal.taie.analysis.dataflow.fact.BitSetFact;
+import pascal.taie.analysis.dataflow.fact.DataflowResult;
+import pascal.taie.analysis.dataflow.fact.DefUseTable;
+import pascal.taie.analysis.dataflow.fact.IndexedDataflowResult;
+import pascal.taie.analysis.dataflow.fact.SetFact;
+import pascal.taie.analysis.dataflow.fact.VarIndexer;
+import pascal.taie.analysis.graph.cfg.CFG;
+import pascal.taie.analysis.graph.cfg.IndexedCFG;
+import pascal.taie.ir.exp.Var;
+import pascal.taie.ir.stmt.Stmt;
+
+/**
+ * Sparse engine of live variable analysis, which computes the live range
+ * of one variable at a time: starting from each use of the variable,
+ * it walks backward over the predecessors until reaching the definitions
+ * of the variable or the nodes where the variable is already known to be
+ * live. Thus, the total work is proportional to the sizes of the live
+ * ranges, instead of the number of statements times the number of
+ * iterations of the dense solvers.
+ * <p>
+ * The results are the same as the ones of the dense solvers, e.g.,
+ * the exit node does not have out fact.
+ */
+class SparseLiveVariables {
+
+    private SparseLiveVariables() {
+    }
+
+    static DataflowResult<Stmt, SetFact<Var>> solve(CFG<Stmt> cfg) {
+        IndexedCFG<Stmt> g = IndexedCFG.of(cfg);
+        DefUseTable table = DefUseTable.of(cfg.getIR());
+        VarIndexer indexer = table.getVarIndexer();
+        int size = g.getNumberOfNodes();
+        IndexedDataflowResult<Stmt, SetFact<Var>> result =
+                new IndexedDataflowResult<>(g, false);
+        int[] defs = new int[size];
+        for (int i = 0; i < size; ++i) {
+            Stmt stmt = g.getNode(i);
+            defs[i] = table.getDef(stmt);
+            result.setInFact(stmt, new BitSetFact<>(indexer));
+            if (!cfg.isExit(stmt)) {
+                result.setOutFact(stmt, new BitSetFact<>(indexer));
+            }
+        }
+        // the uses of each variable, in compressed sparse row format
+        int vars = indexer.size();
+        int[] useOffsets = new int[vars + 1];
+        for (int i = 0; i < size; ++i) {
+            for (int v : table.getUses(g.getNode(i))) {
+                ++useOffsets[v + 1];
+            }
+        }
+        for (int v = 0; v < vars; ++v) {
+            useOffsets[v + 1] += useOffsets[v];
+        }
+        int[] uses = new int[useOffsets[vars]];
+        int[] filled = new int[vars];
+        for (int i = 0; i < size; ++i) {
+            for (int v : table.getUses(g.getNode(i))) {
+                uses[useOffsets[v] + filled[v]++] = i;
+            }
+        }
+        // liveIn[i] == v + 1 means that variable v is live-in at node i,
+        // so that the array need not to be cleared for each variable
+        int[] liveIn = new int[size];
+        int[] stack = new int[size];
+        for (int v = 0; v < vars; ++v) {
+            if (useOffsets[v] == useOffsets[v + 1]) {
+                continue;
+            }
+            Var var = indexer.getObject(v);
+            int mark = v + 1;
+            int top = 0;
+            for (int u = useOffsets[v]; u < useOffsets[v + 1]; ++u) {
+                int use = uses[u];
+                if (liveIn[use] != mark) {
+                    liveIn[use] = mark;
+                    result.getInFact(use).add(var);
+                    stack[top++] = use;
+                }
+            }
+            while (top > 0) {
+                int node = stack[--top];
+                for (int k = 0; k < g.predCount(node); ++k) {
+                    int pred = g.predAt(node, k);
+                    result.getOutFact(pred).add(var);
+                    if (defs[pred] != v && liveIn[pred] != mark) {
+                        liveIn[pred] = mark;
+                        result.getInFact(pred).add(var);
+                        stack[top++] = pred;
+                    }
+                }
+            }
+        }
+        return result;
+    }
+}
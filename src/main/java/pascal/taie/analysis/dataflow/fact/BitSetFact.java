@@ -0,0 +1,416 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2020-- Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2020-- Yue Li <yueli@nju.edu.cn>
+ * All rights reserved.
+ *
+ * Tai-e is only for educational and academic purposes,
+ * and any form of commercial use is disallowed.
+ * Distribution of Tai-e is disallowed without the approval.
+ */
+
+package pascal.taie.analysis.dataflow.fact;
+
+import pascal.taie.util.Strings;
+
+import java.util.AbstractSet;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.function.Predicate;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+/**
+ * Set-like data-flow facts represented by bit vectors. Each element is
+ * mapped to a bit by an {@link Indexer}, so that the operations between
+ * facts sharing the same indexer are word-wise loops on the bit vectors,
+ * and need neither hashing nor allocation.
+ *
+ * @param <E> type of elements
+ */
+public class BitSetFact<E> extends SetFact<E> {
+
+    private static final int ADDRESS_BITS_PER_WORD = 6;
+
+    private final Indexer<E> indexer;
+
+    private long[] words;
+
+    public BitSetFact(Indexer<E> indexer) {
+        this(indexer, new long[wordIndex(indexer.size() - 1) + 1]);
+    }
+
+    private BitSetFact(Indexer<E> indexer, long[] words) {
+        super((Void) null);
+        this.indexer = indexer;
+        this.words = words;
+    }
+
+    private static int wordIndex(int bitIndex) {
+        return bitIndex >> ADDRESS_BITS_PER_WORD;
+    }
+
+    /**
+     * @return the indexer of this fact.
+     */
+    public Indexer<E> getIndexer() {
+        return indexer;
+    }
+
+    private boolean get(int index) {
+        int wordIndex = wordIndex(index);
+        return 0 <= index && wordIndex < words.length &&
+                (words[wordIndex] & (1L << index)) != 0;
+    }
+
+    private void ensureCapacity(int wordsRequired) {
+        if (words.length < wordsRequired) {
+            int newLength = Math.max(2 * words.length, wordsRequired);
+            words = Arrays.copyOf(words, newLength);
+        }
+    }
+
+    /**
+     * @return true if given fact can be operated word-wise with this fact.
+     */
+    private boolean isCompatible(SetFact<E> other) {
+        return other instanceof BitSetFact &&
+                ((BitSetFact<E>) other).indexer == indexer;
+    }
+
+    /**
+     * @return the bit vector of given fact if it can be operated word-wise
+     * with this fact, otherwise null. Frozen facts are read through their
+     * underlying facts.
+     */
+    private long[] wordsOf(SetFact<E> other) {
+        if (other instanceof FrozenSetFact) {
+            other = ((FrozenSetFact<E>) other).getFact();
+        }
+        return isCompatible(other) ? ((BitSetFact<E>) other).words : null;
+    }
+
+    /**
+     * @return the number of words of the bit vector.
+     */
+    int getWordCount() {
+        return words.length;
+    }
+
+    @Override
+    public boolean contains(E e) {
+        return get(indexer.getIndex(e));
+    }
+
+    /**
+     * @throws IllegalArgumentException if given element is not indexed
+     *                                  by the indexer of this fact.
+     */
+    @Override
+    public boolean add(E e) {
+        int index = indexer.getIndex(e);
+        if (index < 0) {
+            throw new IllegalArgumentException(e + " is not indexed");
+        }
+        int wordIndex = wordIndex(index);
+        ensureCapacity(wordIndex + 1);
+        long old = words[wordIndex];
+        words[wordIndex] |= 1L << index;
+        return words[wordIndex] != old;
+    }
+
+    @Override
+    public boolean remove(E e) {
+        int index = indexer.getIndex(e);
+        int wordIndex = wordIndex(index);
+        if (index < 0 || wordIndex >= words.length) {
+            return false;
+        }
+        long old = words[wordIndex];
+        words[wordIndex] &= ~(1L << index);
+        return words[wordIndex] != old;
+    }
+
+    @Override
+    public boolean removeIf(Predicate<E> filter) {
+        boolean changed = false;
+        for (int i = nextSetBit(0); i >= 0; i = nextSetBit(i + 1)) {
+            if (filter.test(indexer.getObject(i))) {
+                words[wordIndex(i)] &= ~(1L << i);
+                changed = true;
+            }
+        }
+        return changed;
+    }
+
+    @Override
+    public boolean union(SetFact<E> other) {
+        long[] otherWords = wordsOf(other);
+        if (otherWords == null) {
+            boolean changed = false;
+            for (E e : other.elements()) {
+                changed |= add(e);
+            }
+            return changed;
+        }
+        ensureCapacity(otherWords.length);
+        long changed = 0;
+        for (int i = 0; i < otherWords.length; ++i) {
+            long old = words[i];
+            words[i] |= otherWords[i];
+            changed |= words[i] ^ old;
+        }
+        return changed != 0;
+    }
+
+    @Override
+    public boolean unionNew(SetFact<E> other, SetFact<E> added) {
+        long[] otherWords = wordsOf(other);
+        if (otherWords == null || !isCompatible(added)) {
+            return super.unionNew(other, added);
+        }
+        BitSetFact<E> addedFact = (BitSetFact<E>) added;
+        ensureCapacity(otherWords.length);
+        addedFact.ensureCapacity(otherWords.length);
+        long changed = 0;
+        for (int i = 0; i < otherWords.length; ++i) {
+            long newBits = otherWords[i] & ~words[i];
+            words[i] |= newBits;
+            addedFact.words[i] |= newBits;
+            changed |= newBits;
+        }
+        return changed != 0;
+    }
+
+    @Override
+    public boolean intersect(SetFact<E> other) {
+        long[] otherWords = wordsOf(other);
+        if (otherWords == null) {
+            return removeIf(e -> !other.contains(e));
+        }
+        long changed = 0;
+        for (int i = 0; i < words.length; ++i) {
+            long old = words[i];
+            words[i] &= i < otherWords.length ? otherWords[i] : 0;
+            changed |= words[i] ^ old;
+        }
+        return changed != 0;
+    }
+
+    @Override
+    public void set(SetFact<E> other) {
+        long[] otherWords = wordsOf(other);
+        if (otherWords == null) {
+            super.set(other);
+            return;
+        }
+        ensureCapacity(otherWords.length);
+        System.arraycopy(otherWords, 0, words, 0, otherWords.length);
+        Arrays.fill(words, otherWords.length, words.length, 0);
+    }
+
+    /**
+     * Sets the content of this fact to {@code gen U (other - {kill})},
+     * i.e., the result of a gen/kill transfer function on other fact,
+     * where the elements are given by their indexes. This method does not
+     * allocate unless this fact needs to grow.
+     *
+     * @param other the fact to be transferred
+     * @param kill  index of the killed element, or -1 if none is killed
+     * @param gen   indexes of the generated elements in ascending order
+     * @return true if this fact changed as a result of the call, otherwise false.
+     */
+    public boolean setGenKill(BitSetFact<E> other, int kill, int[] gen) {
+        long[] otherWords = other.words;
+        int maxGen = gen.length > 0 ? gen[gen.length - 1] : -1;
+        ensureCapacity(Math.max(otherWords.length, wordIndex(maxGen) + 1));
+        int killWord = kill >= 0 ? wordIndex(kill) : -1;
+        long changed = 0;
+        int g = 0;
+        for (int i = 0; i < words.length; ++i) {
+            long word = i < otherWords.length ? otherWords[i] : 0;
+            if (i == killWord) {
+                word &= ~(1L << kill);
+            }
+            while (g < gen.length && wordIndex(gen[g]) == i) {
+                word |= 1L << gen[g++];
+            }
+            changed |= word ^ words[i];
+            words[i] = word;
+        }
+        return changed != 0;
+    }
+
+    /**
+     * Sets the content of this fact to {@code gen U (other - kill)},
+     * i.e., the result of applying a gen/kill summary to other fact.
+     *
+     * @return true if this fact changed as a result of the call, otherwise false.
+     */
+    public boolean setGenKill(BitSetFact<E> other, BitSetFact<E> gen,
+                              BitSetFact<E> kill) {
+        long[] otherWords = other.words;
+        long[] genWords = gen.words;
+        long[] killWords = kill.words;
+        ensureCapacity(Math.max(otherWords.length, genWords.length));
+        long changed = 0;
+        for (int i = 0; i < words.length; ++i) {
+            long word = i < otherWords.length ? otherWords[i] : 0;
+            if (i < killWords.length) {
+                word &= ~killWords[i];
+            }
+            if (i < genWords.length) {
+                word |= genWords[i];
+            }
+            changed |= word ^ words[i];
+            words[i] = word;
+        }
+        return changed != 0;
+    }
+
+    @Override
+    public BitSetFact<E> copy() {
+        return new BitSetFact<>(indexer, words.clone());
+    }
+
+    @Override
+    public void clear() {
+        Arrays.fill(words, 0);
+    }
+
+    @Override
+    public boolean isEmpty() {
+        for (long word : words) {
+            if (word != 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public Stream<E> stream() {
+        return IntStream.iterate(nextSetBit(0), i -> i >= 0, i -> nextSetBit(i + 1))
+                .mapToObj(indexer::getObject);
+    }
+
+    @Override
+    public int size() {
+        int size = 0;
+        for (long word : words) {
+            size += Long.bitCount(word);
+        }
+        return size;
+    }
+
+    @Override
+    protected Set<E> elements() {
+        return new AbstractSet<>() {
+
+            @Override
+            @SuppressWarnings("unchecked")
+            public boolean contains(Object o) {
+                return BitSetFact.this.contains((E) o);
+            }
+
+            @Override
+            public Iterator<E> iterator() {
+                return new Iterator<>() {
+
+                    private int next = nextSetBit(0);
+
+                    @Override
+                    public boolean hasNext() {
+                        return next >= 0;
+                    }
+
+                    @Override
+                    public E next() {
+                        if (next < 0) {
+                            throw new NoSuchElementException();
+                        }
+                        E e = indexer.getObject(next);
+                        next = nextSetBit(next + 1);
+                        return e;
+                    }
+                };
+            }
+
+            @Override
+            public int size() {
+                return BitSetFact.this.size();
+            }
+        };
+    }
+
+    /**
+     * @return the index of the first set bit that occurs on or after
+     * the specified index, or -1 if there is no such bit.
+     */
+    private int nextSetBit(int fromIndex) {
+        int u = wordIndex(fromIndex);
+        if (u >= words.length) {
+            return -1;
+        }
+        long word = words[u] & (-1L << fromIndex);
+        while (true) {
+            if (word != 0) {
+                return (u << ADDRESS_BITS_PER_WORD) + Long.numberOfTrailingZeros(word);
+            }
+            if (++u == words.length) {
+                return -1;
+            }
+            word = words[u];
+        }
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof SetFact)) {
+            return false;
+        }
+        @SuppressWarnings("unchecked")
+        SetFact<E> that = (SetFact<E>) o;
+        long[] thatWords = wordsOf(that);
+        if (thatWords == null) {
+            return elements().equals(that.elements());
+        }
+        int common = Math.min(words.length, thatWords.length);
+        for (int i = 0; i < common; ++i) {
+            if (words[i] != thatWords[i]) {
+                return false;
+            }
+        }
+        for (int i = common; i < words.length; ++i) {
+            if (words[i] != 0) {
+                return false;
+            }
+        }
+        for (int i = common; i < thatWords.length; ++i) {
+            if (thatWords[i] != 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public int hashCode() {
+        int h = 0;
+        for (int i = nextSetBit(0); i >= 0; i = nextSetBit(i + 1)) {
+            h += indexer.getObject(i).hashCode();
+        }
+        return h;
+    }
+
+    @Override
+    public String toString() {
+        return Strings.toString(elements());
+    }
+}
@@ -16,6 +16,7 @@ import pascal.taie.analysis.graph.cfg.Edge;
 
 import java.util.LinkedHashMap;
 import java.util.Map;
+import java.util.function.UnaryOperator;
 
 /**
  * An object which manages the data-flow facts associated with nodes and edges of a CFG.
@@ -25,16 +26,34 @@ import java.util.Map;
  */
 public class DataflowResult<Node, Fact> implements NodeResult<Node, Fact> {
 
-    private final Map<Node, Fact> inFacts = new LinkedHashMap<>();
+    private final Map<Node, Fact> inFacts;
 
-    private final Map<Node, Fact> outFacts = new LinkedHashMap<>();
+    private final Map<Node, Fact> outFacts;
 
     private final Map<Edge<Node>, Fact> edgeFacts;
 
+    /**
+     * Whether the facts of this result can no longer be changed.
+     */
+    private boolean frozen;
+
     public DataflowResult(boolean hasEdgeFacts) {
+        inFacts = new LinkedHashMap<>();
+        outFacts = new LinkedHashMap<>();
         edgeFacts = hasEdgeFacts ? new LinkedHashMap<>() : null;
     }
 
+    /**
+     * Constructor for subclasses which keep the facts in their own
+     * representation. Such subclasses allocate no maps, and they must
+     * override all methods which access the facts.
+     */
+    protected DataflowResult() {
+        inFacts = null;
+        outFacts = null;
+        edgeFacts = null;
+    }
+
     /**
      * @return the flowing-in fact of given node.
      */
@@ -47,6 +66,7 @@ public class DataflowResult<Node, Fact> implements NodeResult<Node, Fact> {
      * Associates a data-flow fact with a node as its flowing-in fact.
      */
     public void setInFact(Node node, Fact fact) {
+        checkMutable();
         inFacts.put(node, fact);
     }
 
@@ -62,6 +82,7 @@ public class DataflowResult<Node, Fact> implements NodeResult<Node, Fact> {
      * Associates a data-flow fact with a node as its flowing-out fact.
      */
     public void setOutFact(Node node, Fact fact) {
+        checkMutable();
         outFacts.put(node, fact);
     }
 
@@ -76,6 +97,56 @@ public class DataflowResult<Node, Fact> implements NodeResult<Node, Fact> {
      * Associates a data-flow fact with a CFG edge.
      */
     public void setEdgeFact(Edge<Node> edge, Fact fact) {
+        checkMutable();
         edgeFacts.put(edge, fact);
     }
+
+    /**
+     * Freezes this result, so that its facts can no longer be changed, i.e.,
+     * the set facts are replaced by their unmodifiable views, and the facts
+     * can no longer be set.
+     */
+    public void freeze() {
+        replaceFacts(DataflowResult::freezeFact);
+        frozen = true;
+    }
+
+    /**
+     * @return true if this result is frozen.
+     */
+    public boolean isFrozen() {
+        return frozen;
+    }
+
+    /**
+     * @throws UnsupportedOperationException if this result is frozen.
+     */
+    protected void checkMutable() {
+        if (frozen) {
+            throw new UnsupportedOperationException("Result is frozen");
+        }
+    }
+
+    /**
+     * @return the unmodifiable view of given fact if it is a set fact,
+     * otherwise the fact itself.
+     */
+    @SuppressWarnings("unchecked")
+    protected static <Fact> Fact freezeFact(Fact fact) {
+        return fact instanceof SetFact ? (Fact) ((SetFact<?>) fact).freeze() : fact;
+    }
+
+    /**
+     * Replaces each fact kept in this result by the fact given by the
+     * function, e.g., the canonical fact given by {@link FactInterner}.
+     * The function should give a fact which equals the given one.
+     */
+    public void replaceFacts(UnaryOperator<Fact> function) {
+        checkMutable();
+        inFacts.replaceAll((node, fact) -> function.apply(fact));
+        outFacts.replaceAll((node, fact) -> function.apply(fact));
+        if (edgeFacts != null) {
+            edgeFacts.replaceAll((edge, fact) -> function.apply(fact));
+        }
+    }
 }
@@ -0,0 +1,111 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2020-- Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2020-- Yue Li <yueli@nju.edu.cn>
+ * All rights reserved.
+ *
+ * Tai-e is only for educational and academic purposes,
+ * and any form of commercial use is disallowed.
+ * Distribution of Tai-e is disallowed without the approval.
+ */
+
+package pascal.taie.analysis.dataflow.fact;
+
+import pascal.taie.ir.IR;
+import pascal.taie.ir.exp.LValue;
+import pascal.taie.ir.exp.RValue;
+import pascal.taie.ir.exp.Var;
+import pascal.taie.ir.stmt.Stmt;
+
+import java.util.List;
+
+/**
+ * The variables defined and used by each statement of a method,
+ * represented by the indexes given by the {@link VarIndexer} of the IR.
+ * The table is computed once per method together with the indexer, and
+ * obtained by {@link #of(IR)} or {@link VarIndexer#getDefUseTable()},
+ * so that the transfer functions need not to query {@link Stmt#getDef()}
+ * and {@link Stmt#getUses()} on every visit.
+ */
+public class DefUseTable {
+
+    private static final int[] NO_USES = new int[0];
+
+    private final IR ir;
+
+    private final VarIndexer indexer;
+
+    /**
+     * Index of the variable defined by each statement, or -1 if
+     * the statement does not define any variable.
+     */
+    private final int[] defs;
+
+    /**
+     * Indexes of the variables used by each statement, in ascending order.
+     */
+    private final int[][] uses;
+
+    DefUseTable(IR ir, VarIndexer indexer) {
+        this.ir = ir;
+        this.indexer = indexer;
+        List<Stmt> stmts = ir.getStmts();
+        defs = new int[stmts.size()];
+        uses = new int[stmts.size()][];
+        for (int i = 0; i < stmts.size(); ++i) {
+            Stmt stmt = stmts.get(i);
+            LValue def = stmt.getDef().orElse(null);
+            defs[i] = def instanceof Var ? indexer.getIndex((Var) def) : -1;
+            uses[i] = stmt.getUses()
+                    .stream()
+                    .filter(use -> use instanceof Var)
+                    .mapToInt(use -> indexer.getIndex((Var) use))
+                    .sorted()
+                    .distinct()
+                    .toArray();
+            if (uses[i].length == 0) {
+                uses[i] = NO_USES;
+            }
+        }
+    }
+
+    /**
+     * @return the def-use table of given IR.
+     */
+    public static DefUseTable of(IR ir) {
+        return VarIndexer.of(ir).getDefUseTable();
+    }
+
+    /**
+     * @return the variable indexer which gives the indexes in this table.
+     */
+    public VarIndexer getVarIndexer() {
+        return indexer;
+    }
+
+    /**
+     * @return true if given statement belongs to the IR of this table.
+     * The entry and exit nodes of CFG are not in the IR.
+     */
+    private boolean contains(Stmt stmt) {
+        int index = stmt.getIndex();
+        return 0 <= index && index < defs.length && ir.getStmt(index) == stmt;
+    }
+
+    /**
+     * @return index of the variable defined by given statement,
+     * or -1 if the statement does not define any variable.
+     */
+    public int getDef(Stmt stmt) {
+        return contains(stmt) ? defs[stmt.getIndex()] : -1;
+    }
+
+    /**
+     * @return indexes of the variables used by given statement,
+     * in ascending order. The returned array must not be modified.
+     */
+    public int[] getUses(Stmt stmt) {
+        return contains(stmt) ? uses[stmt.getIndex()] : NO_USES;
+    }
+}
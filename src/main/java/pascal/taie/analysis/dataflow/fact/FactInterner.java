@@ -0,0 +1,184 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2020-- Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2020-- Yue Li <yueli@nju.edu.cn>
+ * All rights reserved.
+ *
+ * Tai-e is only for educational and academic purposes,
+ * and any form of commercial use is disallowed.
+ * Distribution of Tai-e is disallowed without the approval.
+ */
+
+package pascal.taie.analysis.dataflow.fact;
+
+import pascal.taie.language.classes.JMethod;
+
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.WeakReference;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Hash-consing table of set facts, which maps equal facts to one shared
+ * canonical fact. The canonical facts are frozen, i.e., they cannot be
+ * modified. The table only keeps weak references to the canonical facts,
+ * so that a canonical fact is dropped from the table after all results
+ * referring to it are garbage-collected. The table is thread-safe.
+ * <p>
+ * The results of all methods can share one table given by {@link #global()},
+ * or each result can have its own table.
+ */
+public class FactInterner {
+
+    private static final FactInterner GLOBAL = new FactInterner();
+
+    /**
+     * Estimated size of a {@link FrozenSetFact}.
+     */
+    private static final int FROZEN_FACT_BYTES = 16;
+
+    private final ConcurrentMap<Entry, Entry> table = new ConcurrentHashMap<>();
+
+    private final ReferenceQueue<FrozenSetFact<?>> queue = new ReferenceQueue<>();
+
+    /**
+     * @return the table which is shared by all methods.
+     */
+    public static FactInterner global() {
+        return GLOBAL;
+    }
+
+    /**
+     * @return the canonical fact which equals given fact, or null if given
+     * fact is null. If there is no such fact in the table, then a frozen view
+     * of given fact becomes the canonical one, thus given fact must not be
+     * modified after the call.
+     */
+    @SuppressWarnings("unchecked")
+    public <E> SetFact<E> intern(SetFact<E> fact) {
+        if (fact == null) {
+            return null;
+        }
+        expungeStaleEntries();
+        FrozenSetFact<E> frozen = (FrozenSetFact<E>) fact.freeze();
+        Entry entry = new Entry(frozen, queue);
+        while (true) {
+            Entry existing = table.putIfAbsent(entry, entry);
+            if (existing == null) {
+                return frozen;
+            }
+            FrozenSetFact<?> canonical = existing.get();
+            if (canonical != null) {
+                return (SetFact<E>) canonical;
+            }
+            // the canonical fact is collected right after the lookup
+            table.remove(existing, existing);
+        }
+    }
+
+    /**
+     * Replaces the set facts of given result by their canonical facts,
+     * and freezes the result.
+     *
+     * @return the statistics of the memory saved by the interning.
+     */
+    @SuppressWarnings("unchecked")
+    public <Node, Fact> InternStatistics internResult(
+            JMethod method, DataflowResult<Node, Fact> result) {
+        Set<Object> before = Collections.newSetFromMap(new IdentityHashMap<>());
+        Set<Object> after = Collections.newSetFromMap(new IdentityHashMap<>());
+        long[] counts = new long[3]; // facts, bytes before, bytes after
+        result.replaceFacts(fact -> {
+            if (!(fact instanceof SetFact)) {
+                return fact;
+            }
+            SetFact<Object> setFact = (SetFact<Object>) fact;
+            SetFact<Object> canonical = intern(setFact);
+            ++counts[0];
+            if (before.add(setFact)) {
+                counts[1] += estimateBytes(setFact);
+            }
+            if (after.add(canonical)) {
+                counts[2] += estimateBytes(canonical);
+            }
+            return (Fact) canonical;
+        });
+        result.freeze();
+        return new InternStatistics(method, counts[0],
+                before.size(), counts[1], after.size(), counts[2]);
+    }
+
+    /**
+     * @return the number of canonical facts in this table.
+     */
+    public int size() {
+        expungeStaleEntries();
+        return table.size();
+    }
+
+    private void expungeStaleEntries() {
+        for (Object e; (e = queue.poll()) != null; ) {
+            table.remove(e, e);
+        }
+    }
+
+    /**
+     * @return roughly estimated bytes of given fact (with compressed
+     * references), including its elements but not the elements' objects.
+     */
+    private static long estimateBytes(SetFact<?> fact) {
+        long bytes = 0;
+        if (fact instanceof FrozenSetFact) {
+            bytes += FROZEN_FACT_BYTES;
+            fact = ((FrozenSetFact<?>) fact).getFact();
+        }
+        if (fact instanceof BitSetFact) {
+            // the fact and its array of words
+            return bytes + 24 + 16 + 8L * ((BitSetFact<?>) fact).getWordCount();
+        } else if (fact instanceof PersistentSetFact) {
+            // the fact, and a slot per element plus its share of trie nodes,
+            // ignoring the nodes shared with other facts
+            return bytes + 24 + 12L * fact.size();
+        } else {
+            // the fact, its hybrid set, and an entry per element
+            return bytes + 16 + 48 + 40L * fact.size();
+        }
+    }
+
+    /**
+     * Weak entry of the table, whose equality is the equality of the
+     * underlying facts of the canonical facts.
+     */
+    private static class Entry extends WeakReference<FrozenSetFact<?>> {
+
+        private final int hash;
+
+        private Entry(FrozenSetFact<?> fact, ReferenceQueue<FrozenSetFact<?>> queue) {
+            super(fact, queue);
+            hash = fact.hashCode();
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof Entry) || hash != ((Entry) o).hash) {
+                return false;
+            }
+            FrozenSetFact<?> fact = get();
+            FrozenSetFact<?> other = ((Entry) o).get();
+            return fact != null && other != null &&
+                    fact.getFact().equals(other.getFact());
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+    }
+}
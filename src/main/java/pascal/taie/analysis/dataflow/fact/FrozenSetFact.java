@@ -0,0 +1,141 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2020-- Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2020-- Yue Li <yueli@nju.edu.cn>
+ * All rights reserved.
+ *
+ * Tai-e is only for educational and academic purposes,
+ * and any form of commercial use is disallowed.
+ * Distribution of Tai-e is disallowed without the approval.
+ */
+
+package pascal.taie.analysis.dataflow.fact;
+
+import java.util.Set;
+import java.util.function.Predicate;
+import java.util.stream.Stream;
+
+/**
+ * Unmodifiable view of a set fact, which is given by {@link SetFact#freeze()},
+ * e.g., the canonical instance of equal facts given by {@link FactInterner}.
+ * All methods which modify the fact throw {@link UnsupportedOperationException},
+ * and {@link #copy()} returns a modifiable copy of the underlying fact.
+ *
+ * @param <E> type of elements
+ */
+class FrozenSetFact<E> extends SetFact<E> {
+
+    private final SetFact<E> fact;
+
+    FrozenSetFact(SetFact<E> fact) {
+        super((Void) null);
+        this.fact = fact;
+    }
+
+    /**
+     * @return the underlying fact, which must not be modified.
+     */
+    SetFact<E> getFact() {
+        return fact;
+    }
+
+    @Override
+    public boolean isFrozen() {
+        return true;
+    }
+
+    @Override
+    public SetFact<E> freeze() {
+        return this;
+    }
+
+    @Override
+    public boolean contains(E e) {
+        return fact.contains(e);
+    }
+
+    @Override
+    public boolean add(E e) {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public boolean remove(E e) {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public boolean removeIf(Predicate<E> filter) {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public boolean union(SetFact<E> other) {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public boolean unionNew(SetFact<E> other, SetFact<E> added) {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public boolean intersect(SetFact<E> other) {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public void set(SetFact<E> other) {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public SetFact<E> copy() {
+        return fact.copy();
+    }
+
+    @Override
+    public void clear() {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return fact.isEmpty();
+    }
+
+    @Override
+    public Stream<E> stream() {
+        return fact.stream();
+    }
+
+    @Override
+    public int size() {
+        return fact.size();
+    }
+
+    @Override
+    protected Set<E> elements() {
+        return fact.elements();
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        return o instanceof FrozenSetFact ?
+                fact.equals(((FrozenSetFact<?>) o).fact) : fact.equals(o);
+    }
+
+    @Override
+    public int hashCode() {
+        return fact.hashCode();
+    }
+
+    @Override
+    public String toString() {
+        return fact.toString();
+    }
+}
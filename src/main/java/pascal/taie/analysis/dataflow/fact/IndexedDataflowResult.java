@@ -0,0 +1,140 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2020-- Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2020-- Yue Li <yueli@nju.edu.cn>
+ * All rights reserved.
+ *
+ * Tai-e is only for educational and academic purposes,
+ * and any form of commercial use is disallowed.
+ * Distribution of Tai-e is disallowed without the approval.
+ */
+
+package pascal.taie.analysis.dataflow.fact;
+
+import pascal.taie.analysis.graph.cfg.Edge;
+import pascal.taie.analysis.graph.cfg.IndexedCFG;
+
+import java.util.function.UnaryOperator;
+
+/**
+ * A {@link DataflowResult} which stores the facts in arrays indexed by
+ * the node indexes of an {@link IndexedCFG}, instead of hash maps.
+ * For the CFGs of statements, the indexes are given by
+ * {@link pascal.taie.ir.stmt.Stmt#getIndex()}, with two reserved slots
+ * for the entry and exit nodes. The facts of edges are stored in an
+ * array indexed by the positions of the edges in the indexed CFG.
+ *
+ * @param <Node> type of CFG nodes
+ * @param <Fact> type of data-flow facts
+ */
+public class IndexedDataflowResult<Node, Fact> extends DataflowResult<Node, Fact> {
+
+    private final IndexedCFG<Node> cfg;
+
+    private final Object[] inFacts;
+
+    private final Object[] outFacts;
+
+    private final Object[] edgeFacts;
+
+    public IndexedDataflowResult(IndexedCFG<Node> cfg, boolean hasEdgeFacts) {
+        this.cfg = cfg;
+        inFacts = new Object[cfg.getNumberOfNodes()];
+        outFacts = new Object[cfg.getNumberOfNodes()];
+        edgeFacts = hasEdgeFacts ? new Object[cfg.getNumberOfEdges()] : null;
+    }
+
+    /**
+     * @return the indexed CFG whose node indexes are used by this result.
+     */
+    public IndexedCFG<Node> getCFG() {
+        return cfg;
+    }
+
+    @SuppressWarnings("unchecked")
+    public Fact getInFact(int index) {
+        return (Fact) inFacts[index];
+    }
+
+    @SuppressWarnings("unchecked")
+    public Fact getOutFact(int index) {
+        return (Fact) outFacts[index];
+    }
+
+    @Override
+    public Fact getInFact(Node node) {
+        return getInFact(cfg.getIndex(node));
+    }
+
+    @Override
+    public void setInFact(Node node, Fact fact) {
+        checkMutable();
+        inFacts[cfg.getIndex(node)] = fact;
+    }
+
+    @Override
+    public Fact getOutFact(Node node) {
+        return getOutFact(cfg.getIndex(node));
+    }
+
+    @Override
+    public void setOutFact(Node node, Fact fact) {
+        checkMutable();
+        outFacts[cfg.getIndex(node)] = fact;
+    }
+
+    /**
+     * @return the fact of the edge of given index in the indexed CFG.
+     */
+    @SuppressWarnings("unchecked")
+    public Fact getEdgeFact(int edgeIndex) {
+        return (Fact) edgeFacts[edgeIndex];
+    }
+
+    /**
+     * Associates a data-flow fact with the edge of given index in the indexed CFG.
+     */
+    public void setEdgeFact(int edgeIndex, Fact fact) {
+        checkMutable();
+        edgeFacts[edgeIndex] = fact;
+    }
+
+    @Override
+    public Fact getEdgeFact(Edge<Node> edge) {
+        int edgeIndex = indexOf(edge);
+        return edgeIndex >= 0 ? getEdgeFact(edgeIndex) : null;
+    }
+
+    @Override
+    public void setEdgeFact(Edge<Node> edge, Fact fact) {
+        int edgeIndex = indexOf(edge);
+        if (edgeIndex < 0) {
+            throw new IllegalArgumentException(edge + " is not an edge of " + cfg);
+        }
+        setEdgeFact(edgeIndex, fact);
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public void replaceFacts(UnaryOperator<Fact> function) {
+        checkMutable();
+        for (Object[] facts : new Object[][]{ inFacts, outFacts, edgeFacts }) {
+            if (facts != null) {
+                for (int i = 0; i < facts.length; ++i) {
+                    facts[i] = function.apply((Fact) facts[i]);
+                }
+            }
+        }
+    }
+
+    private int indexOf(Edge<Node> edge) {
+        int source = cfg.getIndex(edge.getSource());
+        for (int k = 0; k < cfg.succCount(source); ++k) {
+            if (cfg.outEdgeAt(source, k) == edge) {
+                return cfg.getOutEdgeIndex(source, k);
+            }
+        }
+        return -1;
+    }
+}
@@ -0,0 +1,37 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2020-- Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2020-- Yue Li <yueli@nju.edu.cn>
+ * All rights reserved.
+ *
+ * Tai-e is only for educational and academic purposes,
+ * and any form of commercial use is disallowed.
+ * Distribution of Tai-e is disallowed without the approval.
+ */
+
+package pascal.taie.analysis.dataflow.fact;
+
+/**
+ * Maps objects to dense non-negative integers, and vice versa.
+ *
+ * @param <E> type of indexed objects
+ */
+public interface Indexer<E> {
+
+    /**
+     * @return the index of given object, or -1 if the object
+     * is not indexed by this indexer.
+     */
+    int getIndex(E o);
+
+    /**
+     * @return the object of given index.
+     */
+    E getObject(int index);
+
+    /**
+     * @return the number of indexed objects.
+     */
+    int size();
+}
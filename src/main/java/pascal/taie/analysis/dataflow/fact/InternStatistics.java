@@ -0,0 +1,118 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2020-- Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2020-- Yue Li <yueli@nju.edu.cn>
+ * All rights reserved.
+ *
+ * Tai-e is only for educational and academic purposes,
+ * and any form of commercial use is disallowed.
+ * Distribution of Tai-e is disallowed without the approval.
+ */
+
+package pascal.taie.analysis.dataflow.fact;
+
+import pascal.taie.language.classes.JMethod;
+
+/**
+ * Statistics of interning the facts of a result by {@link FactInterner},
+ * which are stored in the IR of the method with key {@link #KEY}.
+ * The sizes are rough estimates, see {@link FactInterner}. For the table
+ * shared by all methods, the canonical facts of a method may also be
+ * shared with other methods, thus the saved bytes are lower bounds.
+ */
+public class InternStatistics {
+
+    /**
+     * Key of the statistics stored in the IR.
+     */
+    public static final String KEY = "intern-stats";
+
+    /**
+     * Header of the CSV lines given by {@link #toCSV()}.
+     */
+    public static final String CSV_HEADER = "method,facts,distinct-before," +
+            "bytes-before,distinct-after,bytes-after,saved-bytes";
+
+    private final JMethod method;
+
+    private final long facts;
+
+    private final long distinctBefore;
+
+    private final long bytesBefore;
+
+    private final long distinctAfter;
+
+    private final long bytesAfter;
+
+    InternStatistics(JMethod method, long facts, long distinctBefore,
+                     long bytesBefore, long distinctAfter, long bytesAfter) {
+        this.method = method;
+        this.facts = facts;
+        this.distinctBefore = distinctBefore;
+        this.bytesBefore = bytesBefore;
+        this.distinctAfter = distinctAfter;
+        this.bytesAfter = bytesAfter;
+    }
+
+    public JMethod getMethod() {
+        return method;
+    }
+
+    /**
+     * @return number of the facts kept in the result, counting
+     * each reference to a fact.
+     */
+    public long getFacts() {
+        return facts;
+    }
+
+    /**
+     * @return number of distinct fact objects before interning.
+     */
+    public long getDistinctBefore() {
+        return distinctBefore;
+    }
+
+    /**
+     * @return estimated bytes of the fact objects before interning.
+     */
+    public long getBytesBefore() {
+        return bytesBefore;
+    }
+
+    /**
+     * @return number of canonical facts after interning.
+     */
+    public long getDistinctAfter() {
+        return distinctAfter;
+    }
+
+    /**
+     * @return estimated bytes of the canonical facts.
+     */
+    public long getBytesAfter() {
+        return bytesAfter;
+    }
+
+    public long getSavedBytes() {
+        return bytesBefore - bytesAfter;
+    }
+
+    /**
+     * @return the statistics as a CSV line, see {@link #CSV_HEADER}.
+     */
+    public String toCSV() {
+        return String.format("\"%s\",%d,%d,%d,%d,%d,%d", method, facts,
+                distinctBefore, bytesBefore, distinctAfter, bytesAfter,
+                getSavedBytes());
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%s: %d facts, %d -> %d objects, %d -> %d bytes",
+                method, facts, distinctBefore, distinctAfter,
+                bytesBefore, bytesAfter);
+    }
+}
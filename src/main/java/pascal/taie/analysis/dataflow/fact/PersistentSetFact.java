@@ -0,0 +1,490 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2020-- Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2020-- Yue Li <yueli@nju.edu.cn>
+ * All rights reserved.
+ *
+ * Tai-e is only for educational and academic purposes,
+ * and any form of commercial use is disallowed.
+ * Distribution of Tai-e is disallowed without the approval.
+ */
+
+package pascal.taie.analysis.dataflow.fact;
+
+import pascal.taie.util.Strings;
+
+import java.util.AbstractSet;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.function.Predicate;
+import java.util.stream.Stream;
+
+/**
+ * Set-like data-flow facts represented by persistent hash array mapped
+ * tries (HAMT). The trie nodes are immutable, and a modification copies
+ * the path from the root to the modified node, which shares the other
+ * nodes with the fact before the modification. Thus {@link #copy()} is
+ * O(1), and the copies share their structure until they are modified.
+ * <p>
+ * Each trie node branches on 5 bits of the hash codes of the elements,
+ * and the elements whose hash codes are equal are kept in collision nodes
+ * below the 32 bits of the hash codes.
+ *
+ * @param <E> type of elements
+ */
+public class PersistentSetFact<E> extends SetFact<E> {
+
+    private static final int BITS_PER_LEVEL = 5;
+
+    private static final int LEVEL_MASK = (1 << BITS_PER_LEVEL) - 1;
+
+    private static final BitmapNode EMPTY = new BitmapNode(0, new Object[0]);
+
+    private Node root;
+
+    private int size;
+
+    public PersistentSetFact() {
+        this(EMPTY, 0);
+    }
+
+    private PersistentSetFact(Node root, int size) {
+        super((Void) null);
+        this.root = root;
+        this.size = size;
+    }
+
+    @Override
+    public boolean contains(E e) {
+        return root.contains(e, e.hashCode(), 0);
+    }
+
+    @Override
+    public boolean add(E e) {
+        Node newRoot = root.add(e, e.hashCode(), 0);
+        if (newRoot == root) {
+            return false;
+        }
+        root = newRoot;
+        ++size;
+        return true;
+    }
+
+    @Override
+    public boolean remove(E e) {
+        Node newRoot = root.remove(e, e.hashCode(), 0);
+        if (newRoot == root) {
+            return false;
+        }
+        root = newRoot;
+        --size;
+        return true;
+    }
+
+    @Override
+    public boolean removeIf(Predicate<E> filter) {
+        boolean changed = false;
+        // the iteration is on the trie before the removals
+        for (E e : elements()) {
+            if (filter.test(e)) {
+                changed |= remove(e);
+            }
+        }
+        return changed;
+    }
+
+    @Override
+    public boolean union(SetFact<E> other) {
+        if (other instanceof PersistentSetFact) {
+            PersistentSetFact<E> that = (PersistentSetFact<E>) other;
+            if (that.root == root || that.size == 0) {
+                return false;
+            }
+            if (size == 0) {
+                root = that.root;
+                size = that.size;
+                return true;
+            }
+        }
+        boolean changed = false;
+        for (E e : other.elements()) {
+            changed |= add(e);
+        }
+        return changed;
+    }
+
+    @Override
+    public boolean intersect(SetFact<E> other) {
+        if (other instanceof PersistentSetFact &&
+                ((PersistentSetFact<E>) other).root == root) {
+            return false;
+        }
+        return removeIf(e -> !other.contains(e));
+    }
+
+    @Override
+    public void set(SetFact<E> other) {
+        if (other instanceof PersistentSetFact) {
+            PersistentSetFact<E> that = (PersistentSetFact<E>) other;
+            root = that.root;
+            size = that.size;
+        } else {
+            super.set(other);
+        }
+    }
+
+    @Override
+    public PersistentSetFact<E> copy() {
+        return new PersistentSetFact<>(root, size);
+    }
+
+    @Override
+    public void clear() {
+        root = EMPTY;
+        size = 0;
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    @Override
+    public Stream<E> stream() {
+        return elements().stream();
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    protected Set<E> elements() {
+        return new AbstractSet<>() {
+
+            @Override
+            @SuppressWarnings("unchecked")
+            public boolean contains(Object o) {
+                return PersistentSetFact.this.contains((E) o);
+            }
+
+            @Override
+            public Iterator<E> iterator() {
+                return new TrieIterator<>(root);
+            }
+
+            @Override
+            public int size() {
+                return size;
+            }
+        };
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof SetFact)) {
+            return false;
+        }
+        if (o instanceof PersistentSetFact) {
+            PersistentSetFact<?> that = (PersistentSetFact<?>) o;
+            if (that.root == root) {
+                return true;
+            }
+            if (that.size != size) {
+                return false;
+            }
+        }
+        return elements().equals(((SetFact<?>) o).elements());
+    }
+
+    @Override
+    public int hashCode() {
+        int h = 0;
+        for (E e : elements()) {
+            h += e.hashCode();
+        }
+        return h;
+    }
+
+    @Override
+    public String toString() {
+        return Strings.toString(elements());
+    }
+
+    /**
+     * Immutable node of the trie. The modifying methods return this node
+     * if the node does not change, otherwise a new node.
+     */
+    private abstract static class Node {
+
+        abstract boolean contains(Object e, int hash, int shift);
+
+        abstract Node add(Object e, int hash, int shift);
+
+        abstract Node remove(Object e, int hash, int shift);
+
+        /**
+         * @return the number of slots of this node, each of which
+         * is either an element or a child node.
+         */
+        abstract int arity();
+
+        /**
+         * @return the element or child node in given slot.
+         */
+        abstract Object slot(int i);
+    }
+
+    /**
+     * Node which branches on {@link #BITS_PER_LEVEL} bits of the hash codes.
+     * The bitmap tells which branches are present, and the slots of the
+     * present branches are kept in the order of the branches. Each slot is
+     * either an element or a child node. A child node holds at least two
+     * elements, so that the trie is kept in canonical form.
+     */
+    private static class BitmapNode extends Node {
+
+        private final int bitmap;
+
+        private final Object[] slots;
+
+        private BitmapNode(int bitmap, Object[] slots) {
+            this.bitmap = bitmap;
+            this.slots = slots;
+        }
+
+        private int indexOf(int bit) {
+            return Integer.bitCount(bitmap & (bit - 1));
+        }
+
+        @Override
+        boolean contains(Object e, int hash, int shift) {
+            int bit = 1 << ((hash >>> shift) & LEVEL_MASK);
+            if ((bitmap & bit) == 0) {
+                return false;
+            }
+            Object slot = slots[indexOf(bit)];
+            return slot instanceof Node ?
+                    ((Node) slot).contains(e, hash, shift + BITS_PER_LEVEL) :
+                    slot.equals(e);
+        }
+
+        @Override
+        Node add(Object e, int hash, int shift) {
+            int bit = 1 << ((hash >>> shift) & LEVEL_MASK);
+            int index = indexOf(bit);
+            if ((bitmap & bit) == 0) {
+                Object[] newSlots = new Object[slots.length + 1];
+                System.arraycopy(slots, 0, newSlots, 0, index);
+                newSlots[index] = e;
+                System.arraycopy(slots, index, newSlots, index + 1, slots.length - index);
+                return new BitmapNode(bitmap | bit, newSlots);
+            }
+            Object slot = slots[index];
+            Object newSlot;
+            if (slot instanceof Node) {
+                Node child = (Node) slot;
+                newSlot = child.add(e, hash, shift + BITS_PER_LEVEL);
+                if (newSlot == child) {
+                    return this;
+                }
+            } else if (slot.equals(e)) {
+                return this;
+            } else {
+                newSlot = merge(slot, slot.hashCode(), e, hash, shift + BITS_PER_LEVEL);
+            }
+            return replace(index, newSlot);
+        }
+
+        @Override
+        Node remove(Object e, int hash, int shift) {
+            int bit = 1 << ((hash >>> shift) & LEVEL_MASK);
+            if ((bitmap & bit) == 0) {
+                return this;
+            }
+            int index = indexOf(bit);
+            Object slot = slots[index];
+            if (slot instanceof Node) {
+                Node child = (Node) slot;
+                Node newChild = child.remove(e, hash, shift + BITS_PER_LEVEL);
+                if (newChild == child) {
+                    return this;
+                }
+                // inline the remaining element of a child node
+                return replace(index, newChild.arity() == 1 &&
+                        !(newChild.slot(0) instanceof Node) ?
+                        newChild.slot(0) : newChild);
+            } else if (slot.equals(e)) {
+                Object[] newSlots = new Object[slots.length - 1];
+                System.arraycopy(slots, 0, newSlots, 0, index);
+                System.arraycopy(slots, index + 1, newSlots, index, newSlots.length - index);
+                return new BitmapNode(bitmap & ~bit, newSlots);
+            } else {
+                return this;
+            }
+        }
+
+        private BitmapNode replace(int index, Object slot) {
+            Object[] newSlots = slots.clone();
+            newSlots[index] = slot;
+            return new BitmapNode(bitmap, newSlots);
+        }
+
+        @Override
+        int arity() {
+            return slots.length;
+        }
+
+        @Override
+        Object slot(int i) {
+            return slots[i];
+        }
+    }
+
+    /**
+     * Node of the elements whose hash codes are equal.
+     */
+    private static class CollisionNode extends Node {
+
+        private final int hash;
+
+        private final Object[] elements;
+
+        private CollisionNode(int hash, Object[] elements) {
+            this.hash = hash;
+            this.elements = elements;
+        }
+
+        private int indexOf(Object e) {
+            for (int i = 0; i < elements.length; ++i) {
+                if (elements[i].equals(e)) {
+                    return i;
+                }
+            }
+            return -1;
+        }
+
+        @Override
+        boolean contains(Object e, int hash, int shift) {
+            return hash == this.hash && indexOf(e) >= 0;
+        }
+
+        @Override
+        Node add(Object e, int hash, int shift) {
+            if (indexOf(e) >= 0) {
+                return this;
+            }
+            Object[] newElements = Arrays.copyOf(elements, elements.length + 1);
+            newElements[elements.length] = e;
+            return new CollisionNode(hash, newElements);
+        }
+
+        @Override
+        Node remove(Object e, int hash, int shift) {
+            int index = indexOf(e);
+            if (hash != this.hash || index < 0) {
+                return this;
+            }
+            Object[] newElements = new Object[elements.length - 1];
+            System.arraycopy(elements, 0, newElements, 0, index);
+            System.arraycopy(elements, index + 1, newElements, index,
+                    newElements.length - index);
+            return new CollisionNode(hash, newElements);
+        }
+
+        @Override
+        int arity() {
+            return elements.length;
+        }
+
+        @Override
+        Object slot(int i) {
+            return elements[i];
+        }
+    }
+
+    /**
+     * @return a node which holds the two given elements whose
+     * hash codes are equal on the bits below given shift.
+     */
+    private static Node merge(Object e1, int hash1, Object e2, int hash2, int shift) {
+        if (shift >= Integer.SIZE) {
+            return new CollisionNode(hash1, new Object[]{ e1, e2 });
+        }
+        int branch1 = (hash1 >>> shift) & LEVEL_MASK;
+        int branch2 = (hash2 >>> shift) & LEVEL_MASK;
+        if (branch1 == branch2) {
+            return new BitmapNode(1 << branch1, new Object[]{
+                    merge(e1, hash1, e2, hash2, shift + BITS_PER_LEVEL) });
+        }
+        return new BitmapNode((1 << branch1) | (1 << branch2),
+                branch1 < branch2 ? new Object[]{ e1, e2 } : new Object[]{ e2, e1 });
+    }
+
+    /**
+     * Depth-first iterator of the elements of a trie.
+     */
+    private static class TrieIterator<E> implements Iterator<E> {
+
+        /**
+         * Nodes on the path to the current slot, and the positions
+         * of the next slots in the nodes. The depth of a trie is at most
+         * 7 bitmap levels plus a collision node.
+         */
+        private final Node[] nodes = new Node[8];
+
+        private final int[] positions = new int[8];
+
+        private int depth;
+
+        private E next;
+
+        private TrieIterator(Node root) {
+            nodes[0] = root;
+            advance();
+        }
+
+        @SuppressWarnings("unchecked")
+        private void advance() {
+            next = null;
+            while (depth >= 0) {
+                Node node = nodes[depth];
+                if (positions[depth] == node.arity()) {
+                    --depth;
+                    continue;
+                }
+                Object slot = node.slot(positions[depth]++);
+                if (slot instanceof Node) {
+                    ++depth;
+                    nodes[depth] = (Node) slot;
+                    positions[depth] = 0;
+                } else {
+                    next = (E) slot;
+                    return;
+                }
+            }
+        }
+
+        @Override
+        public boolean hasNext() {
+            return next != null;
+        }
+
+        @Override
+        public E next() {
+            if (next == null) {
+                throw new NoSuchElementException();
+            }
+            E e = next;
+            advance();
+            return e;
+        }
+    }
+}
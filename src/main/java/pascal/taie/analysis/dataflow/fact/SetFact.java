@@ -38,6 +38,15 @@ public class SetFact<E> {
         this(Collections.emptySet());
     }
 
+    /**
+     * Constructor for subclasses which keep the elements in their own
+     * representation. For such subclasses, {@link #set} is {@code null},
+     * and they must override all methods which access it.
+     */
+    protected SetFact(Void noSet) {
+        set = null;
+    }
+
     /**
      * @return true if this set contains the specified element, otherwise false.
      */
@@ -79,7 +88,25 @@ public class SetFact<E> {
      * @return true if this fact changed as a result of the call, otherwise false.
      */
     public boolean union(SetFact<E> other) {
-        return set.addAll(other.set);
+        return set.addAll(other.elements());
+    }
+
+    /**
+     * Unions other fact into this fact, and adds the elements which are
+     * newly added to this fact (i.e., {@code other - this}) to fact
+     * {@code added}. This is the basic operation of delta propagation.
+     *
+     * @return true if this fact changed as a result of the call, otherwise false.
+     */
+    public boolean unionNew(SetFact<E> other, SetFact<E> added) {
+        boolean changed = false;
+        for (E e : other.elements()) {
+            if (add(e)) {
+                added.add(e);
+                changed = true;
+            }
+        }
+        return changed;
     }
 
     /**
@@ -97,7 +124,7 @@ public class SetFact<E> {
      * @return true if this fact changed as a result of the call, otherwise false.
      */
     public boolean intersect(SetFact<E> other) {
-        return set.retainAll(other.set);
+        return set.retainAll(other.elements());
     }
 
     /**
@@ -135,6 +162,22 @@ public class SetFact<E> {
         return set.isEmpty();
     }
 
+    /**
+     * @return true if this fact cannot be modified, e.g., it is
+     * a canonical fact given by {@link FactInterner}.
+     */
+    public boolean isFrozen() {
+        return false;
+    }
+
+    /**
+     * @return an unmodifiable view of this fact, or this fact if
+     * it is already frozen. This fact must not be modified after the call.
+     */
+    public SetFact<E> freeze() {
+        return new FrozenSetFact<>(this);
+    }
+
     public Stream<E> stream() {
         return set.stream();
     }
@@ -143,6 +186,13 @@ public class SetFact<E> {
         return set.size();
     }
 
+    /**
+     * @return the elements of this fact as a set.
+     */
+    protected Set<E> elements() {
+        return set;
+    }
+
     @Override
     public boolean equals(Object o) {
         if (this == o) {
@@ -152,7 +202,7 @@ public class SetFact<E> {
             return false;
         }
         SetFact<?> that = (SetFact<?>) o;
-        return set.equals(that.set);
+        return set.equals(that.elements());
     }
 
     @Override
@@ -0,0 +1,131 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2020-- Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2020-- Yue Li <yueli@nju.edu.cn>
+ * All rights reserved.
+ *
+ * Tai-e is only for educational and academic purposes,
+ * and any form of commercial use is disallowed.
+ * Distribution of Tai-e is disallowed without the approval.
+ */
+
+package pascal.taie.analysis.dataflow.fact;
+
+import pascal.taie.ir.IR;
+import pascal.taie.ir.exp.RValue;
+import pascal.taie.ir.exp.Var;
+import pascal.taie.ir.stmt.Stmt;
+import pascal.taie.util.collection.Maps;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Indexer for the variables of a method. The variables are numbered once
+ * when the indexer is built, i.e., the variables of the IR in the order of
+ * {@link IR#getVars()}, followed by the variables which are defined or used
+ * by the statements but are not in that list (if any). Queries never
+ * change the indexer, thus it can be read by multiple threads.
+ * <p>
+ * Each IR has its own indexer, which is obtained by {@link #of(IR)}.
+ */
+public class VarIndexer implements Indexer<Var> {
+
+    /**
+     * Key of the indexer stored in the IR.
+     */
+    private static final String KEY = "var-indexer";
+
+    private final IR ir;
+
+    private final Map<Var, Integer> indexes;
+
+    private final List<Var> vars;
+
+    private final DefUseTable table;
+
+    private VarIndexer(IR ir) {
+        this.ir = ir;
+        List<Var> irVars = ir.getVars();
+        indexes = Maps.newMap(irVars.size());
+        vars = new ArrayList<>(irVars.size());
+        irVars.forEach(this::register);
+        for (Stmt stmt : ir.getStmts()) {
+            stmt.getDef().ifPresent(def -> {
+                if (def instanceof Var) {
+                    register((Var) def);
+                }
+            });
+            for (RValue use : stmt.getUses()) {
+                if (use instanceof Var) {
+                    register((Var) use);
+                }
+            }
+        }
+        table = new DefUseTable(ir, this);
+    }
+
+    private void register(Var var) {
+        if (!indexes.containsKey(var)) {
+            indexes.put(var, vars.size());
+            vars.add(var);
+        }
+    }
+
+    /**
+     * @return the variable indexer of given IR.
+     */
+    public static VarIndexer of(IR ir) {
+        VarIndexer indexer = ir.getResult(KEY);
+        if (indexer == null) {
+            indexer = new VarIndexer(ir);
+            ir.storeResult(KEY, indexer);
+        }
+        return indexer;
+    }
+
+    /**
+     * Removes the indexer, together with its def-use table, of given IR,
+     * which are stale after the statements of the IR are changed.
+     */
+    public static void invalidate(IR ir) {
+        ir.clearResult(KEY);
+    }
+
+    /**
+     * @return the IR whose variables are indexed by this indexer.
+     */
+    public IR getIR() {
+        return ir;
+    }
+
+    /**
+     * @return the index of given variable, or -1 if the variable
+     * does not belong to the method.
+     */
+    @Override
+    public int getIndex(Var var) {
+        Integer index = indexes.get(var);
+        return index != null ? index : -1;
+    }
+
+    /**
+     * @return the def-use table of the method, which is given by
+     * the indexes of this indexer.
+     */
+    public DefUseTable getDefUseTable() {
+        return table;
+    }
+
+    @Override
+    public Var getObject(int index) {
+        return vars.get(index);
+    }
+
+    @Override
+    public int size() {
+        return vars.size();
+    }
+}
@@ -0,0 +1,363 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2020-- Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2020-- Yue Li <yueli@nju.edu.cn>
+ * All rights reserved.
+ *
+ * Tai-e is only for educational and academic purposes,
+ * and any form of commercial use is disallowed.
+ * Distribution of Tai-e is disallowed without the approval.
+ */
+
+package pascal.taie.analysis.dataflow.solver;
+
+import pascal.taie.analysis.dataflow.analysis.DataflowAnalysis;
+import pascal.taie.analysis.dataflow.fact.DataflowResult;
+import pascal.taie.analysis.graph.cfg.BasicBlock;
+import pascal.taie.analysis.graph.cfg.BlockGraph;
+import pascal.taie.analysis.graph.cfg.CFG;
+import pascal.taie.analysis.graph.cfg.Edge;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.UnaryOperator;
+
+/**
+ * Data-flow result which only keeps the facts at the boundaries of
+ * basic blocks. The facts of the nodes inside a block are recomputed by
+ * replaying the node transfer functions from the block boundary when
+ * they are queried. The facts of a few most recently queried blocks are
+ * kept in an LRU cache, so that querying the nodes block by block, or
+ * going back and forth between neighboring blocks, replays each block
+ * only once.
+ * <p>
+ * The result of any solver can be compacted into this kind of result by
+ * {@link #compact}. A compacted result only keeps the facts of the blocks
+ * on the output side in the direction of the analysis, i.e., the out facts
+ * of the blocks for forward analyses and the in facts for backward ones,
+ * and recomputes the facts on the other side by meeting the facts of the
+ * adjacent blocks. Thus it keeps one fact per block instead of two facts
+ * per node.
+ * <p>
+ * The facts of the nodes inside a block may be shared by the adjacent
+ * nodes, thus they must not be modified by the callers.
+ * <p>
+ * This result is read-only for the callers, as the facts are only kept
+ * at the block boundaries, which are set by the solver. Thus the setters
+ * of the node and edge facts throw {@link UnsupportedOperationException}.
+ * The results are only made for the analyses without edge transfer,
+ * thus {@link #getEdgeFact(Edge)} always returns null.
+ *
+ * @param <Node> type of CFG nodes
+ * @param <Fact> type of data-flow facts
+ */
+public class BlockDataflowResult<Node, Fact> extends DataflowResult<Node, Fact> {
+
+    /**
+     * Default number of expanded blocks kept in the cache.
+     */
+    private static final int DEFAULT_CACHE_SIZE = 8;
+
+    private final DataflowAnalysis<Node, Fact> analysis;
+
+    private final BlockGraph<Node> blockGraph;
+
+    /**
+     * In facts of the blocks, or null if they are recomputed.
+     */
+    private final Object[] blockInFacts;
+
+    /**
+     * Out facts of the blocks, or null if they are recomputed.
+     */
+    private final Object[] blockOutFacts;
+
+    /**
+     * For compacted results, the fact which cannot be recomputed from the
+     * adjacent blocks, i.e., the in fact of the entry block for forward
+     * analyses, or the out fact of the exit block for backward ones.
+     */
+    private Fact boundaryFact;
+
+    /**
+     * Facts of the nodes of the most recently expanded blocks,
+     * in access order.
+     */
+    private final Map<BasicBlock<Node>, Expansion> expanded;
+
+    /**
+     * Facts of the nodes of an expanded block, indexed by
+     * the positions of the nodes in the block.
+     */
+    private record Expansion(Object[] inFacts, Object[] outFacts) {
+    }
+
+    BlockDataflowResult(DataflowAnalysis<Node, Fact> analysis,
+                        BlockGraph<Node> blockGraph) {
+        this(analysis, blockGraph, false, DEFAULT_CACHE_SIZE);
+    }
+
+    private BlockDataflowResult(DataflowAnalysis<Node, Fact> analysis,
+                                BlockGraph<Node> blockGraph,
+                                boolean compact, int cacheSize) {
+        if (cacheSize <= 0) {
+            throw new IllegalArgumentException(
+                    "Size of block cache must be positive: " + cacheSize);
+        }
+        this.analysis = analysis;
+        this.blockGraph = blockGraph;
+        int size = blockGraph.getNumberOfNodes();
+        boolean isForward = analysis.isForward();
+        blockInFacts = compact && isForward ? null : new Object[size];
+        blockOutFacts = compact && !isForward ? null : new Object[size];
+        expanded = new LinkedHashMap<>(cacheSize * 2, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(
+                    Map.Entry<BasicBlock<Node>, Expansion> eldest) {
+                return size() > cacheSize;
+            }
+        };
+    }
+
+    /**
+     * Compacts given result of given analysis on given CFG, i.e., creates
+     * a result which only keeps one fact per basic block, and recomputes
+     * the other facts when they are queried.
+     * <p>
+     * The recomputation assumes that the facts of the nodes are exactly
+     * the fixpoint of the meet and transfer functions, thus the result
+     * is returned as is if the analysis has edge transfer, or if it is
+     * already compacted.
+     *
+     * @param cacheSize maximum number of expanded blocks kept in the result
+     */
+    public static <Node, Fact> DataflowResult<Node, Fact> compact(
+            DataflowAnalysis<Node, Fact> analysis, CFG<Node> cfg,
+            DataflowResult<Node, Fact> result, int cacheSize) {
+        if (analysis.hasEdgeTransfer() ||
+                (result instanceof BlockDataflowResult &&
+                        ((BlockDataflowResult<Node, Fact>) result).isCompact())) {
+            return result;
+        }
+        // the blocks of the results of the block solver are reused
+        BlockGraph<Node> blockGraph = result instanceof BlockDataflowResult ?
+                ((BlockDataflowResult<Node, Fact>) result).blockGraph :
+                new BlockGraph<>(cfg);
+        BlockDataflowResult<Node, Fact> compacted = new BlockDataflowResult<>(
+                analysis, blockGraph, true, cacheSize);
+        for (BasicBlock<Node> block : blockGraph) {
+            if (analysis.isForward()) {
+                compacted.setBlockOutFact(block, result.getOutFact(block.getLast()));
+            } else {
+                compacted.setBlockInFact(block, result.getInFact(block.getFirst()));
+            }
+        }
+        compacted.boundaryFact = analysis.isForward() ?
+                result.getInFact(cfg.getEntry()) : result.getOutFact(cfg.getExit());
+        if (result.isFrozen()) {
+            compacted.freeze();
+        }
+        return compacted;
+    }
+
+    /**
+     * @return true if this result only keeps the facts on one side
+     * of the blocks.
+     */
+    boolean isCompact() {
+        return blockInFacts == null || blockOutFacts == null;
+    }
+
+    BlockGraph<Node> getBlockGraph() {
+        return blockGraph;
+    }
+
+    Fact getBlockInFact(BasicBlock<Node> block) {
+        return getBlockInFact(block.getIndex());
+    }
+
+    @SuppressWarnings("unchecked")
+    Fact getBlockInFact(int index) {
+        return (Fact) blockInFacts[index];
+    }
+
+    void setBlockInFact(BasicBlock<Node> block, Fact fact) {
+        blockInFacts[block.getIndex()] = fact;
+    }
+
+    Fact getBlockOutFact(BasicBlock<Node> block) {
+        return getBlockOutFact(block.getIndex());
+    }
+
+    @SuppressWarnings("unchecked")
+    Fact getBlockOutFact(int index) {
+        return (Fact) blockOutFacts[index];
+    }
+
+    void setBlockOutFact(BasicBlock<Node> block, Fact fact) {
+        blockOutFacts[block.getIndex()] = fact;
+    }
+
+    @Override
+    public Fact getInFact(Node node) {
+        BasicBlock<Node> block = blockGraph.getBlockOf(node);
+        if (block == null) {
+            return null;
+        }
+        int pos = blockGraph.getPositionOf(node);
+        if (pos == 0 && blockInFacts != null) {
+            return getBlockInFact(block);
+        }
+        return getNodeFact(block, pos, true);
+    }
+
+    @Override
+    public Fact getOutFact(Node node) {
+        BasicBlock<Node> block = blockGraph.getBlockOf(node);
+        if (block == null) {
+            return null;
+        }
+        int pos = blockGraph.getPositionOf(node);
+        if (pos == block.size() - 1 && blockOutFacts != null) {
+            return getBlockOutFact(block);
+        }
+        return getNodeFact(block, pos, false);
+    }
+
+    @SuppressWarnings("unchecked")
+    private synchronized Fact getNodeFact(BasicBlock<Node> block, int pos,
+                                          boolean isIn) {
+        Expansion expansion = expanded.get(block);
+        if (expansion == null) {
+            expansion = expand(block);
+            if (isFrozen()) {
+                // the facts recomputed for a frozen result are frozen too
+                for (Object[] facts : new Object[][]{
+                        expansion.inFacts(), expansion.outFacts() }) {
+                    for (int i = 0; i < facts.length; ++i) {
+                        facts[i] = freezeFact(facts[i]);
+                    }
+                }
+            }
+            expanded.put(block, expansion);
+        }
+        return (Fact) (isIn ? expansion.inFacts()[pos] : expansion.outFacts()[pos]);
+    }
+
+    /**
+     * Recomputes the facts of the nodes of given block by replaying
+     * the node transfer functions from the block boundary.
+     */
+    private Expansion expand(BasicBlock<Node> block) {
+        CFG<Node> cfg = blockGraph.getCFG();
+        List<Node> nodes = block.getNodes();
+        int last = nodes.size() - 1;
+        Object[] inFacts = new Object[nodes.size()];
+        Object[] outFacts = new Object[nodes.size()];
+        if (analysis.isForward()) {
+            Fact in = blockInFacts != null ?
+                    getBlockInFact(block) : meetBoundaryFact(block);
+            for (int i = 0; i <= last; ++i) {
+                inFacts[i] = in;
+                Fact out;
+                if (i == last) {
+                    out = getBlockOutFact(block);
+                } else {
+                    out = analysis.newInitialFact(cfg);
+                    analysis.transferNode(nodes.get(i), in, out);
+                }
+                outFacts[i] = out;
+                in = out;
+            }
+        } else {
+            Fact out = blockOutFacts != null ?
+                    getBlockOutFact(block) : meetBoundaryFact(block);
+            for (int i = last; i >= 0; --i) {
+                outFacts[i] = out;
+                Fact in;
+                if (i == 0) {
+                    in = getBlockInFact(block);
+                } else {
+                    in = analysis.newInitialFact(cfg);
+                    analysis.transferNode(nodes.get(i), in, out);
+                }
+                inFacts[i] = in;
+                out = in;
+            }
+        }
+        return new Expansion(inFacts, outFacts);
+    }
+
+    /**
+     * For compacted results, recomputes the in (out) fact of given block
+     * of a forward (backward) analysis by meeting the out (in) facts of
+     * the predecessors (successors) of the block.
+     */
+    private Fact meetBoundaryFact(BasicBlock<Node> block) {
+        CFG<Node> cfg = blockGraph.getCFG();
+        int b = block.getIndex();
+        if (analysis.isForward()) {
+            if (block == blockGraph.getEntryBlock()) {
+                return boundaryFact;
+            }
+            Fact in = analysis.newInitialFact(cfg);
+            for (int k = 0; k < blockGraph.predCount(b); ++k) {
+                analysis.meetInto(getBlockOutFact(blockGraph.predAt(b, k)), in);
+            }
+            return in;
+        } else {
+            if (block == blockGraph.getExitBlock()) {
+                return boundaryFact;
+            }
+            Fact out = analysis.newInitialFact(cfg);
+            for (int k = 0; k < blockGraph.succCount(b); ++k) {
+                analysis.meetInto(getBlockInFact(blockGraph.succAt(b, k)), out);
+            }
+            return out;
+        }
+    }
+
+    /**
+     * Replaces the facts kept at the block boundaries. The facts of the
+     * expanded blocks are dropped, and they are recomputed from the
+     * replaced facts on demand.
+     */
+    @Override
+    @SuppressWarnings("unchecked")
+    public synchronized void replaceFacts(UnaryOperator<Fact> function) {
+        checkMutable();
+        for (Object[] facts : new Object[][]{ blockInFacts, blockOutFacts }) {
+            if (facts != null) {
+                for (int i = 0; i < facts.length; ++i) {
+                    facts[i] = function.apply((Fact) facts[i]);
+                }
+            }
+        }
+        if (isCompact()) {
+            boundaryFact = function.apply(boundaryFact);
+        }
+        expanded.clear();
+    }
+
+    @Override
+    public void setInFact(Node node, Fact fact) {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public void setOutFact(Node node, Fact fact) {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public Fact getEdgeFact(Edge<Node> edge) {
+        return null;
+    }
+
+    @Override
+    public void setEdgeFact(Edge<Node> edge, Fact fact) {
+        throw new UnsupportedOperationException();
+    }
+}
@@ -0,0 +1,175 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2020-- Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2020-- Yue Li <yueli@nju.edu.cn>
+ * All rights reserved.
+ *
+ * Tai-e is only for educational and academic purposes,
+ * and any form of commercial use is disallowed.
+ * Distribution of Tai-e is disallowed without the approval.
+ */
+
+package pascal.taie.analysis.dataflow.solver;
+
+import pascal.taie.analysis.dataflow.analysis.DataflowAnalysis;
+import pascal.taie.analysis.dataflow.analysis.GenKillAnalysis;
+import pascal.taie.analysis.dataflow.fact.DataflowResult;
+import pascal.taie.analysis.graph.cfg.BasicBlock;
+import pascal.taie.analysis.graph.cfg.BlockGraph;
+import pascal.taie.analysis.graph.cfg.CFG;
+import pascal.taie.util.graph.ReversePostOrder;
+
+import java.util.List;
+
+/**
+ * Work-list solver for gen/kill analyses, which solves the data-flow
+ * problem on the basic blocks of the CFG. The transfer function of each
+ * block is summarized by a single gen/kill pair, and the facts of the
+ * nodes inside the blocks are only computed on demand, when they are
+ * queried from the result.
+ */
+class BlockSolver<Node, Fact> extends Solver<Node, Fact> {
+
+    private final GenKillAnalysis<Node, Fact> genKill;
+
+    @SuppressWarnings("unchecked")
+    BlockSolver(DataflowAnalysis<Node, Fact> analysis) {
+        super(analysis);
+        if (!(analysis instanceof GenKillAnalysis)) {
+            throw new IllegalArgumentException(
+                    "Block solver requires a gen/kill analysis");
+        }
+        genKill = (GenKillAnalysis<Node, Fact>) analysis;
+    }
+
+    @Override
+    protected DataflowResult<Node, Fact> newResult(CFG<Node> cfg) {
+        return new BlockDataflowResult<>(analysis, new BlockGraph<>(cfg));
+    }
+
+    @Override
+    protected void initializeForward(CFG<Node> cfg, DataflowResult<Node, Fact> result) {
+        BlockDataflowResult<Node, Fact> r = (BlockDataflowResult<Node, Fact>) result;
+        BlockGraph<Node> blockGraph = r.getBlockGraph();
+        BasicBlock<Node> entry = blockGraph.getEntryBlock();
+        r.setBlockOutFact(entry, analysis.newBoundaryFact(cfg));
+        for (BasicBlock<Node> block : blockGraph) {
+            if (block == entry) continue;
+            r.setBlockInFact(block, analysis.newInitialFact(cfg));
+            r.setBlockOutFact(block, analysis.newInitialFact(cfg));
+        }
+    }
+
+    @Override
+    protected void initializeBackward(CFG<Node> cfg, DataflowResult<Node, Fact> result) {
+        BlockDataflowResult<Node, Fact> r = (BlockDataflowResult<Node, Fact>) result;
+        BlockGraph<Node> blockGraph = r.getBlockGraph();
+        BasicBlock<Node> exit = blockGraph.getExitBlock();
+        r.setBlockInFact(exit, analysis.newBoundaryFact(cfg));
+        for (BasicBlock<Node> block : blockGraph) {
+            if (block == exit) continue;
+            r.setBlockInFact(block, analysis.newInitialFact(cfg));
+            r.setBlockOutFact(block, analysis.newInitialFact(cfg));
+        }
+    }
+
+    @Override
+    protected void doSolveForward(CFG<Node> cfg, DataflowResult<Node, Fact> result) {
+        BlockDataflowResult<Node, Fact> r = (BlockDataflowResult<Node, Fact>) result;
+        BlockGraph<Node> blockGraph = r.getBlockGraph();
+        Summaries summaries = summarize(cfg, blockGraph, true);
+        int[] order = ReversePostOrder.compute(blockGraph,
+                blockGraph.getEntryBlock().getIndex(), false);
+        int[] priorities = computePriorities(order);
+        PriorityWorkList workList = new PriorityWorkList(order.length);
+        // the entry block is the first in reverse postorder
+        workList.addRange(1, order.length);
+        for (int p = workList.poll(); p >= 0; p = workList.poll()) {
+            int b = order[p];
+            Fact in = r.getBlockInFact(b);
+            for (int k = 0; k < blockGraph.predCount(b); ++k) {
+                analysis.meetInto(r.getBlockOutFact(blockGraph.predAt(b, k)), in);
+            }
+            if (genKill.transferGenKill(summaries.gens[b], summaries.kills[b],
+                    in, r.getBlockOutFact(b))) {
+                for (int k = 0; k < blockGraph.succCount(b); ++k) {
+                    workList.add(priorities[blockGraph.succAt(b, k)]);
+                }
+            }
+        }
+    }
+
+    @Override
+    protected void doSolveBackward(CFG<Node> cfg, DataflowResult<Node, Fact> result) {
+        BlockDataflowResult<Node, Fact> r = (BlockDataflowResult<Node, Fact>) result;
+        BlockGraph<Node> blockGraph = r.getBlockGraph();
+        Summaries summaries = summarize(cfg, blockGraph, false);
+        int[] order = ReversePostOrder.compute(blockGraph,
+                blockGraph.getExitBlock().getIndex(), true);
+        int[] priorities = computePriorities(order);
+        PriorityWorkList workList = new PriorityWorkList(order.length);
+        // the exit block is the first in reverse postorder
+        workList.addRange(1, order.length);
+        for (int p = workList.poll(); p >= 0; p = workList.poll()) {
+            int b = order[p];
+            Fact out = r.getBlockOutFact(b);
+            for (int k = 0; k < blockGraph.succCount(b); ++k) {
+                analysis.meetInto(r.getBlockInFact(blockGraph.succAt(b, k)), out);
+            }
+            if (genKill.transferGenKill(summaries.gens[b], summaries.kills[b],
+                    out, r.getBlockInFact(b))) {
+                for (int k = 0; k < blockGraph.predCount(b); ++k) {
+                    workList.add(priorities[blockGraph.predAt(b, k)]);
+                }
+            }
+        }
+    }
+
+    private static int[] computePriorities(int[] order) {
+        int[] priorities = new int[order.length];
+        for (int i = 0; i < order.length; ++i) {
+            priorities[order[i]] = i;
+        }
+        return priorities;
+    }
+
+    /**
+     * Computes the gen/kill summaries of all blocks by composing
+     * the transfer functions of their nodes in the direction of the analysis.
+     */
+    private Summaries summarize(CFG<Node> cfg, BlockGraph<Node> blockGraph,
+                                boolean isForward) {
+        Summaries summaries = new Summaries(blockGraph.getNumberOfNodes());
+        for (BasicBlock<Node> block : blockGraph) {
+            Fact gen = analysis.newInitialFact(cfg);
+            Fact kill = analysis.newInitialFact(cfg);
+            List<Node> nodes = block.getNodes();
+            if (isForward) {
+                for (Node node : nodes) {
+                    genKill.composeTransfer(node, gen, kill);
+                }
+            } else {
+                for (int i = nodes.size() - 1; i >= 0; --i) {
+                    genKill.composeTransfer(nodes.get(i), gen, kill);
+                }
+            }
+            summaries.gens[block.getIndex()] = gen;
+            summaries.kills[block.getIndex()] = kill;
+        }
+        return summaries;
+    }
+
+    private class Summaries {
+
+        private final Fact[] gens;
+
+        private final Fact[] kills;
+
+        @SuppressWarnings("unchecked")
+        private Summaries(int size) {
+            gens = (Fact[]) new Object[size];
+            kills = (Fact[]) new Object[size];
+        }
+    }
+}
@@ -0,0 +1,122 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2020-- Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2020-- Yue Li <yueli@nju.edu.cn>
+ * All rights reserved.
+ *
+ * Tai-e is only for educational and academic purposes,
+ * and any form of commercial use is disallowed.
+ * Distribution of Tai-e is disallowed without the approval.
+ */
+
+package pascal.taie.analysis.dataflow.solver;
+
+import pascal.taie.analysis.dataflow.analysis.DataflowAnalysis;
+import pascal.taie.analysis.dataflow.fact.DataflowResult;
+import pascal.taie.analysis.dataflow.fact.IndexedDataflowResult;
+import pascal.taie.analysis.dataflow.fact.SetFact;
+import pascal.taie.analysis.graph.cfg.CFG;
+import pascal.taie.analysis.graph.cfg.IndexedCFG;
+import pascal.taie.util.graph.ReversePostOrder;
+
+
+/**
+ * Work-list solver in delta propagation mode. Each node keeps the elements
+ * which are newly added to its out (in) fact of forward (backward)
+ * analysis since it was last processed, and only these elements are
+ * propagated to its successors (predecessors) and transferred by
+ * {@link DataflowAnalysis#transferNodeDelta}. Thus, the work on each
+ * visit is proportional to the changes of the facts, instead of
+ * their sizes.
+ * <p>
+ * This solver requires that the analysis
+ * {@link DataflowAnalysis#hasDeltaTransfer() supports delta propagation},
+ * has no edge transfer, and its initial facts are empty.
+ */
+class DeltaSolver<Node, Fact> extends Solver<Node, Fact> {
+
+    DeltaSolver(DataflowAnalysis<Node, Fact> analysis) {
+        super(analysis);
+        if (!analysis.hasDeltaTransfer() || analysis.hasEdgeTransfer()) {
+            throw new IllegalArgumentException(
+                    "Delta solver requires an analysis with delta transfer" +
+                            " and without edge transfer");
+        }
+    }
+
+    @Override
+    protected void doSolveForward(CFG<Node> cfg, DataflowResult<Node, Fact> result) {
+        doSolve(cfg, (IndexedDataflowResult<Node, Fact>) result, true);
+    }
+
+    @Override
+    protected void doSolveBackward(CFG<Node> cfg, DataflowResult<Node, Fact> result) {
+        doSolve(cfg, (IndexedDataflowResult<Node, Fact>) result, false);
+    }
+
+    private void doSolve(CFG<Node> cfg, IndexedDataflowResult<Node, Fact> result,
+                         boolean isForward) {
+        IndexedCFG<Node> g = IndexedCFG.of(cfg);
+        int size = g.getNumberOfNodes();
+        int boundary = g.getIndex(isForward ? cfg.getEntry() : cfg.getExit());
+        int[] order = ReversePostOrder.compute(g, boundary, !isForward);
+        int[] priorities = new int[size];
+        for (int i = 0; i < size; ++i) {
+            priorities[order[i]] = i;
+        }
+        // the initial deltas are the boundary fact and the transfer of
+        // empty facts, e.g., the used variables in live variable analysis
+        Object[] deltas = new Object[size];
+        PriorityWorkList workList = new PriorityWorkList(size);
+        for (int i = 0; i < size; ++i) {
+            Fact in = result.getInFact(i);
+            Fact out = result.getOutFact(i);
+            if (i != boundary) {
+                analysis.transferNode(g.getNode(i), in, out);
+            }
+            Fact delta = analysis.newInitialFact(cfg);
+            asSet(delta).set(asSet(isForward ? out : in));
+            deltas[i] = delta;
+            if (!asSet(delta).isEmpty()) {
+                workList.add(priorities[i]);
+            }
+        }
+        Fact spare = analysis.newInitialFact(cfg);
+        Fact flowing = analysis.newInitialFact(cfg);
+        for (int p = workList.poll(); p >= 0; p = workList.poll()) {
+            int node = order[p];
+            // swap out the delta of the node, so that the elements which
+            // flow back to the node (via self-loops) are kept as new delta
+            Fact delta = getDelta(deltas, node);
+            deltas[node] = spare;
+            int count = isForward ? g.succCount(node) : g.predCount(node);
+            for (int k = 0; k < count; ++k) {
+                int next = isForward ? g.succAt(node, k) : g.predAt(node, k);
+                Fact in = result.getInFact(next);
+                Fact out = result.getOutFact(next);
+                asSet(flowing).clear();
+                if (asSet(isForward ? in : out).unionNew(asSet(delta), asSet(flowing))) {
+                    Fact nextDelta = getDelta(deltas, next);
+                    analysis.transferNodeDelta(g.getNode(next), flowing,
+                            in, out, nextDelta);
+                    if (!asSet(nextDelta).isEmpty()) {
+                        workList.add(priorities[next]);
+                    }
+                }
+            }
+            asSet(delta).clear();
+            spare = delta;
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private Fact getDelta(Object[] deltas, int node) {
+        return (Fact) deltas[node];
+    }
+
+    @SuppressWarnings("unchecked")
+    private static SetFact<Object> asSet(Object fact) {
+        return (SetFact<Object>) fact;
+    }
+}
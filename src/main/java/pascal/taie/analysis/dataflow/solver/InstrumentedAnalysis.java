@@ -0,0 +1,304 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2020-- Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2020-- Yue Li <yueli@nju.edu.cn>
+ * All rights reserved.
+ *
+ * Tai-e is only for educational and academic purposes,
+ * and any form of commercial use is disallowed.
+ * Distribution of Tai-e is disallowed without the approval.
+ */
+
+package pascal.taie.analysis.dataflow.solver;
+
+import pascal.taie.analysis.dataflow.analysis.DataflowAnalysis;
+import pascal.taie.analysis.dataflow.analysis.GenKillAnalysis;
+import pascal.taie.analysis.dataflow.fact.DataflowResult;
+import pascal.taie.analysis.dataflow.fact.SetFact;
+import pascal.taie.analysis.graph.cfg.CFG;
+import pascal.taie.analysis.graph.cfg.Edge;
+import pascal.taie.analysis.graph.cfg.IndexedCFG;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.function.Supplier;
+
+/**
+ * Wrapper of a data-flow analysis, which counts the calls of its meet
+ * and transfer functions for {@link SolverStatistics}, and records the
+ * node transfers in a {@link SolverTraceWriter} for the traced methods.
+ * The solvers are given the wrapper instead of the analysis only if the
+ * statistics or the trace are enabled, so that the solvers pay nothing
+ * for them otherwise. The counters and traces are kept per thread,
+ * as a solver may solve different methods in parallel.
+ */
+class InstrumentedAnalysis<Node, Fact> implements DataflowAnalysis<Node, Fact> {
+
+    private final DataflowAnalysis<Node, Fact> analysis;
+
+    private final boolean isForward;
+
+    /**
+     * Whether the statistics of the solving are recorded.
+     */
+    private final boolean stats;
+
+    /**
+     * Writer of the traces, or null if the solving is not traced.
+     */
+    private final SolverTraceWriter tracer;
+
+    private final ThreadLocal<State> states = ThreadLocal.withInitial(State::new);
+
+    private InstrumentedAnalysis(DataflowAnalysis<Node, Fact> analysis,
+                                 boolean stats, SolverTraceWriter tracer) {
+        this.analysis = analysis;
+        this.isForward = analysis.isForward();
+        this.stats = stats;
+        this.tracer = tracer;
+    }
+
+    /**
+     * @return an instrumented wrapper of given analysis, which is also
+     * a {@link GenKillAnalysis} if the analysis is.
+     */
+    static <Node, Fact> InstrumentedAnalysis<Node, Fact> of(
+            DataflowAnalysis<Node, Fact> analysis,
+            boolean stats, SolverTraceWriter tracer) {
+        return analysis instanceof GenKillAnalysis ?
+                new GenKill<>((GenKillAnalysis<Node, Fact>) analysis, stats, tracer) :
+                new InstrumentedAnalysis<>(analysis, stats, tracer);
+    }
+
+    /**
+     * @return true if the statistics of the solving are recorded.
+     */
+    boolean recordsStatistics() {
+        return stats;
+    }
+
+    /**
+     * Solves given CFG by given solving function, records the statistics
+     * of the solving in the IR, and writes the trace of the solving
+     * if the method is traced.
+     */
+    DataflowResult<Node, Fact> measure(Solver<Node, Fact> solver, CFG<Node> cfg,
+                                       Supplier<DataflowResult<Node, Fact>> solving) {
+        State s = states.get();
+        s.visits = s.meets = s.changes = 0;
+        if (tracer != null && tracer.accepts(cfg.getMethod())) {
+            s.startTrace(IndexedCFG.of(cfg));
+        }
+        long bytes = getAllocatedBytes();
+        long start = System.nanoTime();
+        DataflowResult<Node, Fact> result;
+        try {
+            result = solving.get();
+        } finally {
+            if (s.cfg != null) {
+                tracer.write(String.valueOf(cfg.getMethod()),
+                        s.cfg.getNumberOfNodes(), s.trace);
+                s.cfg = null;
+            }
+        }
+        long nanos = System.nanoTime() - start;
+        if (bytes >= 0) {
+            bytes = getAllocatedBytes() - bytes;
+        }
+        if (stats) {
+            cfg.getIR().storeResult(SolverStatistics.KEY, new SolverStatistics(
+                    cfg.getMethod(), solver.getClass().getSimpleName(),
+                    cfg.getNumberOfNodes(), s.visits, s.meets, s.changes,
+                    nanos, bytes));
+        }
+        return result;
+    }
+
+    /**
+     * @return bytes allocated by the current thread so far,
+     * or -1 if the JVM cannot tell.
+     */
+    private static long getAllocatedBytes() {
+        ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+        if (bean instanceof com.sun.management.ThreadMXBean) {
+            return ((com.sun.management.ThreadMXBean) bean)
+                    .getThreadAllocatedBytes(Thread.currentThread().getId());
+        }
+        return -1;
+    }
+
+    @Override
+    public boolean isForward() {
+        return isForward;
+    }
+
+    @Override
+    public Fact newBoundaryFact(CFG<Node> cfg) {
+        return analysis.newBoundaryFact(cfg);
+    }
+
+    @Override
+    public Fact newInitialFact() {
+        return analysis.newInitialFact();
+    }
+
+    @Override
+    public Fact newInitialFact(CFG<Node> cfg) {
+        return analysis.newInitialFact(cfg);
+    }
+
+    @Override
+    public void meetInto(Fact fact, Fact target) {
+        ++states.get().meets;
+        analysis.meetInto(fact, target);
+    }
+
+    @Override
+    public boolean transferNode(Node node, Fact in, Fact out) {
+        State s = states.get();
+        if (s.cfg == null) {
+            return s.count(analysis.transferNode(node, in, out));
+        }
+        Fact target = isForward ? out : in;
+        int before = sizeOf(target);
+        boolean changed = analysis.transferNode(node, in, out);
+        s.trace(node, before, sizeOf(target), changed);
+        return s.count(changed);
+    }
+
+    @Override
+    public boolean hasEdgeTransfer() {
+        return analysis.hasEdgeTransfer();
+    }
+
+    @Override
+    public boolean needTransfer(Edge<Node> edge) {
+        return analysis.needTransfer(edge);
+    }
+
+    @Override
+    public void transferEdge(Edge<Node> edge, Fact nodeFact, Fact edgeFact) {
+        analysis.transferEdge(edge, nodeFact, edgeFact);
+    }
+
+    @Override
+    public boolean hasDeltaTransfer() {
+        return analysis.hasDeltaTransfer();
+    }
+
+    /**
+     * The delta solver only applies delta transfer to the nodes whose facts
+     * are changed by the delta, so each delta transfer counts as a change.
+     * In the trace, a delta transfer changes the fact if it changes the
+     * size of the set, or if the fact is not a set.
+     */
+    @Override
+    public void transferNodeDelta(Node node, Fact delta, Fact in, Fact out,
+                                  Fact newDelta) {
+        State s = states.get();
+        s.count(true);
+        if (s.cfg == null) {
+            analysis.transferNodeDelta(node, delta, in, out, newDelta);
+            return;
+        }
+        Fact target = isForward ? out : in;
+        int before = sizeOf(target);
+        analysis.transferNodeDelta(node, delta, in, out, newDelta);
+        int after = sizeOf(target);
+        s.trace(node, before, after, before < 0 || before != after);
+    }
+
+    /**
+     * Counts a visit which is not traced.
+     *
+     * @return the given change flag.
+     */
+    boolean count(boolean changed) {
+        return states.get().count(changed);
+    }
+
+    /**
+     * @return the size of given fact if it is a set, otherwise -1.
+     */
+    private static int sizeOf(Object fact) {
+        return fact instanceof SetFact ? ((SetFact<?>) fact).size() : -1;
+    }
+
+    /**
+     * Counters and trace of the current solving of a thread.
+     */
+    private class State {
+
+        private long visits;
+
+        private long meets;
+
+        private long changes;
+
+        /**
+         * The CFG being traced, or null if the solving is not traced.
+         */
+        private IndexedCFG<Node> cfg;
+
+        /**
+         * Number of visits of each node in the traced solving.
+         */
+        private int[] nodeVisits;
+
+        private SolverTraceWriter.Ring trace;
+
+        private void startTrace(IndexedCFG<Node> cfg) {
+            this.cfg = cfg;
+            nodeVisits = new int[cfg.getNumberOfNodes()];
+            if (trace == null) {
+                trace = tracer.newRing();
+            }
+            trace.clear();
+        }
+
+        private void trace(Node node, int before, int after, boolean changed) {
+            int index = cfg.getIndex(node);
+            trace.add(index, ++nodeVisits[index], before, after, changed);
+        }
+
+        /**
+         * Counts a visit of a node, which changed the facts or not.
+         *
+         * @return the given change flag.
+         */
+        private boolean count(boolean changed) {
+            ++visits;
+            if (changed) {
+                ++changes;
+            }
+            return changed;
+        }
+    }
+
+    /**
+     * Instrumented wrapper of gen/kill analyses. The transfers of whole
+     * blocks are counted but not traced, as they have no node.
+     */
+    private static class GenKill<Node, Fact> extends InstrumentedAnalysis<Node, Fact>
+            implements GenKillAnalysis<Node, Fact> {
+
+        private final GenKillAnalysis<Node, Fact> genKill;
+
+        private GenKill(GenKillAnalysis<Node, Fact> analysis,
+                        boolean stats, SolverTraceWriter tracer) {
+            super(analysis, stats, tracer);
+            genKill = analysis;
+        }
+
+        @Override
+        public void composeTransfer(Node node, Fact gen, Fact kill) {
+            genKill.composeTransfer(node, gen, kill);
+        }
+
+        @Override
+        public boolean transferGenKill(Fact gen, Fact kill, Fact source, Fact target) {
+            return count(genKill.transferGenKill(gen, kill, source, target));
+        }
+    }
+}
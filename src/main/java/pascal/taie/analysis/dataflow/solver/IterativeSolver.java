@@ -14,10 +14,9 @@ package pascal.taie.analysis.dataflow.solver;
 
 import pascal.taie.analysis.dataflow.analysis.DataflowAnalysis;
 import pascal.taie.analysis.dataflow.fact.DataflowResult;
+import pascal.taie.analysis.dataflow.fact.IndexedDataflowResult;
 import pascal.taie.analysis.graph.cfg.CFG;
-
-import java.util.Optional;
-import java.util.stream.Stream;
+import pascal.taie.analysis.graph.cfg.IndexedCFG;
 
 class IterativeSolver<Node, Fact> extends Solver<Node, Fact> {
 
@@ -32,18 +31,22 @@ class IterativeSolver<Node, Fact> extends Solver<Node, Fact> {
 
     @Override
     protected void doSolveBackward(CFG<Node> cfg, DataflowResult<Node, Fact> result) {
-        while(true){
-            boolean stop = false;
-            for(Node node : cfg){
-                if(node.equals(cfg.getExit())) continue;
-                cfg.succsOf(node).forEach(succ -> {
-                    analysis.meetInto(result.getInFact(succ), result.getOutFact(node));
-                });
-                boolean chgOccur = analysis.transferNode(node, result.getInFact(node), result.getOutFact(node));
-                stop = stop || chgOccur;
+        IndexedCFG<Node> g = IndexedCFG.of(cfg);
+        IndexedDataflowResult<Node, Fact> r = (IndexedDataflowResult<Node, Fact>) result;
+        int exit = g.getIndex(cfg.getExit());
+        boolean changed;
+        do {
+            changed = false;
+            // visit the nodes backwards, so that facts can flow through
+            // a run of statements within one round
+            for (int i = g.getNumberOfNodes() - 1; i >= 0; --i) {
+                if (i == exit) continue;
+                Fact out = r.getOutFact(i);
+                for (int k = 0; k < g.succCount(i); ++k) {
+                    analysis.meetInto(r.getInFact(g.succAt(i, k)), out);
+                }
+                changed |= analysis.transferNode(g.getNode(i), r.getInFact(i), out);
             }
-            if(!stop) break;
-        }
+        } while (changed);
     }
 }
-
@@ -0,0 +1,69 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2020-- Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2020-- Yue Li <yueli@nju.edu.cn>
+ * All rights reserved.
+ *
+ * Tai-e is only for educational and academic purposes,
+ * and any form of commercial use is disallowed.
+ * Distribution of Tai-e is disallowed without the approval.
+ */
+
+package pascal.taie.analysis.dataflow.solver;
+
+import java.util.BitSet;
+
+/**
+ * Work-list of priorities in [0, size), which always removes the smallest
+ * priority. The priorities are kept in a bit set, and the search for the
+ * smallest one starts from a lower bound of the priorities in the
+ * work-list instead of 0, otherwise draining a work-list of n priorities
+ * would scan O(n^2) bits.
+ */
+class PriorityWorkList {
+
+    private final BitSet bits;
+
+    /**
+     * No priority in this work-list is smaller than this bound.
+     */
+    private int lowest;
+
+    PriorityWorkList(int size) {
+        bits = new BitSet(size);
+    }
+
+    void add(int priority) {
+        bits.set(priority);
+        if (priority < lowest) {
+            lowest = priority;
+        }
+    }
+
+    /**
+     * Adds the priorities in [from, to).
+     */
+    void addRange(int from, int to) {
+        if (from < to) {
+            bits.set(from, to);
+            if (from < lowest) {
+                lowest = from;
+            }
+        }
+    }
+
+    /**
+     * Removes the smallest priority from this work-list.
+     *
+     * @return the removed priority, or -1 if this work-list is empty.
+     */
+    int poll() {
+        int priority = bits.nextSetBit(lowest);
+        if (priority >= 0) {
+            bits.clear(priority);
+            lowest = priority + 1;
+        }
+        return priority;
+    }
+}
@@ -0,0 +1,130 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2020-- Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2020-- Yue Li <yueli@nju.edu.cn>
+ * All rights reserved.
+ *
+ * Tai-e is only for educational and academic purposes,
+ * and any form of commercial use is disallowed.
+ * Distribution of Tai-e is disallowed without the approval.
+ */
+
+package pascal.taie.analysis.dataflow.solver;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import pascal.taie.analysis.dataflow.analysis.DataflowAnalysis;
+import pascal.taie.analysis.dataflow.fact.DataflowResult;
+import pascal.taie.analysis.dataflow.fact.IndexedDataflowResult;
+import pascal.taie.analysis.graph.cfg.CFG;
+import pascal.taie.analysis.graph.cfg.IndexedCFG;
+import pascal.taie.util.graph.ReversePostOrder;
+import pascal.taie.util.graph.SCC;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Solver which solves the strongly connected components (SCCs) of the CFG
+ * one by one in topological order (in the direction of the analysis).
+ * Each SCC is iterated to its local fixpoint before moving on, so that
+ * the converged parts of the CFG are never revisited because of the other
+ * loops, and each node outside of loops is visited exactly once.
+ * <p>
+ * The statistics of each solved method are stored in its IR
+ * with key {@link SCCStatistics#KEY}. Methods with acyclic CFGs are
+ * solved by {@link Solver} directly and have no statistics.
+ */
+class SCCSolver<Node, Fact> extends Solver<Node, Fact> {
+
+    private static final Logger logger = LogManager.getLogger(SCCSolver.class);
+
+    SCCSolver(DataflowAnalysis<Node, Fact> analysis) {
+        super(analysis);
+    }
+
+    @Override
+    protected void doSolveForward(CFG<Node> cfg, DataflowResult<Node, Fact> result) {
+        doSolve(cfg, (IndexedDataflowResult<Node, Fact>) result, true);
+    }
+
+    @Override
+    protected void doSolveBackward(CFG<Node> cfg, DataflowResult<Node, Fact> result) {
+        doSolve(cfg, (IndexedDataflowResult<Node, Fact>) result, false);
+    }
+
+    private void doSolve(CFG<Node> cfg, IndexedDataflowResult<Node, Fact> result,
+                         boolean isForward) {
+        IndexedCFG<Node> g = IndexedCFG.of(cfg);
+        int boundary = g.getIndex(isForward ? cfg.getEntry() : cfg.getExit());
+        int[] order = ReversePostOrder.compute(g, boundary, !isForward);
+        int[] priorities = new int[order.length];
+        for (int i = 0; i < order.length; ++i) {
+            priorities[order[i]] = i;
+        }
+        // Tarjan's algorithm gives SCCs in reverse topological order,
+        // which is the order for backward analysis
+        List<List<Node>> components = new ArrayList<>(
+                new SCC<>(g).getComponents());
+        if (isForward) {
+            Collections.reverse(components);
+        }
+        int[] componentOf = new int[g.getNumberOfNodes()];
+        int[] positionOf = new int[g.getNumberOfNodes()];
+        int cyclicComponents = 0;
+        int largestComponent = 0;
+        long transfers = 0;
+        for (int c = 0; c < components.size(); ++c) {
+            List<Node> component = components.get(c);
+            int[] nodes = component.stream()
+                    .mapToInt(g::getIndex)
+                    .boxed()
+                    .sorted((n1, n2) -> Integer.compare(priorities[n1], priorities[n2]))
+                    .mapToInt(Integer::intValue)
+                    .toArray();
+            for (int i = 0; i < nodes.length; ++i) {
+                componentOf[nodes[i]] = c;
+                positionOf[nodes[i]] = i;
+            }
+            largestComponent = Math.max(largestComponent, nodes.length);
+            int first = nodes[0];
+            boolean isCyclic = nodes.length > 1 || g.hasEdge(g.getNode(first), g.getNode(first));
+            if (!isCyclic) {
+                // acyclic region: exactly one pass
+                if (first != boundary) {
+                    meetAndTransfer(cfg, g, result, first);
+                    ++transfers;
+                }
+                continue;
+            }
+            ++cyclicComponents;
+            PriorityWorkList workList = new PriorityWorkList(nodes.length);
+            workList.addRange(0, nodes.length);
+            for (int i = workList.poll(); i >= 0; i = workList.poll()) {
+                int node = nodes[i];
+                if (node == boundary) {
+                    continue;
+                }
+                ++transfers;
+                if (meetAndTransfer(cfg, g, result, node)) {
+                    // only the dependent nodes in the same SCC need to be
+                    // revisited, as the other ones are solved afterwards
+                    int count = isForward ? g.succCount(node) : g.predCount(node);
+                    for (int k = 0; k < count; ++k) {
+                        int dep = isForward ? g.succAt(node, k) : g.predAt(node, k);
+                        if (componentOf[dep] == c) {
+                            workList.add(positionOf[dep]);
+                        }
+                    }
+                }
+            }
+        }
+        SCCStatistics stats = new SCCStatistics(cfg.getMethod(),
+                g.getNumberOfNodes(), components.size(), cyclicComponents,
+                largestComponent, transfers);
+        cfg.getIR().storeResult(SCCStatistics.KEY, stats);
+        logger.debug("{}", stats);
+    }
+}
@@ -0,0 +1,94 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2020-- Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2020-- Yue Li <yueli@nju.edu.cn>
+ * All rights reserved.
+ *
+ * Tai-e is only for educational and academic purposes,
+ * and any form of commercial use is disallowed.
+ * Distribution of Tai-e is disallowed without the approval.
+ */
+
+package pascal.taie.analysis.dataflow.solver;
+
+import pascal.taie.language.classes.JMethod;
+
+/**
+ * Statistics of solving a method by {@link SCCSolver}.
+ */
+public class SCCStatistics {
+
+    /**
+     * Key of the statistics stored in the IR.
+     */
+    public static final String KEY = "scc-stats";
+
+    private final JMethod method;
+
+    private final int nodes;
+
+    private final int components;
+
+    private final int cyclicComponents;
+
+    private final int largestComponent;
+
+    private final long transfers;
+
+    SCCStatistics(JMethod method, int nodes, int components,
+                  int cyclicComponents, int largestComponent, long transfers) {
+        this.method = method;
+        this.nodes = nodes;
+        this.components = components;
+        this.cyclicComponents = cyclicComponents;
+        this.largestComponent = largestComponent;
+        this.transfers = transfers;
+    }
+
+    public JMethod getMethod() {
+        return method;
+    }
+
+    /**
+     * @return number of nodes of the CFG.
+     */
+    public int getNodes() {
+        return nodes;
+    }
+
+    /**
+     * @return number of SCCs of the CFG.
+     */
+    public int getComponents() {
+        return components;
+    }
+
+    /**
+     * @return number of SCCs which contain cycles.
+     */
+    public int getCyclicComponents() {
+        return cyclicComponents;
+    }
+
+    /**
+     * @return number of nodes of the largest SCC.
+     */
+    public int getLargestComponent() {
+        return largestComponent;
+    }
+
+    /**
+     * @return number of node transfers performed by the solver.
+     */
+    public long getTransfers() {
+        return transfers;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%s: %d nodes, %d SCCs (%d cyclic, largest %d)," +
+                        " %d transfers", method, nodes, components,
+                cyclicComponents, largestComponent, transfers);
+    }
+}
@@ -0,0 +1,48 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2020-- Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2020-- Yue Li <yueli@nju.edu.cn>
+ * All rights reserved.
+ *
+ * Tai-e is only for educational and academic purposes,
+ * and any form of commercial use is disallowed.
+ * Distribution of Tai-e is disallowed without the approval.
+ */
+
+package pascal.taie.analysis.dataflow.solver;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * Flight recorder event of solving a method by a {@link Solver}.
+ */
+@Name("pascal.taie.Solve")
+@Label("Data-flow Solving")
+@Category({"Tai-e", "Data-flow"})
+@Description("Solving of the data-flow problem of a method")
+class SolveEvent extends Event {
+
+    @Label("Method")
+    String method;
+
+    @Label("Solver")
+    String solver;
+
+    @Label("Incremental")
+    boolean incremental;
+
+    @Label("Statements")
+    int stmts;
+
+    @Label("Variables")
+    int vars;
+
+    @Label("Iterations")
+    @Description("Visits of the nodes, or -1 if option \"stats\" of the analysis is off")
+    long iterations;
+}
@@ -14,7 +14,21 @@ package pascal.taie.analysis.dataflow.solver;
 
 import pascal.taie.analysis.dataflow.analysis.DataflowAnalysis;
 import pascal.taie.analysis.dataflow.fact.DataflowResult;
+import pascal.taie.analysis.dataflow.fact.IndexedDataflowResult;
 import pascal.taie.analysis.graph.cfg.CFG;
+import pascal.taie.analysis.graph.cfg.Edge;
+import pascal.taie.analysis.graph.cfg.IndexedCFG;
+import pascal.taie.config.AnalysisOptions;
+import pascal.taie.ir.IR;
+import pascal.taie.util.graph.ReversePostOrder;
+
+import java.nio.file.Path;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.List;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 /**
  * Base class for data-flow analysis solver, which provides common
@@ -27,8 +41,18 @@ public abstract class Solver<Node, Fact> {
 
     protected final DataflowAnalysis<Node, Fact> analysis;
 
+    /**
+     * The analysis if it is instrumented for statistics or traces,
+     * otherwise null.
+     */
+    private final InstrumentedAnalysis<Node, Fact> instrumented;
+
+    private static final int DEFAULT_TRACE_CAPACITY = 1 << 16;
+
     protected Solver(DataflowAnalysis<Node, Fact> analysis) {
         this.analysis = analysis;
+        instrumented = analysis instanceof InstrumentedAnalysis ?
+                (InstrumentedAnalysis<Node, Fact>) analysis : null;
     }
 
     /**
@@ -39,6 +63,54 @@ public abstract class Solver<Node, Fact> {
         return new IterativeSolver<>(analysis);
     }
 
+    /**
+     * Static factory method to create a new solver for given analysis.
+     * The kind of the solver is specified by option "solver", which can be
+     * "iterative" (default), "worklist", "scc" (see {@link SCCSolver}),
+     * "delta" (for analyses with delta transfer only, see {@link DeltaSolver}),
+     * or "block" (for gen/kill analyses only, see {@link BlockSolver}).
+     * If option "stats" is true, then the solver records the
+     * {@link SolverStatistics} of each solving in the IR.
+     * If option "trace" is given, then the transfers of each solving are
+     * recorded and written to the file given by the option, which can be
+     * viewed by {@link SolverTraceFile}. Option "trace-methods" is a regular
+     * expression which selects the traced methods by their signatures
+     * (all methods by default), and option "trace-capacity" is the number
+     * of the latest transfers kept for each solving (65536 by default).
+     */
+    public static <Node, Fact> Solver<Node, Fact> makeSolver(
+            DataflowAnalysis<Node, Fact> analysis, AnalysisOptions options) {
+        String kind = options.has("solver") ?
+                options.getString("solver") : "iterative";
+        boolean stats = options.has("stats") && options.getBoolean("stats");
+        SolverTraceWriter tracer = null;
+        if (options.has("trace")) {
+            int capacity = options.has("trace-capacity") ?
+                    options.getInt("trace-capacity") : DEFAULT_TRACE_CAPACITY;
+            Pattern methods = options.has("trace-methods") ?
+                    Pattern.compile(options.getString("trace-methods")) : null;
+            tracer = new SolverTraceWriter(Path.of(options.getString("trace")),
+                    capacity, methods);
+        }
+        DataflowAnalysis<Node, Fact> a = stats || tracer != null ?
+                InstrumentedAnalysis.of(analysis, stats, tracer) : analysis;
+        switch (kind) {
+            case "iterative":
+                return new IterativeSolver<>(a);
+            case "worklist":
+                return new WorklistSolver<>(a);
+            case "block":
+                return new BlockSolver<>(a);
+            case "scc":
+                return new SCCSolver<>(a);
+            case "delta":
+                return new DeltaSolver<>(a);
+            default:
+                throw new IllegalArgumentException(
+                        "Unknown data-flow solver: " + kind);
+        }
+    }
+
     /**
      * Starts this solver on the given CFG.
      *
@@ -46,19 +118,190 @@ public abstract class Solver<Node, Fact> {
      * @return the analysis result
      */
     public DataflowResult<Node, Fact> solve(CFG<Node> cfg) {
+        SolveEvent event = new SolveEvent();
+        event.begin();
+        DataflowResult<Node, Fact> result = instrumented != null ?
+                instrumented.measure(this, cfg, () -> solveFully(cfg)) :
+                solveFully(cfg);
+        commit(event, cfg, false);
+        return result;
+    }
+
+    private DataflowResult<Node, Fact> solveFully(CFG<Node> cfg) {
         DataflowResult<Node, Fact> result = initialize(cfg);
         doSolve(cfg, result);
         return result;
     }
 
+    /**
+     * Re-solves the data-flow problem for given CFG after some of its
+     * nodes are changed, e.g., the statements are modified by a
+     * transformation, from the result of the previous solving.
+     * <p>
+     * The facts of a node only depend on the nodes which can reach it
+     * (in the direction of the analysis), thus only the facts of the nodes
+     * reachable from the changed nodes are invalidated, and the other
+     * facts are taken from the previous result as a warm start. Then the
+     * invalidated facts are re-propagated until a new fixpoint. The nodes
+     * that are not in the previous result are regarded as changed, and
+     * if the edges of the CFG are changed, then their sources (for forward
+     * analysis) or targets (for backward analysis) should be given as changed.
+     * The changed nodes which are not in given CFG are regarded as removed,
+     * and their neighbors in the CFG of the previous result are re-analyzed;
+     * if the previous result does not have its CFG, then all nodes are
+     * re-analyzed.
+     * <p>
+     * This method requires that the initial fact of the analysis is the
+     * identity of its meet operator, as the facts are copied by meeting
+     * them into initial facts. The previous result is not modified.
+     *
+     * @param cfg      the (possibly new) CFG of the method
+     * @param previous result of the previous solving
+     * @param changed  the changed nodes
+     * @return the new analysis result
+     */
+    public DataflowResult<Node, Fact> solveIncrementally(
+            CFG<Node> cfg, DataflowResult<Node, Fact> previous,
+            Collection<Node> changed) {
+        SolveEvent event = new SolveEvent();
+        event.begin();
+        DataflowResult<Node, Fact> result = instrumented != null ?
+                instrumented.measure(this, cfg, () -> resolve(cfg, previous, changed)) :
+                resolve(cfg, previous, changed);
+        commit(event, cfg, true);
+        return result;
+    }
+
+    /**
+     * Commits the flight recorder event of solving given CFG,
+     * if the event is enabled.
+     */
+    private void commit(SolveEvent event, CFG<Node> cfg, boolean incremental) {
+        event.end();
+        if (event.shouldCommit()) {
+            IR ir = cfg.getIR();
+            event.method = String.valueOf(cfg.getMethod());
+            event.solver = getClass().getSimpleName();
+            event.incremental = incremental;
+            event.stmts = ir.getStmts().size();
+            event.vars = ir.getVars().size();
+            SolverStatistics stats = instrumented != null &&
+                    instrumented.recordsStatistics() ?
+                    ir.getResult(SolverStatistics.KEY) : null;
+            event.iterations = stats != null ? stats.getVisits() : -1;
+            event.commit();
+        }
+    }
+
+    private DataflowResult<Node, Fact> resolve(
+            CFG<Node> cfg, DataflowResult<Node, Fact> previous,
+            Collection<Node> changed) {
+        DataflowResult<Node, Fact> result = initialize(cfg);
+        if (!(result instanceof IndexedDataflowResult)) {
+            // the solver uses its own kind of results
+            doSolve(cfg, result);
+            return result;
+        }
+        IndexedDataflowResult<Node, Fact> r = (IndexedDataflowResult<Node, Fact>) result;
+        IndexedCFG<Node> g = IndexedCFG.of(cfg);
+        IndexedCFG<Node> prevCFG = previous instanceof IndexedDataflowResult ?
+                ((IndexedDataflowResult<Node, Fact>) previous).getCFG() : null;
+        boolean isForward = analysis.isForward();
+        int size = g.getNumberOfNodes();
+        int boundary = g.getIndex(isForward ? cfg.getEntry() : cfg.getExit());
+        // invalidate the facts reachable from the changed nodes
+        BitSet affected = new BitSet(size);
+        int[] stack = new int[size];
+        int top = 0;
+        for (int i = 0; i < size; ++i) {
+            if (i == boundary) {
+                continue;
+            }
+            Node node = g.getNode(i);
+            if ((prevCFG != null && !prevCFG.hasNode(node)) ||
+                    previous.getInFact(node) == null ||
+                    previous.getOutFact(node) == null) {
+                affected.set(i);
+                stack[top++] = i;
+            }
+        }
+        for (Node node : changed) {
+            if (g.hasNode(node)) {
+                int i = g.getIndex(node);
+                if (!affected.get(i)) {
+                    affected.set(i);
+                    stack[top++] = i;
+                }
+            } else if (prevCFG != null && prevCFG.hasNode(node)) {
+                // the node is removed, and its neighbors in the previous
+                // CFG are connected to other nodes now
+                List<Node> neighbors = Stream.concat(prevCFG.predsOf(node),
+                        prevCFG.succsOf(node)).collect(Collectors.toList());
+                for (Node neighbor : neighbors) {
+                    if (g.hasNode(neighbor)) {
+                        int i = g.getIndex(neighbor);
+                        if (i != boundary && !affected.get(i)) {
+                            affected.set(i);
+                            stack[top++] = i;
+                        }
+                    }
+                }
+            } else {
+                // the neighbors of the removed node are unknown
+                affected.set(0, size);
+                affected.clear(boundary);
+                top = 0;
+                break;
+            }
+        }
+        while (top > 0) {
+            int node = stack[--top];
+            int count = isForward ? g.succCount(node) : g.predCount(node);
+            for (int k = 0; k < count; ++k) {
+                int next = isForward ? g.succAt(node, k) : g.predAt(node, k);
+                if (!affected.get(next)) {
+                    affected.set(next);
+                    stack[top++] = next;
+                }
+            }
+        }
+        // warm start: the facts of unaffected nodes are still the fixpoint
+        for (int i = 0; i < size; ++i) {
+            if (i != boundary && !affected.get(i)) {
+                Node node = g.getNode(i);
+                analysis.meetInto(previous.getInFact(node), r.getInFact(i));
+                analysis.meetInto(previous.getOutFact(node), r.getOutFact(i));
+            }
+        }
+        int[] order = ReversePostOrder.compute(g, boundary, !isForward);
+        int[] priorities = new int[size];
+        PriorityWorkList workList = new PriorityWorkList(size);
+        for (int p = 0; p < size; ++p) {
+            priorities[order[p]] = p;
+            if (order[p] != boundary && affected.get(order[p])) {
+                workList.add(p);
+            }
+        }
+        for (int p = workList.poll(); p >= 0; p = workList.poll()) {
+            int node = order[p];
+            if (meetAndTransfer(cfg, g, r, node)) {
+                int count = isForward ? g.succCount(node) : g.predCount(node);
+                for (int k = 0; k < count; ++k) {
+                    workList.add(priorities[isForward ?
+                            g.succAt(node, k) : g.predAt(node, k)]);
+                }
+            }
+        }
+        return result;
+    }
+
     /**
      * Creates and initializes a new data-flow result for given CFG.
      *
      * @return the initialized data-flow result
      */
     private DataflowResult<Node, Fact> initialize(CFG<Node> cfg) {
-        DataflowResult<Node, Fact> result =
-                new DataflowResult<>(analysis.hasEdgeTransfer());
+        DataflowResult<Node, Fact> result = newResult(cfg);
         if (analysis.isForward()) {
             initializeForward(cfg, result);
         } else {
@@ -67,24 +310,52 @@ public abstract class Solver<Node, Fact> {
         return result;
     }
 
+    /**
+     * Creates an empty data-flow result for given CFG. The facts are
+     * stored in arrays indexed by the {@link IndexedCFG} of the CFG,
+     * and the solvers can access them by node indexes.
+     */
+    protected DataflowResult<Node, Fact> newResult(CFG<Node> cfg) {
+        return new IndexedDataflowResult<>(
+                IndexedCFG.of(cfg), analysis.hasEdgeTransfer());
+    }
+
     protected void initializeForward(CFG<Node> cfg, DataflowResult<Node, Fact> result) {
-        throw new UnsupportedOperationException();
+        result.setOutFact(cfg.getEntry(), analysis.newBoundaryFact(cfg));
+        for (Node node : cfg) {
+            if (cfg.isEntry(node)) continue;
+            result.setInFact(node, analysis.newInitialFact(cfg));
+            result.setOutFact(node, analysis.newInitialFact(cfg));
+        }
     }
 
     protected void initializeBackward(CFG<Node> cfg, DataflowResult<Node, Fact> result) {
         result.setInFact(cfg.getExit(), analysis.newBoundaryFact(cfg));
         for(Node node : cfg){
             if(node.equals(cfg.getExit())) continue;
-            result.setInFact(node, analysis.newInitialFact());
-            result.setOutFact(node, analysis.newInitialFact());
+            result.setInFact(node, analysis.newInitialFact(cfg));
+            result.setOutFact(node, analysis.newInitialFact(cfg));
         }
 
     }
 
     /**
-     * Solves the data-flow problem for given CFG.
+     * Solves the data-flow problem for given CFG. Acyclic CFGs, which are
+     * the majority in practice, are solved by a single pass over the nodes
+     * in topological order (reverse topological order for backward
+     * analysis), as each node sees the final facts of all its predecessors
+     * (successors) when it is visited. CFGs with cycles are delegated
+     * to the concrete solver.
      */
     private void doSolve(CFG<Node> cfg, DataflowResult<Node, Fact> result) {
+        if (result instanceof IndexedDataflowResult) {
+            IndexedCFG<Node> g = IndexedCFG.of(cfg);
+            int[] order = g.getTopologicalOrder();
+            if (order != null) {
+                solveAcyclic(cfg, g, (IndexedDataflowResult<Node, Fact>) result, order);
+                return;
+            }
+        }
         if (analysis.isForward()) {
             doSolveForward(cfg, result);
         } else {
@@ -92,6 +363,71 @@ public abstract class Solver<Node, Fact> {
         }
     }
 
+    private void solveAcyclic(CFG<Node> cfg, IndexedCFG<Node> g,
+                              IndexedDataflowResult<Node, Fact> result, int[] order) {
+        if (analysis.isForward()) {
+            int entry = g.getIndex(cfg.getEntry());
+            for (int node : order) {
+                if (node != entry) {
+                    meetAndTransfer(cfg, g, result, node);
+                }
+            }
+        } else {
+            int exit = g.getIndex(cfg.getExit());
+            for (int i = order.length - 1; i >= 0; --i) {
+                if (order[i] != exit) {
+                    meetAndTransfer(cfg, g, result, order[i]);
+                }
+            }
+        }
+    }
+
+    /**
+     * Meets the facts flowing into the node of given index, i.e., the out
+     * facts of its predecessors (in facts of its successors) for forward
+     * (backward) analysis, and then applies the node transfer.
+     *
+     * @return true if the transfer changed the out (in) fact of the node.
+     */
+    protected boolean meetAndTransfer(CFG<Node> cfg, IndexedCFG<Node> g,
+                                      IndexedDataflowResult<Node, Fact> result, int node) {
+        if (analysis.isForward()) {
+            Fact in = result.getInFact(node);
+            for (int k = 0; k < g.predCount(node); ++k) {
+                Fact predOut = result.getOutFact(g.predAt(node, k));
+                analysis.meetInto(getFlowingFact(cfg, result, g.inEdgeAt(node, k),
+                        g.getInEdgeIndex(node, k), predOut), in);
+            }
+            return analysis.transferNode(g.getNode(node), in, result.getOutFact(node));
+        } else {
+            Fact out = result.getOutFact(node);
+            for (int k = 0; k < g.succCount(node); ++k) {
+                Fact succIn = result.getInFact(g.succAt(node, k));
+                analysis.meetInto(getFlowingFact(cfg, result, g.outEdgeAt(node, k),
+                        g.getOutEdgeIndex(node, k), succIn), out);
+            }
+            return analysis.transferNode(g.getNode(node), result.getInFact(node), out);
+        }
+    }
+
+    /**
+     * @return the fact flowing along the given edge, i.e., the node fact
+     * if the edge needs no transfer, otherwise the edge fact.
+     */
+    protected Fact getFlowingFact(CFG<Node> cfg, IndexedDataflowResult<Node, Fact> result,
+                                  Edge<Node> edge, int edgeIndex, Fact nodeFact) {
+        if (analysis.hasEdgeTransfer() && analysis.needTransfer(edge)) {
+            Fact edgeFact = result.getEdgeFact(edgeIndex);
+            if (edgeFact == null) {
+                edgeFact = analysis.newInitialFact(cfg);
+                result.setEdgeFact(edgeIndex, edgeFact);
+            }
+            analysis.transferEdge(edge, nodeFact, edgeFact);
+            return edgeFact;
+        }
+        return nodeFact;
+    }
+
     protected abstract void doSolveForward(CFG<Node> cfg, DataflowResult<Node, Fact> result);
 
     protected abstract void doSolveBackward(CFG<Node> cfg, DataflowResult<Node, Fact> result);
@@ -0,0 +1,141 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2020-- Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2020-- Yue Li <yueli@nju.edu.cn>
+ * All rights reserved.
+ *
+ * Tai-e is only for educational and academic purposes,
+ * and any form of commercial use is disallowed.
+ * Distribution of Tai-e is disallowed without the approval.
+ */
+
+package pascal.taie.analysis.dataflow.solver;
+
+import pascal.taie.language.classes.JMethod;
+
+/**
+ * Statistics of solving a method, which are recorded if option "stats"
+ * of the analysis is true, and stored in the IR of the method with key
+ * {@link #KEY}. If a method is solved more than once, e.g., by several
+ * analyses, then the IR keeps the statistics of the last solving.
+ */
+public class SolverStatistics {
+
+    /**
+     * Key of the statistics stored in the IR.
+     */
+    public static final String KEY = "solver-stats";
+
+    /**
+     * Header of the CSV lines given by {@link #toCSV()}.
+     */
+    public static final String CSV_HEADER = "method,solver,nodes,visits," +
+            "rounds,meets,changes,nanos,allocated-bytes";
+
+    private final JMethod method;
+
+    private final String solver;
+
+    private final int nodes;
+
+    private final long visits;
+
+    private final long meets;
+
+    private final long changes;
+
+    private final long nanos;
+
+    private final long allocatedBytes;
+
+    SolverStatistics(JMethod method, String solver, int nodes, long visits,
+                     long meets, long changes, long nanos, long allocatedBytes) {
+        this.method = method;
+        this.solver = solver;
+        this.nodes = nodes;
+        this.visits = visits;
+        this.meets = meets;
+        this.changes = changes;
+        this.nanos = nanos;
+        this.allocatedBytes = allocatedBytes;
+    }
+
+    public JMethod getMethod() {
+        return method;
+    }
+
+    /**
+     * @return name of the solver class.
+     */
+    public String getSolver() {
+        return solver;
+    }
+
+    /**
+     * @return number of nodes of the CFG.
+     */
+    public int getNodes() {
+        return nodes;
+    }
+
+    /**
+     * @return number of times that the nodes (or blocks, for the block
+     * solver) are visited, i.e., the work-list pops of the work-list solvers.
+     */
+    public long getVisits() {
+        return visits;
+    }
+
+    /**
+     * @return average visits of the nodes except the boundary node, which
+     * equals the number of rounds of {@link IterativeSolver}.
+     */
+    public long getRounds() {
+        return nodes > 1 ? (visits + nodes - 2) / (nodes - 1) : 0;
+    }
+
+    /**
+     * @return number of meet operations.
+     */
+    public long getMeets() {
+        return meets;
+    }
+
+    /**
+     * @return number of visits which changed the facts.
+     */
+    public long getChanges() {
+        return changes;
+    }
+
+    /**
+     * @return wall time of the solving in nanoseconds.
+     */
+    public long getNanos() {
+        return nanos;
+    }
+
+    /**
+     * @return bytes allocated by the solving thread, or -1 if
+     * the JVM does not support measuring allocated bytes.
+     */
+    public long getAllocatedBytes() {
+        return allocatedBytes;
+    }
+
+    /**
+     * @return the statistics as a CSV line, see {@link #CSV_HEADER}.
+     */
+    public String toCSV() {
+        return String.format("\"%s\",%s,%d,%d,%d,%d,%d,%d,%d", method, solver,
+                nodes, visits, getRounds(), meets, changes, nanos, allocatedBytes);
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%s: %s, %d nodes, %d visits (%d rounds)," +
+                        " %d meets, %d changes, %.3fms, %d bytes", method, solver,
+                nodes, visits, getRounds(), meets, changes, nanos / 1e6, allocatedBytes);
+    }
+}
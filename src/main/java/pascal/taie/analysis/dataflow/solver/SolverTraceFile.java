@@ -0,0 +1,264 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2020-- Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2020-- Yue Li <yueli@nju.edu.cn>
+ * All rights reserved.
+ *
+ * Tai-e is only for educational and academic purposes,
+ * and any form of commercial use is disallowed.
+ * Distribution of Tai-e is disallowed without the approval.
+ */
+
+package pascal.taie.analysis.dataflow.solver;
+
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.IntStream;
+
+/**
+ * Reader and viewer of the solver trace files written by option "trace"
+ * of the data-flow solvers.
+ * <p>
+ * The layout of the file (in big-endian) is:
+ * <pre>
+ * header:  magic, version
+ * section: method, #nodes, #records of the solving, #records kept,
+ *          (node << 1 | changed, round, size before + 1, size after + 1)
+ *          of each kept record, from the oldest one
+ * </pre>
+ * Each section is the trace of a solving, where the method is written
+ * in modified UTF-8, and the other values are in variable-length format.
+ * The round of a record is the ordinal of the visit of its node in the
+ * solving, and the sizes are -1 if the facts are not sets.
+ */
+public class SolverTraceFile {
+
+    static final byte[] MAGIC = "TAIE-TRC".getBytes(StandardCharsets.US_ASCII);
+
+    static final int VERSION = 1;
+
+    /**
+     * Trace of a solving.
+     */
+    public static class Section {
+
+        private final String method;
+
+        private final int nodes;
+
+        private final long total;
+
+        private final int[] records;
+
+        private final int[] rounds;
+
+        private final int[] before;
+
+        private final int[] after;
+
+        private Section(String method, int nodes, long total, int size) {
+            this.method = method;
+            this.nodes = nodes;
+            this.total = total;
+            records = new int[size];
+            rounds = new int[size];
+            before = new int[size];
+            after = new int[size];
+        }
+
+        public String getMethod() {
+            return method;
+        }
+
+        /**
+         * @return number of nodes of the solved CFG.
+         */
+        public int getNumberOfNodes() {
+            return nodes;
+        }
+
+        /**
+         * @return number of records of the solving, including
+         * the ones which are dropped from the ring buffer.
+         */
+        public long getTotal() {
+            return total;
+        }
+
+        /**
+         * @return number of records kept in this section.
+         */
+        public int size() {
+            return records.length;
+        }
+
+        public int getNode(int i) {
+            return records[i] >>> 1;
+        }
+
+        public boolean isChanged(int i) {
+            return (records[i] & 1) != 0;
+        }
+
+        public int getRound(int i) {
+            return rounds[i];
+        }
+
+        public int getSizeBefore(int i) {
+            return before[i];
+        }
+
+        public int getSizeAfter(int i) {
+            return after[i];
+        }
+    }
+
+    private SolverTraceFile() {
+    }
+
+    /**
+     * Reads all sections of given trace file.
+     */
+    public static List<Section> read(Path path) throws IOException {
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(
+                Files.newInputStream(path), 1 << 16))) {
+            byte[] magic = new byte[MAGIC.length];
+            in.readFully(magic);
+            if (!Arrays.equals(magic, MAGIC) || in.readInt() != VERSION) {
+                throw new IOException("Not a solver trace file of version " + VERSION);
+            }
+            List<Section> sections = new ArrayList<>();
+            while (true) {
+                String method;
+                try {
+                    method = in.readUTF();
+                } catch (EOFException e) {
+                    return sections;
+                }
+                int nodes = (int) getVarLong(in);
+                long total = getVarLong(in);
+                Section section = new Section(method, nodes, total,
+                        (int) getVarLong(in));
+                for (int i = 0; i < section.size(); ++i) {
+                    section.records[i] = (int) getVarLong(in);
+                    section.rounds[i] = (int) getVarLong(in);
+                    section.before[i] = (int) getVarLong(in) - 1;
+                    section.after[i] = (int) getVarLong(in) - 1;
+                }
+                sections.add(section);
+            }
+        }
+    }
+
+    /**
+     * Reads a long written by {@link SolverTraceWriter}
+     * in variable-length format.
+     */
+    private static long getVarLong(DataInputStream in) throws IOException {
+        long result = 0;
+        for (int shift = 0; ; shift += 7) {
+            byte b = in.readByte();
+            result |= (long) (b & 0x7f) << shift;
+            if (b >= 0) {
+                return result;
+            }
+        }
+    }
+
+    /**
+     * Prints the summary of given section, i.e., the visits and changes
+     * of each round, the given number of nodes which change most often,
+     * and the last change of the solving.
+     * <p>
+     * For each hot node, the period is the average number of transfers
+     * between its consecutive visits, which approximates the length
+     * of the loop that keeps changing the node.
+     */
+    public static void summarize(Section section, int top, PrintStream out) {
+        out.printf("-------------------- %s --------------------%n",
+                section.getMethod());
+        out.printf("nodes: %d, records: %d (%d kept)%n", section.getNumberOfNodes(),
+                section.getTotal(), section.size());
+        int nodes = section.getNumberOfNodes();
+        int maxRound = 0;
+        for (int i = 0; i < section.size(); ++i) {
+            maxRound = Math.max(maxRound, section.getRound(i));
+        }
+        int[] roundVisits = new int[maxRound + 1];
+        int[] roundChanges = new int[maxRound + 1];
+        int[] visits = new int[nodes];
+        int[] changes = new int[nodes];
+        int[] first = new int[nodes];
+        int[] last = new int[nodes];
+        Arrays.fill(first, -1);
+        int lastChange = -1;
+        for (int i = 0; i < section.size(); ++i) {
+            int node = section.getNode(i);
+            ++roundVisits[section.getRound(i)];
+            ++visits[node];
+            if (first[node] < 0) {
+                first[node] = i;
+            }
+            last[node] = i;
+            if (section.isChanged(i)) {
+                ++roundChanges[section.getRound(i)];
+                ++changes[node];
+                lastChange = i;
+            }
+        }
+        for (int r = 1; r <= maxRound; ++r) {
+            if (roundVisits[r] > 0) {
+                out.printf("round %d: %d visits, %d changes%n",
+                        r, roundVisits[r], roundChanges[r]);
+            }
+        }
+        out.println("hot nodes:");
+        IntStream.range(0, nodes)
+                .filter(n -> changes[n] > 0)
+                .boxed()
+                .sorted(Comparator.<Integer>comparingInt(n -> -changes[n])
+                        .thenComparingInt(n -> -visits[n])
+                        .thenComparingInt(n -> n))
+                .limit(top)
+                .forEach(n -> out.printf(
+                        "  node %d: %d visits, %d changes, size %d -> %d, period %s%n",
+                        n, visits[n], changes[n],
+                        section.getSizeBefore(first[n]), section.getSizeAfter(last[n]),
+                        visits[n] > 1 ? String.format("%.1f",
+                                (double) (last[n] - first[n]) / (visits[n] - 1)) : "-"));
+        if (lastChange >= 0) {
+            out.printf("last change: node %d at round %d, size %d -> %d%n",
+                    section.getNode(lastChange), section.getRound(lastChange),
+                    section.getSizeBefore(lastChange), section.getSizeAfter(lastChange));
+        }
+        out.println();
+    }
+
+    /**
+     * Prints the summaries of the sections of a trace file.
+     * Usage: {@code SolverTraceFile <trace-file> [<#hot-nodes>]};
+     * 10 hot nodes are printed for each section by default.
+     */
+    public static void main(String[] args) throws IOException {
+        if (args.length < 1) {
+            System.err.println("Usage: SolverTraceFile <trace-file> [<#hot-nodes>]");
+            System.exit(1);
+        }
+        int top = args.length > 1 ? Integer.parseInt(args[1]) : 10;
+        for (Section section : read(Path.of(args[0]))) {
+            summarize(section, top, System.out);
+        }
+        System.out.flush();
+    }
+}
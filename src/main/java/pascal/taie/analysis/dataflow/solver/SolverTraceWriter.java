@@ -0,0 +1,186 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2020-- Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2020-- Yue Li <yueli@nju.edu.cn>
+ * All rights reserved.
+ *
+ * Tai-e is only for educational and academic purposes,
+ * and any form of commercial use is disallowed.
+ * Distribution of Tai-e is disallowed without the approval.
+ */
+
+package pascal.taie.analysis.dataflow.solver;
+
+import pascal.taie.language.classes.JMethod;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.regex.Pattern;
+
+/**
+ * Writes the traces of solving in the format of {@link SolverTraceFile}.
+ * The transfers of a solving are recorded in a preallocated {@link Ring}
+ * of the solving thread, which keeps the latest records if the solving
+ * takes more transfers than its capacity, and the ring is appended to
+ * the file as a section when the solving finishes.
+ */
+class SolverTraceWriter {
+
+    private final Path path;
+
+    private final int capacity;
+
+    /**
+     * Pattern of the signatures of the traced methods,
+     * or null if all methods are traced.
+     */
+    private final Pattern methods;
+
+    /**
+     * Creates a writer which truncates given file and writes the header.
+     *
+     * @param capacity maximum number of records kept for each solving
+     * @param methods  pattern of the traced methods, null for all methods
+     */
+    SolverTraceWriter(Path path, int capacity, Pattern methods) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException(
+                    "Capacity of solver trace must be positive: " + capacity);
+        }
+        this.path = path;
+        this.capacity = capacity;
+        this.methods = methods;
+        try {
+            Path dir = path.toAbsolutePath().getParent();
+            if (dir != null) {
+                Files.createDirectories(dir);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to open solver trace " + path, e);
+        }
+        try (DataOutputStream out = new DataOutputStream(Files.newOutputStream(path))) {
+            out.write(SolverTraceFile.MAGIC);
+            out.writeInt(SolverTraceFile.VERSION);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to open solver trace " + path, e);
+        }
+    }
+
+    /**
+     * @return true if the solving of given method should be traced.
+     */
+    boolean accepts(JMethod method) {
+        return methods == null ||
+                methods.matcher(String.valueOf(method)).find();
+    }
+
+    Ring newRing() {
+        return new Ring(capacity);
+    }
+
+    /**
+     * Appends the records of given ring as the section of given method.
+     */
+    synchronized void write(String method, int nodes, Ring ring) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(
+                64 + 8 * ring.size());
+        DataOutputStream out = new DataOutputStream(bytes);
+        try {
+            out.writeUTF(method);
+            putVarLong(out, nodes);
+            putVarLong(out, ring.total);
+            putVarLong(out, ring.size());
+            // records are written from the oldest one
+            int start = ring.total > ring.capacity() ?
+                    (int) (ring.total % ring.capacity()) : 0;
+            for (int i = 0; i < ring.size(); ++i) {
+                int r = (start + i) % ring.capacity();
+                putVarLong(out, ring.nodes[r]);
+                putVarLong(out, ring.rounds[r]);
+                putVarLong(out, ring.before[r] + 1L);
+                putVarLong(out, ring.after[r] + 1L);
+            }
+            Files.write(path, bytes.toByteArray(), StandardOpenOption.APPEND);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to write solver trace " + path, e);
+        }
+    }
+
+    /**
+     * Writes a non-negative long in variable-length format,
+     * i.e., 7 bits per byte, and the highest bit means that
+     * more bytes follow.
+     */
+    private static void putVarLong(DataOutputStream out, long value)
+            throws IOException {
+        while ((value & ~0x7fL) != 0) {
+            out.write((int) ((value & 0x7f) | 0x80));
+            value >>>= 7;
+        }
+        out.write((int) value);
+    }
+
+    /**
+     * Preallocated ring buffer of the transfer records of a solving.
+     * Each record is (node index and whether the transfer changes the
+     * fact, visit ordinal of the node, fact sizes before and after the
+     * transfer), and the record is overwritten by the ones after
+     * {@link #capacity()} records.
+     */
+    static class Ring {
+
+        /**
+         * Node indexes shifted left by one, with the lowest bit set
+         * if the transfer changes the fact.
+         */
+        private final int[] nodes;
+
+        private final int[] rounds;
+
+        private final int[] before;
+
+        private final int[] after;
+
+        /**
+         * Number of records added since the last {@link #clear()}.
+         */
+        private long total;
+
+        private Ring(int capacity) {
+            nodes = new int[capacity];
+            rounds = new int[capacity];
+            before = new int[capacity];
+            after = new int[capacity];
+        }
+
+        void add(int node, int round, int sizeBefore, int sizeAfter,
+                 boolean changed) {
+            int r = (int) (total++ % nodes.length);
+            nodes[r] = node << 1 | (changed ? 1 : 0);
+            rounds[r] = round;
+            before[r] = sizeBefore;
+            after[r] = sizeAfter;
+        }
+
+        void clear() {
+            total = 0;
+        }
+
+        int capacity() {
+            return nodes.length;
+        }
+
+        /**
+         * @return number of records kept in this ring.
+         */
+        int size() {
+            return (int) Math.min(total, nodes.length);
+        }
+    }
+}
@@ -0,0 +1,99 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2020-- Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2020-- Yue Li <yueli@nju.edu.cn>
+ * All rights reserved.
+ *
+ * Tai-e is only for educational and academic purposes,
+ * and any form of commercial use is disallowed.
+ * Distribution of Tai-e is disallowed without the approval.
+ */
+
+package pascal.taie.analysis.dataflow.solver;
+
+import pascal.taie.analysis.dataflow.analysis.DataflowAnalysis;
+import pascal.taie.analysis.dataflow.fact.DataflowResult;
+import pascal.taie.analysis.dataflow.fact.IndexedDataflowResult;
+import pascal.taie.analysis.graph.cfg.CFG;
+import pascal.taie.analysis.graph.cfg.IndexedCFG;
+import pascal.taie.util.graph.ReversePostOrder;
+
+
+/**
+ * Work-list solver which only revisits the nodes whose input facts
+ * may have changed. The work-list is prioritized by the reverse
+ * postorder of the CFG (in the direction of the analysis), so that
+ * the nodes of a loop body are visited before the nodes after the loop.
+ */
+class WorklistSolver<Node, Fact> extends Solver<Node, Fact> {
+
+    WorklistSolver(DataflowAnalysis<Node, Fact> analysis) {
+        super(analysis);
+    }
+
+    @Override
+    protected void doSolveForward(CFG<Node> cfg, DataflowResult<Node, Fact> result) {
+        IndexedCFG<Node> g = IndexedCFG.of(cfg);
+        IndexedDataflowResult<Node, Fact> r = (IndexedDataflowResult<Node, Fact>) result;
+        int[] order = ReversePostOrder.compute(g, g.getIndex(cfg.getEntry()), false);
+        int[] priorities = computePriorities(order);
+        PriorityWorkList workList = initWorkList(order);
+        for (int p = workList.poll(); p >= 0; p = workList.poll()) {
+            int node = order[p];
+            Fact in = r.getInFact(node);
+            for (int k = 0; k < g.predCount(node); ++k) {
+                Fact predOut = r.getOutFact(g.predAt(node, k));
+                analysis.meetInto(getFlowingFact(cfg, r, g.inEdgeAt(node, k),
+                        g.getInEdgeIndex(node, k), predOut), in);
+            }
+            if (analysis.transferNode(g.getNode(node), in, r.getOutFact(node))) {
+                for (int k = 0; k < g.succCount(node); ++k) {
+                    workList.add(priorities[g.succAt(node, k)]);
+                }
+            }
+        }
+    }
+
+    @Override
+    protected void doSolveBackward(CFG<Node> cfg, DataflowResult<Node, Fact> result) {
+        IndexedCFG<Node> g = IndexedCFG.of(cfg);
+        IndexedDataflowResult<Node, Fact> r = (IndexedDataflowResult<Node, Fact>) result;
+        int[] order = ReversePostOrder.compute(g, g.getIndex(cfg.getExit()), true);
+        int[] priorities = computePriorities(order);
+        PriorityWorkList workList = initWorkList(order);
+        for (int p = workList.poll(); p >= 0; p = workList.poll()) {
+            int node = order[p];
+            Fact out = r.getOutFact(node);
+            for (int k = 0; k < g.succCount(node); ++k) {
+                Fact succIn = r.getInFact(g.succAt(node, k));
+                analysis.meetInto(getFlowingFact(cfg, r, g.outEdgeAt(node, k),
+                        g.getOutEdgeIndex(node, k), succIn), out);
+            }
+            if (analysis.transferNode(g.getNode(node), r.getInFact(node), out)) {
+                for (int k = 0; k < g.predCount(node); ++k) {
+                    workList.add(priorities[g.predAt(node, k)]);
+                }
+            }
+        }
+    }
+
+    private static int[] computePriorities(int[] order) {
+        int[] priorities = new int[order.length];
+        for (int i = 0; i < order.length; ++i) {
+            priorities[order[i]] = i;
+        }
+        return priorities;
+    }
+
+    /**
+     * @return a work-list which contains all nodes except the boundary node.
+     * The boundary node is the root of the depth-first search, so it is
+     * always the first node in reverse postorder.
+     */
+    private static PriorityWorkList initWorkList(int[] order) {
+        PriorityWorkList workList = new PriorityWorkList(order.length);
+        workList.addRange(1, order.length);
+        return workList;
+    }
+}
@@ -0,0 +1,65 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2020-- Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2020-- Yue Li <yueli@nju.edu.cn>
+ * All rights reserved.
+ *
+ * Tai-e is only for educational and academic purposes,
+ * and any form of commercial use is disallowed.
+ * Distribution of Tai-e is disallowed without the approval.
+ */
+
+package pascal.taie.analysis.graph.cfg;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Representation of a basic block, i.e., a maximal sequence of CFG nodes
+ * which can only be entered at the first node and left at the last node.
+ *
+ * @param <N> type of CFG nodes
+ */
+public class BasicBlock<N> {
+
+    private final int index;
+
+    private final List<N> nodes;
+
+    BasicBlock(int index, List<N> nodes) {
+        this.index = index;
+        this.nodes = Collections.unmodifiableList(nodes);
+    }
+
+    /**
+     * @return the index of this block in its {@link BlockGraph}.
+     */
+    public int getIndex() {
+        return index;
+    }
+
+    /**
+     * @return the nodes of this block in execution order.
+     */
+    public List<N> getNodes() {
+        return nodes;
+    }
+
+    public N getFirst() {
+        return nodes.get(0);
+    }
+
+    public N getLast() {
+        return nodes.get(nodes.size() - 1);
+    }
+
+    public int size() {
+        return nodes.size();
+    }
+
+    @Override
+    public String toString() {
+        return "B" + index + nodes;
+    }
+}
@@ -0,0 +1,238 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2020-- Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2020-- Yue Li <yueli@nju.edu.cn>
+ * All rights reserved.
+ *
+ * Tai-e is only for educational and academic purposes,
+ * and any form of commercial use is disallowed.
+ * Distribution of Tai-e is disallowed without the approval.
+ */
+
+package pascal.taie.analysis.graph.cfg;
+
+import pascal.taie.util.collection.Maps;
+import pascal.taie.util.graph.IndexedGraph;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+/**
+ * Basic-block view of a CFG, whose nodes are the {@link BasicBlock}s
+ * of the CFG. The entry and exit nodes of the CFG are always put in
+ * their own (singleton) blocks. The blocks are indexed by
+ * {@link BasicBlock#getIndex()}, and the edges between blocks
+ * are stored in compressed sparse row format.
+ *
+ * @param <N> type of CFG nodes
+ */
+public class BlockGraph<N> implements IndexedGraph<BasicBlock<N>> {
+
+    private final CFG<N> cfg;
+
+    private final List<BasicBlock<N>> blocks = new ArrayList<>();
+
+    private final Map<N, BasicBlock<N>> blockOf;
+
+    /**
+     * Position of each node in its block.
+     */
+    private final Map<N, Integer> positions;
+
+    private final int[] succOffsets;
+
+    private final int[] succs;
+
+    private final int[] predOffsets;
+
+    private final int[] preds;
+
+    public BlockGraph(CFG<N> cfg) {
+        this.cfg = cfg;
+        blockOf = Maps.newMap(cfg.getNumberOfNodes());
+        positions = Maps.newMap(cfg.getNumberOfNodes());
+        // build the blocks which start at leaders first, then build the
+        // blocks for the remaining nodes, which form isolated cycles
+        for (N node : cfg) {
+            if (isLeader(node)) {
+                buildBlock(node);
+            }
+        }
+        for (N node : cfg) {
+            if (!blockOf.containsKey(node)) {
+                buildBlock(node);
+            }
+        }
+        int size = blocks.size();
+        int[][] succLists = new int[size][];
+        int[][] predLists = new int[size][];
+        for (BasicBlock<N> block : blocks) {
+            succLists[block.getIndex()] = cfg.succsOf(block.getLast())
+                    .mapToInt(n -> blockOf.get(n).getIndex())
+                    .distinct()
+                    .toArray();
+            predLists[block.getIndex()] = cfg.predsOf(block.getFirst())
+                    .mapToInt(n -> blockOf.get(n).getIndex())
+                    .distinct()
+                    .toArray();
+        }
+        succOffsets = new int[size + 1];
+        predOffsets = new int[size + 1];
+        for (int i = 0; i < size; ++i) {
+            succOffsets[i + 1] = succOffsets[i] + succLists[i].length;
+            predOffsets[i + 1] = predOffsets[i] + predLists[i].length;
+        }
+        succs = new int[succOffsets[size]];
+        preds = new int[predOffsets[size]];
+        for (int i = 0; i < size; ++i) {
+            System.arraycopy(succLists[i], 0, succs, succOffsets[i], succLists[i].length);
+            System.arraycopy(predLists[i], 0, preds, predOffsets[i], predLists[i].length);
+        }
+    }
+
+    private boolean isLeader(N node) {
+        if (cfg.isEntry(node) || cfg.isExit(node)) {
+            return true;
+        }
+        List<N> preds = cfg.predsOf(node).distinct().toList();
+        if (preds.size() != 1) {
+            return true;
+        }
+        N pred = preds.get(0);
+        return pred.equals(node) || cfg.isEntry(pred) ||
+                cfg.succsOf(pred).distinct().count() != 1;
+    }
+
+    private void buildBlock(N leader) {
+        List<N> nodes = new ArrayList<>();
+        nodes.add(leader);
+        if (!cfg.isEntry(leader) && !cfg.isExit(leader)) {
+            N last = leader;
+            while (true) {
+                List<N> succs = cfg.succsOf(last).distinct().toList();
+                if (succs.size() != 1) {
+                    break;
+                }
+                N succ = succs.get(0);
+                // a non-leader has a unique predecessor, thus the chain
+                // can only come back to the leader of an isolated cycle
+                if (isLeader(succ) || succ.equals(leader)) {
+                    break;
+                }
+                nodes.add(succ);
+                last = succ;
+            }
+        }
+        BasicBlock<N> block = new BasicBlock<>(blocks.size(), nodes);
+        blocks.add(block);
+        for (int i = 0; i < nodes.size(); ++i) {
+            blockOf.put(nodes.get(i), block);
+            positions.put(nodes.get(i), i);
+        }
+    }
+
+    /**
+     * @return the CFG of this block graph.
+     */
+    public CFG<N> getCFG() {
+        return cfg;
+    }
+
+    /**
+     * @return the block containing the entry node of the CFG.
+     */
+    public BasicBlock<N> getEntryBlock() {
+        return blockOf.get(cfg.getEntry());
+    }
+
+    /**
+     * @return the block containing the exit node of the CFG.
+     */
+    public BasicBlock<N> getExitBlock() {
+        return blockOf.get(cfg.getExit());
+    }
+
+    /**
+     * @return the block containing given node.
+     */
+    public BasicBlock<N> getBlockOf(N node) {
+        return blockOf.get(node);
+    }
+
+    /**
+     * @return the position of given node in its block.
+     */
+    public int getPositionOf(N node) {
+        return positions.get(node);
+    }
+
+    @Override
+    public int getIndex(BasicBlock<N> block) {
+        return block.getIndex();
+    }
+
+    @Override
+    public BasicBlock<N> getNode(int index) {
+        return blocks.get(index);
+    }
+
+    @Override
+    public int succCount(int index) {
+        return succOffsets[index + 1] - succOffsets[index];
+    }
+
+    @Override
+    public int succAt(int index, int k) {
+        return succs[succOffsets[index] + k];
+    }
+
+    @Override
+    public int predCount(int index) {
+        return predOffsets[index + 1] - predOffsets[index];
+    }
+
+    @Override
+    public int predAt(int index, int k) {
+        return preds[predOffsets[index] + k];
+    }
+
+    @Override
+    public boolean hasNode(BasicBlock<N> block) {
+        return block.getIndex() < blocks.size() &&
+                blocks.get(block.getIndex()) == block;
+    }
+
+    @Override
+    public boolean hasEdge(BasicBlock<N> source, BasicBlock<N> target) {
+        return cfg.hasEdge(source.getLast(), target.getFirst());
+    }
+
+    @Override
+    public Stream<BasicBlock<N>> predsOf(BasicBlock<N> block) {
+        int i = block.getIndex();
+        return IntStream.range(predOffsets[i], predOffsets[i + 1])
+                .mapToObj(p -> blocks.get(preds[p]));
+    }
+
+    @Override
+    public Stream<BasicBlock<N>> succsOf(BasicBlock<N> block) {
+        int i = block.getIndex();
+        return IntStream.range(succOffsets[i], succOffsets[i + 1])
+                .mapToObj(p -> blocks.get(succs[p]));
+    }
+
+    @Override
+    public Stream<BasicBlock<N>> nodes() {
+        return Collections.unmodifiableList(blocks).stream();
+    }
+
+    @Override
+    public int getNumberOfNodes() {
+        return blocks.size();
+    }
+}
@@ -0,0 +1,355 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2020-- Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2020-- Yue Li <yueli@nju.edu.cn>
+ * All rights reserved.
+ *
+ * Tai-e is only for educational and academic purposes,
+ * and any form of commercial use is disallowed.
+ * Distribution of Tai-e is disallowed without the approval.
+ */
+
+package pascal.taie.analysis.graph.cfg;
+
+import pascal.taie.ir.IR;
+import pascal.taie.ir.stmt.Stmt;
+import pascal.taie.language.classes.JMethod;
+import pascal.taie.util.collection.Maps;
+import pascal.taie.util.graph.IndexedGraph;
+import pascal.taie.util.graph.TopologicalOrder;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+/**
+ * A frozen copy of a CFG, whose edges are stored in compressed sparse
+ * row (CSR) format, i.e., the successors (predecessors) of all nodes are
+ * kept in one int array, and the successors of node i are at positions
+ * [succOffsets[i], succOffsets[i + 1]) of the array.
+ * <p>
+ * For the CFGs of statements, the statements of the IR are indexed by
+ * {@link Stmt#getIndex()}, and the entry and exit nodes are given the
+ * two indexes after the last statement. Nodes of other CFGs are indexed
+ * in the iteration order of the CFG.
+ * <p>
+ * The stream-based methods of {@link CFG} are adapters over the arrays.
+ *
+ * @param <N> type of CFG nodes
+ */
+public class IndexedCFG<N> implements CFG<N>, IndexedGraph<N> {
+
+    /**
+     * Key of the indexed CFG stored in the IR.
+     */
+    private static final String KEY = "indexed-cfg";
+
+    private final CFG<N> cfg;
+
+    private final N entry;
+
+    private final N exit;
+
+    /**
+     * Index of the entry node. If the nodes are indexed by
+     * {@link Stmt#getIndex()}, then the index of exit node is entryIndex + 1.
+     */
+    private final int entryIndex;
+
+    /**
+     * Map from nodes to indexes, which is null if the nodes
+     * are indexed by {@link Stmt#getIndex()}.
+     */
+    private final Map<N, Integer> indexes;
+
+    private final N[] nodes;
+
+    private final int[] succOffsets;
+
+    private final int[] succs;
+
+    private final Edge<N>[] outEdges;
+
+    private final int[] predOffsets;
+
+    private final int[] preds;
+
+    private final Edge<N>[] inEdges;
+
+    /**
+     * Edge indexes (i.e., positions in {@link #outEdges}) of the
+     * incoming edges, which are aligned with {@link #preds}.
+     */
+    private final int[] inEdgeIndexes;
+
+    /**
+     * Topological order of the nodes, which is computed on demand.
+     * {@link #CYCLIC} means that this CFG contains cycles.
+     */
+    private int[] topologicalOrder;
+
+    private static final int[] CYCLIC = new int[0];
+
+    @SuppressWarnings("unchecked")
+    private IndexedCFG(CFG<N> cfg) {
+        this.cfg = cfg;
+        this.entry = cfg.getEntry();
+        this.exit = cfg.getExit();
+        int size = cfg.getNumberOfNodes();
+        nodes = (N[]) new Object[size];
+        IR ir = cfg.getIR();
+        if (entry instanceof Stmt && size == ir.getStmts().size() + 2) {
+            entryIndex = size - 2;
+            indexes = null;
+            for (int i = 0; i < entryIndex; ++i) {
+                nodes[i] = (N) ir.getStmt(i);
+            }
+            nodes[entryIndex] = entry;
+            nodes[entryIndex + 1] = exit;
+        } else {
+            indexes = Maps.newMap(size);
+            int i = 0;
+            for (N node : cfg) {
+                nodes[i] = node;
+                indexes.put(node, i++);
+            }
+            entryIndex = indexes.get(entry);
+        }
+        // successors are taken from the outgoing edges of each node,
+        // and predecessors are obtained by transposing the successors
+        succOffsets = new int[size + 1];
+        Edge<N>[][] outs = new Edge[size][];
+        for (int i = 0; i < size; ++i) {
+            outs[i] = cfg.outEdgesOf(nodes[i]).toArray(Edge[]::new);
+            succOffsets[i + 1] = succOffsets[i] + outs[i].length;
+        }
+        int numberOfEdges = succOffsets[size];
+        succs = new int[numberOfEdges];
+        outEdges = new Edge[numberOfEdges];
+        predOffsets = new int[size + 1];
+        for (int i = 0; i < size; ++i) {
+            for (int k = 0; k < outs[i].length; ++k) {
+                int target = getIndex(outs[i][k].getTarget());
+                outEdges[succOffsets[i] + k] = outs[i][k];
+                succs[succOffsets[i] + k] = target;
+                ++predOffsets[target + 1];
+            }
+        }
+        for (int i = 0; i < size; ++i) {
+            predOffsets[i + 1] += predOffsets[i];
+        }
+        preds = new int[numberOfEdges];
+        inEdgeIndexes = new int[numberOfEdges];
+        inEdges = new Edge[numberOfEdges];
+        int[] filled = new int[size];
+        for (int i = 0; i < size; ++i) {
+            for (int p = succOffsets[i]; p < succOffsets[i + 1]; ++p) {
+                int target = succs[p];
+                int q = predOffsets[target] + filled[target]++;
+                preds[q] = i;
+                inEdgeIndexes[q] = p;
+                inEdges[q] = outEdges[p];
+            }
+        }
+    }
+
+    /**
+     * @return the indexed CFG of given CFG. The indexed CFG is built once
+     * and stored in the IR of the CFG.
+     */
+    public static <N> IndexedCFG<N> of(CFG<N> cfg) {
+        if (cfg instanceof IndexedCFG) {
+            return (IndexedCFG<N>) cfg;
+        }
+        IR ir = cfg.getIR();
+        IndexedCFG<N> indexed = ir.getResult(KEY);
+        if (indexed == null || indexed.cfg != cfg) {
+            indexed = new IndexedCFG<>(cfg);
+            ir.storeResult(KEY, indexed);
+        }
+        return indexed;
+    }
+
+    @Override
+    public int getIndex(N node) {
+        if (indexes != null) {
+            return indexes.get(node);
+        } else if (node == entry) {
+            return entryIndex;
+        } else if (node == exit) {
+            return entryIndex + 1;
+        } else {
+            return ((Stmt) node).getIndex();
+        }
+    }
+
+    @Override
+    public N getNode(int index) {
+        return nodes[index];
+    }
+
+    @Override
+    public int succCount(int index) {
+        return succOffsets[index + 1] - succOffsets[index];
+    }
+
+    @Override
+    public int succAt(int index, int k) {
+        return succs[succOffsets[index] + k];
+    }
+
+    @Override
+    public int predCount(int index) {
+        return predOffsets[index + 1] - predOffsets[index];
+    }
+
+    @Override
+    public int predAt(int index, int k) {
+        return preds[predOffsets[index] + k];
+    }
+
+    /**
+     * @return the k-th outgoing edge of the node of given index, which
+     * leads to successor {@link #succAt(int, int)} with the same arguments.
+     */
+    public Edge<N> outEdgeAt(int index, int k) {
+        return outEdges[succOffsets[index] + k];
+    }
+
+    /**
+     * @return the k-th incoming edge of the node of given index, which
+     * comes from predecessor {@link #predAt(int, int)} with the same arguments.
+     */
+    public Edge<N> inEdgeAt(int index, int k) {
+        return inEdges[predOffsets[index] + k];
+    }
+
+    /**
+     * @return the position of the k-th outgoing edge of the node of given
+     * index among all edges, i.e., a dense index of the edge.
+     */
+    public int getOutEdgeIndex(int index, int k) {
+        return succOffsets[index] + k;
+    }
+
+    /**
+     * @return the edge index of the k-th incoming edge of the node of
+     * given index, see {@link #getOutEdgeIndex(int, int)}.
+     */
+    public int getInEdgeIndex(int index, int k) {
+        return inEdgeIndexes[predOffsets[index] + k];
+    }
+
+    /**
+     * @return the indexes of the nodes in topological order if this CFG
+     * is acyclic, otherwise null.
+     */
+    public int[] getTopologicalOrder() {
+        if (topologicalOrder == null) {
+            int[] order = TopologicalOrder.compute(this);
+            topologicalOrder = order != null ? order : CYCLIC;
+        }
+        return topologicalOrder != CYCLIC ? topologicalOrder : null;
+    }
+
+    /**
+     * @return the number of edges in this CFG.
+     */
+    public int getNumberOfEdges() {
+        return outEdges.length;
+    }
+
+    @Override
+    public IR getIR() {
+        return cfg.getIR();
+    }
+
+    @Override
+    public JMethod getMethod() {
+        return cfg.getMethod();
+    }
+
+    @Override
+    public N getEntry() {
+        return entry;
+    }
+
+    @Override
+    public N getExit() {
+        return exit;
+    }
+
+    @Override
+    public boolean isEntry(N node) {
+        return node == entry;
+    }
+
+    @Override
+    public boolean isExit(N node) {
+        return node == exit;
+    }
+
+    @Override
+    public Stream<Edge<N>> inEdgesOf(N node) {
+        int i = getIndex(node);
+        return Arrays.stream(inEdges, predOffsets[i], predOffsets[i + 1]);
+    }
+
+    @Override
+    public Stream<Edge<N>> outEdgesOf(N node) {
+        int i = getIndex(node);
+        return Arrays.stream(outEdges, succOffsets[i], succOffsets[i + 1]);
+    }
+
+    @Override
+    public boolean hasNode(N node) {
+        if (indexes != null) {
+            return indexes.containsKey(node);
+        }
+        int i = getIndex(node);
+        return 0 <= i && i < nodes.length && nodes[i] == node;
+    }
+
+    @Override
+    public boolean hasEdge(N source, N target) {
+        int s = getIndex(source);
+        int t = getIndex(target);
+        for (int k = 0; k < succCount(s); ++k) {
+            if (succAt(s, k) == t) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    @Override
+    public Stream<N> predsOf(N node) {
+        int i = getIndex(node);
+        return IntStream.range(predOffsets[i], predOffsets[i + 1])
+                .mapToObj(p -> nodes[preds[p]]);
+    }
+
+    @Override
+    public Stream<N> succsOf(N node) {
+        int i = getIndex(node);
+        return IntStream.range(succOffsets[i], succOffsets[i + 1])
+                .mapToObj(p -> nodes[succs[p]]);
+    }
+
+    @Override
+    public Stream<N> nodes() {
+        return Arrays.stream(nodes);
+    }
+
+    @Override
+    public int getNumberOfNodes() {
+        return nodes.length;
+    }
+
+    @Override
+    public String toString() {
+        return cfg.toString();
+    }
+}
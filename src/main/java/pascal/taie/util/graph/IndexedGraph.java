@@ -0,0 +1,53 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2020-- Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2020-- Yue Li <yueli@nju.edu.cn>
+ * All rights reserved.
+ *
+ * Tai-e is only for educational and academic purposes,
+ * and any form of commercial use is disallowed.
+ * Distribution of Tai-e is disallowed without the approval.
+ */
+
+package pascal.taie.util.graph;
+
+/**
+ * A graph whose nodes are numbered by dense indexes from 0 to
+ * {@link #getNumberOfNodes()} - 1, and whose edges can be traversed
+ * through the indexes without creating streams or other objects.
+ *
+ * @param <N> type of nodes
+ */
+public interface IndexedGraph<N> extends Graph<N> {
+
+    /**
+     * @return the index of given node.
+     */
+    int getIndex(N node);
+
+    /**
+     * @return the node of given index.
+     */
+    N getNode(int index);
+
+    /**
+     * @return the number of successors of the node of given index.
+     */
+    int succCount(int index);
+
+    /**
+     * @return the index of the k-th successor of the node of given index.
+     */
+    int succAt(int index, int k);
+
+    /**
+     * @return the number of predecessors of the node of given index.
+     */
+    int predCount(int index);
+
+    /**
+     * @return the index of the k-th predecessor of the node of given index.
+     */
+    int predAt(int index, int k);
+}
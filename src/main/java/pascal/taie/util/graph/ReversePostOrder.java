@@ -0,0 +1,77 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2020-- Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2020-- Yue Li <yueli@nju.edu.cn>
+ * All rights reserved.
+ *
+ * Tai-e is only for educational and academic purposes,
+ * and any form of commercial use is disallowed.
+ * Distribution of Tai-e is disallowed without the approval.
+ */
+
+package pascal.taie.util.graph;
+
+/**
+ * Computes reverse postorder of the nodes of a graph by depth-first search.
+ * The search is iterative, so that it also works for very large graphs.
+ */
+public final class ReversePostOrder {
+
+    private ReversePostOrder() {
+    }
+
+    /**
+     * Computes reverse postorder of given graph starting from given root.
+     * The nodes that are not reachable from root (e.g., the nodes in
+     * infinite loops for backward search) are placed after the others.
+     *
+     * @param graph    the graph to be traversed
+     * @param root     index of the node where the depth-first search starts
+     * @param backward if true, then the search follows the edges backward,
+     *                 i.e., from a node to its predecessors
+     * @return the indexes of the nodes in reverse postorder.
+     */
+    public static int[] compute(IndexedGraph<?> graph, int root, boolean backward) {
+        int size = graph.getNumberOfNodes();
+        int[] order = new int[size];
+        int filled = 0;
+        boolean[] visited = new boolean[size];
+        int[] postOrder = new int[size];
+        int[] nodeStack = new int[size];
+        int[] nextStack = new int[size];
+        // start from root first, then from the nodes unreachable from root
+        for (int start = -1; start < size; ++start) {
+            int begin = start < 0 ? root : start;
+            if (visited[begin]) {
+                continue;
+            }
+            int postSize = 0;
+            visited[begin] = true;
+            int top = 0;
+            nodeStack[0] = begin;
+            nextStack[0] = 0;
+            while (top >= 0) {
+                int node = nodeStack[top];
+                int count = backward ? graph.predCount(node) : graph.succCount(node);
+                if (nextStack[top] < count) {
+                    int k = nextStack[top]++;
+                    int next = backward ? graph.predAt(node, k) : graph.succAt(node, k);
+                    if (!visited[next]) {
+                        visited[next] = true;
+                        ++top;
+                        nodeStack[top] = next;
+                        nextStack[top] = 0;
+                    }
+                } else {
+                    postOrder[postSize++] = node;
+                    --top;
+                }
+            }
+            for (int i = postSize - 1; i >= 0; --i) {
+                order[filled++] = postOrder[i];
+            }
+        }
+        return order;
+    }
+}
@@ -0,0 +1,119 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2020-- Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2020-- Yue Li <yueli@nju.edu.cn>
+ * All rights reserved.
+ *
+ * Tai-e is only for educational and academic purposes,
+ * and any form of commercial use is disallowed.
+ * Distribution of Tai-e is disallowed without the approval.
+ */
+
+package pascal.taie.util.graph;
+
+import pascal.taie.util.collection.Maps;
+import pascal.taie.util.collection.Sets;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Computes strongly connected components (SCCs) of a graph by Tarjan's
+ * algorithm. The algorithm is implemented iteratively, so that it also
+ * works for very large graphs.
+ *
+ * @param <N> type of nodes
+ */
+public class SCC<N> {
+
+    private final Graph<N> graph;
+
+    private final List<List<N>> components = new ArrayList<>();
+
+    private final Map<N, Integer> indexes;
+
+    private final Map<N, Integer> lowLinks;
+
+    private final Deque<N> stack = new ArrayDeque<>();
+
+    private final Set<N> onStack;
+
+    private int index = 0;
+
+    public SCC(Graph<N> graph) {
+        this.graph = graph;
+        indexes = Maps.newMap(graph.getNumberOfNodes());
+        lowLinks = Maps.newMap(graph.getNumberOfNodes());
+        onStack = Sets.newSet(graph.getNumberOfNodes());
+        for (N node : graph) {
+            if (!indexes.containsKey(node)) {
+                strongConnect(node);
+            }
+        }
+    }
+
+    private void strongConnect(N root) {
+        Deque<N> callStack = new ArrayDeque<>();
+        Deque<Iterator<N>> iterStack = new ArrayDeque<>();
+        visit(root, callStack, iterStack);
+        while (!callStack.isEmpty()) {
+            N node = callStack.peek();
+            Iterator<N> iter = iterStack.peek();
+            if (iter.hasNext()) {
+                N succ = iter.next();
+                if (!indexes.containsKey(succ)) {
+                    visit(succ, callStack, iterStack);
+                } else if (onStack.contains(succ)) {
+                    lowLinks.put(node, Math.min(lowLinks.get(node), indexes.get(succ)));
+                }
+            } else {
+                callStack.pop();
+                iterStack.pop();
+                if (!callStack.isEmpty()) {
+                    N caller = callStack.peek();
+                    lowLinks.put(caller, Math.min(lowLinks.get(caller), lowLinks.get(node)));
+                }
+                if (lowLinks.get(node).equals(indexes.get(node))) {
+                    collectComponent(node);
+                }
+            }
+        }
+    }
+
+    private void visit(N node, Deque<N> callStack, Deque<Iterator<N>> iterStack) {
+        indexes.put(node, index);
+        lowLinks.put(node, index);
+        ++index;
+        stack.push(node);
+        onStack.add(node);
+        callStack.push(node);
+        iterStack.push(graph.succsOf(node).iterator());
+    }
+
+    private void collectComponent(N root) {
+        List<N> component = new ArrayList<>();
+        N node;
+        do {
+            node = stack.pop();
+            onStack.remove(node);
+            component.add(node);
+        } while (!node.equals(root));
+        component = Collections.unmodifiableList(component);
+        components.add(component);
+    }
+
+    /**
+     * @return all SCCs of the graph in reverse topological order, i.e.,
+     * each SCC comes after all SCCs that are reachable from it.
+     */
+    public List<List<N>> getComponents() {
+        return Collections.unmodifiableList(components);
+    }
+}
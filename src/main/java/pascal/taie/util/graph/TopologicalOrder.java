@@ -0,0 +1,53 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2020-- Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2020-- Yue Li <yueli@nju.edu.cn>
+ * All rights reserved.
+ *
+ * Tai-e is only for educational and academic purposes,
+ * and any form of commercial use is disallowed.
+ * Distribution of Tai-e is disallowed without the approval.
+ */
+
+package pascal.taie.util.graph;
+
+/**
+ * Computes topological order of the nodes of an acyclic graph
+ * by Kahn's algorithm.
+ */
+public final class TopologicalOrder {
+
+    private TopologicalOrder() {
+    }
+
+    /**
+     * @return the indexes of the nodes of given graph in topological order,
+     * i.e., each node is placed before its successors, or null if the graph
+     * contains cycles (including self-loops).
+     */
+    public static int[] compute(IndexedGraph<?> graph) {
+        int size = graph.getNumberOfNodes();
+        int[] inDegrees = new int[size];
+        int[] order = new int[size];
+        int tail = 0;
+        for (int i = 0; i < size; ++i) {
+            inDegrees[i] = graph.predCount(i);
+            if (inDegrees[i] == 0) {
+                order[tail++] = i;
+            }
+        }
+        // order[head, tail) serves as the queue of nodes without
+        // unprocessed predecessors
+        for (int head = 0; head < tail; ++head) {
+            int node = order[head];
+            for (int k = 0; k < graph.succCount(node); ++k) {
+                int succ = graph.succAt(node, k);
+                if (--inDegrees[succ] == 0) {
+                    order[tail++] = succ;
+                }
+            }
+        }
+        return tail == size ? order : null;
+    }
+}
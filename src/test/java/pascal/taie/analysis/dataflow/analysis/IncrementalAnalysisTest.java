@@ -0,0 +1,138 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2020-- Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2020-- Yue Li <yueli@nju.edu.cn>
+ * All rights reserved.
+ *
+ * Tai-e is only for educational and academic purposes,
+ * and any form of commercial use is disallowed.
+ * Distribution of Tai-e is disallowed without the approval.
+ */
+
+package pascal.taie.analysis.dataflow.analysis;
+
+import org.junit.Assert;
+import org.junit.Test;
+import pascal.taie.analysis.dataflow.fact.DataflowResult;
+import pascal.taie.analysis.dataflow.fact.IndexedDataflowResult;
+import pascal.taie.analysis.dataflow.fact.SetFact;
+import pascal.taie.analysis.graph.cfg.CFG;
+import pascal.taie.analysis.graph.cfg.CFGBuilder;
+import pascal.taie.analysis.graph.cfg.IndexedCFG;
+import pascal.taie.analysis.graph.cfg.SyntheticCFG;
+import pascal.taie.config.AnalysisConfig;
+import pascal.taie.ir.IR;
+import pascal.taie.ir.exp.Var;
+import pascal.taie.ir.stmt.Stmt;
+
+import java.util.List;
+
+/**
+ * Tests {@link AbstractDataflowAnalysis#reanalyze} by comparing its
+ * results with the ones of solving the changed methods from scratch.
+ */
+public class IncrementalAnalysisTest {
+
+    @Test
+    public void testReanalyzeChangedStmt() {
+        LiveVariableAnalysis analysis = new LiveVariableAnalysis(AnalysisConfig.of(
+                LiveVariableAnalysis.ID, "validate-incremental", true));
+        SyntheticCFG cfg = SyntheticCFG.nestedLoops(200, 2, 16, 0);
+        IR ir = cfg.getIR();
+        DataflowResult<Stmt, SetFact<Var>> previous = analysis.analyze(ir);
+        // make a statement in the inner loop of the second loop nest
+        // use a new variable, which becomes live up to the entry
+        Stmt changed = ir.getStmt(15);
+        cfg.setUses(15, List.of(new Var(null, "fresh", null)));
+        DataflowResult<Stmt, SetFact<Var>> result =
+                analysis.reanalyze(ir, previous, List.of(changed));
+        DataflowResult<Stmt, SetFact<Var>> expected = new LiveVariableAnalysis(
+                AnalysisConfig.of(LiveVariableAnalysis.ID)).analyze(ir);
+        LiveVarTests.assertSameResult(cfg, expected, result);
+        Assert.assertNotEquals(previous.getInFact(ir.getStmt(0)),
+                result.getInFact(ir.getStmt(0)));
+    }
+
+    @Test
+    public void testReanalyzeRemovedStmt() {
+        // a statement in the inner loop of the first loop nest,
+        // and the header of the outer loop of the last loop nest
+        for (int index : new int[]{ 5, 190 }) {
+            LiveVariableAnalysis analysis = new LiveVariableAnalysis(AnalysisConfig.of(
+                    LiveVariableAnalysis.ID, "validate-incremental", true));
+            SyntheticCFG cfg = SyntheticCFG.nestedLoops(200, 2, 16, 0);
+            DataflowResult<Stmt, SetFact<Var>> previous = analysis.analyze(cfg.getIR());
+            Stmt removed = cfg.getIR().getStmt(index);
+            SyntheticCFG newCFG = cfg.removeStmt(index);
+            IR ir = newCFG.getIR();
+            // the index of the removed statement is stale in the new CFG
+            Assert.assertFalse(newCFG.hasNode(removed));
+            DataflowResult<Stmt, SetFact<Var>> result =
+                    analysis.reanalyze(ir, previous, List.of(removed));
+            DataflowResult<Stmt, SetFact<Var>> expected = new LiveVariableAnalysis(
+                    AnalysisConfig.of(LiveVariableAnalysis.ID)).analyze(ir);
+            LiveVarTests.assertSameResult(newCFG, expected, result);
+        }
+    }
+
+    @Test
+    public void testReanalyzeStaleNode() {
+        LiveVarTest.testLV("BranchLoop");
+        IR ir = LiveVarTests.getLargestIR("BranchLoop");
+        CFG<Stmt> cfg = ir.getResult(CFGBuilder.ID);
+        DataflowResult<Stmt, SetFact<Var>> expected =
+                ir.getResult(LiveVariableAnalysis.ID);
+        LiveVariableAnalysis analysis = new LiveVariableAnalysis(AnalysisConfig.of(
+                LiveVariableAnalysis.ID, "validate-incremental", true));
+        // the facts of a statement in the loop are stale, as if it was changed
+        Stmt changed = ir.getStmt(10);
+        DataflowResult<Stmt, SetFact<Var>> previous = copyResult(cfg, expected, null);
+        previous.getInFact(changed).clear();
+        previous.getOutFact(changed).clear();
+        LiveVarTests.assertSameResult(cfg, expected,
+                analysis.reanalyze(ir, previous, List.of(changed)));
+        // the nodes missing from the previous result are re-analyzed
+        previous = copyResult(cfg, expected, changed);
+        LiveVarTests.assertSameResult(cfg, expected,
+                analysis.reanalyze(ir, previous, List.of()));
+    }
+
+    @Test
+    public void testValidateIncremental() {
+        LiveVarTest.testLV("BranchLoop");
+        IR ir = LiveVarTests.getLargestIR("BranchLoop");
+        CFG<Stmt> cfg = ir.getResult(CFGBuilder.ID);
+        DataflowResult<Stmt, SetFact<Var>> expected =
+                ir.getResult(LiveVariableAnalysis.ID);
+        LiveVariableAnalysis analysis = new LiveVariableAnalysis(AnalysisConfig.of(
+                LiveVariableAnalysis.ID, "validate-incremental", true));
+        // the stale facts of a statement which is not reported as changed
+        // are kept by the re-analysis, and caught by the validation
+        DataflowResult<Stmt, SetFact<Var>> previous = copyResult(cfg, expected, null);
+        SetFact<Var> stale = previous.getInFact(ir.getStmt(10));
+        Assert.assertFalse(stale.isEmpty());
+        stale.clear();
+        Assert.assertThrows(IllegalStateException.class,
+                () -> analysis.reanalyze(ir, previous, List.of()));
+    }
+
+    /**
+     * @return a copy of given result on given CFG without the facts of
+     * the skipped node (if it is not null).
+     */
+    private static DataflowResult<Stmt, SetFact<Var>> copyResult(
+            CFG<Stmt> cfg, DataflowResult<Stmt, SetFact<Var>> result, Stmt skipped) {
+        DataflowResult<Stmt, SetFact<Var>> copy =
+                new IndexedDataflowResult<>(IndexedCFG.of(cfg), false);
+        for (Stmt node : cfg) {
+            if (node != skipped) {
+                SetFact<Var> in = result.getInFact(node);
+                SetFact<Var> out = result.getOutFact(node);
+                copy.setInFact(node, in != null ? in.copy() : null);
+                copy.setOutFact(node, out != null ? out.copy() : null);
+            }
+        }
+        return copy;
+    }
+}
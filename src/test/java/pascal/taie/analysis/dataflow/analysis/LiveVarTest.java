@@ -17,9 +17,9 @@ import pascal.taie.analysis.Tests;
 
 public class LiveVarTest {
 
-    static void testLV(String inputClass) {
+    public static void testLV(String inputClass, String... opts) {
         Tests.testDFA(inputClass, "src/test/resources/dataflow/livevar",
-                LiveVariableAnalysis.ID);
+                LiveVariableAnalysis.ID, opts);
     }
 
     @Test
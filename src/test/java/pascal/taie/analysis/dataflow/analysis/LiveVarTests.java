@@ -0,0 +1,116 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2020-- Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2020-- Yue Li <yueli@nju.edu.cn>
+ * All rights reserved.
+ *
+ * Tai-e is only for educational and academic purposes,
+ * and any form of commercial use is disallowed.
+ * Distribution of Tai-e is disallowed without the approval.
+ */
+
+package pascal.taie.analysis.dataflow.analysis;
+
+import org.junit.Assert;
+import pascal.taie.World;
+import pascal.taie.analysis.dataflow.fact.DataflowResult;
+import pascal.taie.analysis.dataflow.fact.SetFact;
+import pascal.taie.analysis.graph.cfg.CFG;
+import pascal.taie.ir.IR;
+import pascal.taie.ir.exp.Var;
+import pascal.taie.ir.stmt.Stmt;
+import pascal.taie.language.classes.JMethod;
+
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.stream.Collectors;
+
+/**
+ * Static utility methods for testing live variable analysis.
+ */
+public final class LiveVarTests {
+
+    private LiveVarTests() {
+    }
+
+    /**
+     * Runs live variable analysis on given class with given options,
+     * and checks that the facts of every statement equal the facts
+     * given by the default solver on the same class.
+     */
+    public static void testSameFacts(String inputClass, String... opts) {
+        LiveVarTest.testLV(inputClass);
+        Map<String, String> expected = collectFacts(inputClass);
+        LiveVarTest.testLV(inputClass, opts);
+        Assert.assertEquals(expected, collectFacts(inputClass));
+    }
+
+    /**
+     * @return the in and out facts of the statements of the methods of
+     * given class in the current World, keyed by the methods and the
+     * indexes of the statements. The variables in each fact are sorted
+     * by their names, so that the facts of different kinds are comparable.
+     */
+    public static Map<String, String> collectFacts(String className) {
+        Map<String, String> facts = new TreeMap<>();
+        getIRs(className).forEach(ir -> {
+            DataflowResult<Stmt, SetFact<Var>> result =
+                    ir.getResult(LiveVariableAnalysis.ID);
+            for (Stmt stmt : ir) {
+                String key = ir.getMethod() + "/" + stmt.getIndex();
+                facts.put(key + "/in", toSortedString(result.getInFact(stmt)));
+                facts.put(key + "/out", toSortedString(result.getOutFact(stmt)));
+            }
+        });
+        return facts;
+    }
+
+    private static String toSortedString(SetFact<Var> fact) {
+        return fact.stream()
+                .map(Var::getName)
+                .sorted()
+                .collect(Collectors.joining(", ", "[", "]"));
+    }
+
+    /**
+     * Checks that given results have equal facts on every node of given CFG.
+     */
+    public static void assertSameResult(
+            CFG<Stmt> cfg, DataflowResult<Stmt, SetFact<Var>> expected,
+            DataflowResult<Stmt, SetFact<Var>> given) {
+        for (Stmt node : cfg) {
+            Assert.assertEquals("in fact of " + node,
+                    expected.getInFact(node), given.getInFact(node));
+            Assert.assertEquals("out fact of " + node,
+                    expected.getOutFact(node), given.getOutFact(node));
+        }
+    }
+
+    /**
+     * @return the IRs of the methods of given application class
+     * in the current World.
+     */
+    public static List<IR> getIRs(String className) {
+        return World.getClassHierarchy()
+                .applicationClasses()
+                .filter(c -> c.getName().equals(className))
+                .flatMap(c -> c.getDeclaredMethods().stream())
+                .filter(m -> !m.isAbstract() && !m.isNative())
+                .map(JMethod::getIR)
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * @return the IR of the largest method of given application class
+     * in the current World.
+     */
+    public static IR getLargestIR(String className) {
+        return getIRs(className)
+                .stream()
+                .max(Comparator.comparingInt(ir -> ir.getStmts().size()))
+                .orElseThrow();
+    }
+}
@@ -0,0 +1,172 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2020-- Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2020-- Yue Li <yueli@nju.edu.cn>
+ * All rights reserved.
+ *
+ * Tai-e is only for educational and academic purposes,
+ * and any form of commercial use is disallowed.
+ * Distribution of Tai-e is disallowed without the approval.
+ */
+
+package pascal.taie.analysis.dataflow.analysis;
+
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import pascal.taie.analysis.dataflow.fact.BitSetFact;
+import pascal.taie.analysis.dataflow.fact.DataflowResult;
+import pascal.taie.analysis.dataflow.fact.InternStatistics;
+import pascal.taie.analysis.dataflow.fact.PersistentSetFact;
+import pascal.taie.analysis.dataflow.fact.SetFact;
+import pascal.taie.analysis.dataflow.fact.VarIndexer;
+import pascal.taie.analysis.dataflow.solver.SolverStatistics;
+import pascal.taie.analysis.graph.cfg.SyntheticCFG;
+import pascal.taie.config.AnalysisConfig;
+import pascal.taie.ir.IR;
+import pascal.taie.ir.exp.Var;
+import pascal.taie.ir.stmt.Stmt;
+
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+
+/**
+ * Tests the options of {@link LiveVariableAnalysis}, which must not
+ * change the results of the analysis.
+ */
+public class LiveVariableAnalysisTest {
+
+    @Rule
+    public final TemporaryFolder temp = new TemporaryFolder();
+
+    @Test
+    public void testParallel() {
+        LiveVarTests.testSameFacts("Reference", "threads:4");
+        LiveVarTests.testSameFacts("BranchLoop", "threads:4");
+    }
+
+    @Test
+    public void testSparseEngine() {
+        LiveVarTests.testSameFacts("BranchLoop", "engine:sparse");
+        LiveVarTests.testSameFacts("Fibonacci", "engine:sparse");
+        LiveVarTests.testSameFacts("Reference", "engine:sparse");
+        // the results equal the dense ones on every node, including
+        // the entry and exit nodes
+        SyntheticCFG cfg = SyntheticCFG.structured(300, 16, 3, 2, 0);
+        LiveVarTests.assertSameResult(cfg,
+                new LiveVariableAnalysis(AnalysisConfig.of(
+                        LiveVariableAnalysis.ID)).analyze(cfg.getIR()),
+                new LiveVariableAnalysis(AnalysisConfig.of(
+                        LiveVariableAnalysis.ID, "engine", "sparse")).analyze(cfg.getIR()));
+    }
+
+    @Test
+    public void testSparseEngineOptions() throws IOException {
+        for (Object[] options : new Object[][]{
+                { "stats", true },
+                { "trace", temp.newFile("livevar.trace").toString() },
+                { "fact", "persistent" } }) {
+            Assert.assertThrows(IllegalArgumentException.class,
+                    () -> new LiveVariableAnalysis(AnalysisConfig.of(
+                            LiveVariableAnalysis.ID, "engine", "sparse",
+                            options[0], options[1])));
+        }
+    }
+
+    @Test
+    public void testPersistentFact() {
+        LiveVarTests.testSameFacts("BranchLoop", "fact:persistent");
+        LiveVarTests.testSameFacts("Fibonacci", "fact:persistent");
+        LiveVarTests.testSameFacts("Reference", "fact:persistent");
+    }
+
+    @Test
+    public void testPersistentFactCache() throws IOException {
+        String dir = temp.newFolder("livevar-cache").toString();
+        AnalysisConfig config = AnalysisConfig.of(LiveVariableAnalysis.ID,
+                "fact", "persistent", "cache-dir", dir);
+        new LiveVariableAnalysis(config).analyze(
+                SyntheticCFG.structured(200, 16, 2, 2, 0).getIR());
+        // the results loaded from the cache are persistent facts as well
+        LiveVariableAnalysis analysis = new LiveVariableAnalysis(config);
+        SyntheticCFG cfg = SyntheticCFG.structured(200, 16, 2, 2, 0);
+        DataflowResult<Stmt, SetFact<Var>> result = analysis.analyze(cfg.getIR());
+        Assert.assertEquals(1, analysis.getResultCache().getHits());
+        cfg.getIR().forEach(stmt -> Assert.assertTrue(
+                result.getInFact(stmt) instanceof PersistentSetFact));
+        LiveVarTests.assertSameResult(cfg, new LiveVariableAnalysis(AnalysisConfig.of(
+                LiveVariableAnalysis.ID)).analyze(cfg.getIR()), result);
+    }
+
+    @Test
+    public void testResultCache() throws IOException {
+        String dir = temp.newFolder("livevar-cache").toString();
+        int methods = 3;
+        // the second run loads the results saved by the first run
+        for (int run = 0; run < 2; ++run) {
+            LiveVariableAnalysis analysis = new LiveVariableAnalysis(AnalysisConfig.of(
+                    LiveVariableAnalysis.ID, "cache-dir", dir, "stats", true));
+            for (int seed = 0; seed < methods; ++seed) {
+                SyntheticCFG cfg = SyntheticCFG.structured(200, 16, 2, 2, seed);
+                IR ir = cfg.getIR();
+                DataflowResult<Stmt, SetFact<Var>> result = analysis.analyze(ir);
+                // the solver records the statistics only if it is called
+                Assert.assertEquals(run == 0,
+                        ir.getResult(SolverStatistics.KEY) != null);
+                LiveVarTests.assertSameResult(cfg, new LiveVariableAnalysis(AnalysisConfig.of(
+                        LiveVariableAnalysis.ID)).analyze(ir), result);
+            }
+            ResultCache cache = analysis.getResultCache();
+            Assert.assertEquals(run == 0 ? 0 : methods, cache.getHits());
+            Assert.assertEquals(run == 0 ? methods : 0, cache.getMisses());
+        }
+    }
+
+    @Test
+    public void testInternFacts() {
+        LiveVarTest.testLV("Fibonacci", "intern-facts:method");
+        IR ir = LiveVarTests.getLargestIR("Fibonacci");
+        DataflowResult<Stmt, SetFact<Var>> result =
+                ir.getResult(LiveVariableAnalysis.ID);
+        Assert.assertTrue(result.isFrozen());
+        for (Stmt stmt : ir) {
+            Assert.assertTrue(result.getInFact(stmt).isFrozen());
+            Assert.assertTrue(result.getOutFact(stmt).isFrozen());
+        }
+        Assert.assertThrows(UnsupportedOperationException.class,
+                () -> result.getInFact(ir.getStmt(0)).clear());
+        InternStatistics stats = ir.getResult(InternStatistics.KEY);
+        Assert.assertNotNull(stats);
+        Assert.assertTrue(stats.getDistinctAfter() < stats.getDistinctBefore());
+    }
+
+    @Test
+    public void testTransferAllocation() {
+        LiveVarTest.testLV("Fibonacci");
+        IR ir = LiveVarTests.getLargestIR("Fibonacci");
+        VarIndexer indexer = VarIndexer.of(ir);
+        BitSetFact<Var> in = new BitSetFact<>(indexer);
+        BitSetFact<Var> out = new BitSetFact<>(indexer);
+        ir.getVars().forEach(out::add);
+        com.sun.management.ThreadMXBean bean = (com.sun.management.ThreadMXBean)
+                ManagementFactory.getThreadMXBean();
+        long threadId = Thread.currentThread().getId();
+        int stmts = ir.getStmts().size();
+        int rounds = 100_000;
+        long allocated = 0;
+        // the first run warms up the transfer and the def/use table
+        for (int run = 0; run < 2; ++run) {
+            long start = bean.getThreadAllocatedBytes(threadId);
+            for (int r = 0; r < rounds; ++r) {
+                for (int i = 0; i < stmts; ++i) {
+                    LiveVariableAnalysis.transfer(ir.getStmt(i), in, out);
+                }
+            }
+            allocated = bean.getThreadAllocatedBytes(threadId) - start;
+        }
+        Assert.assertTrue("Transfer allocated " + allocated + " bytes",
+                allocated < rounds);
+    }
+}
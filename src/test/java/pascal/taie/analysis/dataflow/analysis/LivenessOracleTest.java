@@ -0,0 +1,102 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2020-- Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2020-- Yue Li <yueli@nju.edu.cn>
+ * All rights reserved.
+ *
+ * Tai-e is only for educational and academic purposes,
+ * and any form of commercial use is disallowed.
+ * Distribution of Tai-e is disallowed without the approval.
+ */
+
+package pascal.taie.analysis.dataflow.analysis;
+
+import org.junit.Assert;
+import org.junit.Test;
+import pascal.taie.analysis.dataflow.fact.DataflowResult;
+import pascal.taie.analysis.dataflow.fact.SetFact;
+import pascal.taie.analysis.graph.cfg.Edge;
+import pascal.taie.analysis.graph.cfg.SyntheticCFG;
+import pascal.taie.config.AnalysisConfig;
+import pascal.taie.ir.IR;
+import pascal.taie.ir.exp.Var;
+import pascal.taie.ir.stmt.Stmt;
+
+public class LivenessOracleTest {
+
+    @Test
+    public void testAcyclic() {
+        LiveVarTest.testLV("Fibonacci");
+        LiveVarTests.getIRs("Fibonacci").forEach(ir -> assertSameLiveness(
+                ir, ir.getResult(LiveVariableAnalysis.ID)));
+    }
+
+    @Test
+    public void testLoops() {
+        LiveVarTest.testLV("BranchLoop");
+        LiveVarTests.getIRs("BranchLoop").forEach(ir -> assertSameLiveness(
+                ir, ir.getResult(LiveVariableAnalysis.ID)));
+    }
+
+    @Test
+    public void testNestedLoops() {
+        for (int seed = 0; seed < 4; ++seed) {
+            assertSameLiveness(SyntheticCFG.nestedLoops(200, 3, 16, seed).getIR());
+            assertSameLiveness(SyntheticCFG.structured(300, 16, 3, 2, seed).getIR());
+        }
+    }
+
+    @Test
+    public void testIrreducible() {
+        // a loop of a and b, which can be entered at both a and b
+        SyntheticCFG.Builder builder = new SyntheticCFG.Builder(8, 0);
+        int cond = builder.addCondition();
+        builder.addEdge(Edge.Kind.ENTRY, SyntheticCFG.Builder.ENTRY, cond);
+        int a = builder.addStmt();
+        builder.addEdge(Edge.Kind.IF_TRUE, cond, a);
+        int aEnd = builder.addStmts(a, 3);
+        int b = builder.addCondition();
+        builder.addEdge(Edge.Kind.FALL_THROUGH, aEnd, b);
+        builder.addEdge(Edge.Kind.IF_FALSE, cond, b);
+        builder.addEdge(Edge.Kind.IF_TRUE, b, a);
+        int last = builder.addStmts(b, 3);
+        builder.addEdge(Edge.Kind.RETURN, last, SyntheticCFG.Builder.EXIT);
+        assertSameLiveness(builder.build().getIR());
+    }
+
+    @Test
+    public void testLazy() {
+        LiveVarTest.testLV("BranchLoop");
+        IR ir = LiveVarTests.getLargestIR("BranchLoop");
+        // the analysis does not build the oracle
+        Assert.assertNull(ir.getResult(LivenessOracle.ID));
+        LivenessOracle oracle = LivenessOracle.of(ir);
+        Assert.assertSame(oracle, ir.getResult(LivenessOracle.ID));
+        Assert.assertSame(oracle, LivenessOracle.of(ir));
+    }
+
+    /**
+     * Checks the answers of the oracle of given IR against
+     * the result of live variable analysis.
+     */
+    private static void assertSameLiveness(IR ir) {
+        assertSameLiveness(ir, new LiveVariableAnalysis(
+                AnalysisConfig.of(LiveVariableAnalysis.ID)).analyze(ir));
+    }
+
+    private static void assertSameLiveness(
+            IR ir, DataflowResult<Stmt, SetFact<Var>> result) {
+        LivenessOracle oracle = LivenessOracle.of(ir);
+        for (Stmt stmt : ir) {
+            for (Var var : ir.getVars()) {
+                Assert.assertEquals(var + " at " + stmt,
+                        result.getInFact(stmt).contains(var),
+                        oracle.isLiveIn(var, stmt));
+                Assert.assertEquals(var + " at " + stmt,
+                        result.getOutFact(stmt).contains(var),
+                        oracle.isLiveOut(var, stmt));
+            }
+        }
+    }
+}
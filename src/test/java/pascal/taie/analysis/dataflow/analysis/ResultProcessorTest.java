@@ -0,0 +1,193 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2020-- Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2020-- Yue Li <yueli@nju.edu.cn>
+ * All rights reserved.
+ *
+ * Tai-e is only for educational and academic purposes,
+ * and any form of commercial use is disallowed.
+ * Distribution of Tai-e is disallowed without the approval.
+ */
+
+package pascal.taie.analysis.dataflow.analysis;
+
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import pascal.taie.Main;
+import pascal.taie.World;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+public class ResultProcessorTest {
+
+    private static final String CLASS_PATH = "src/test/resources/dataflow/livevar";
+
+    private static final List<String> CLASSES = List.of(
+            "Assign", "Branch", "BranchLoop", "Array", "Fibonacci", "Reference");
+
+    @Rule
+    public final TemporaryFolder temp = new TemporaryFolder();
+
+    /**
+     * Runs live variable analysis on given class, and processes
+     * the results with given options of the result processor.
+     */
+    private static void process(String main, String processOpts) {
+        process(CLASS_PATH, main, processOpts);
+    }
+
+    private static void process(String classPath, String main, String processOpts) {
+        Main.main(new String[]{ "-pp", "-cp", classPath, "-m", main,
+                "-a", LiveVariableAnalysis.ID,
+                "-a", String.format("%s=analyses:[%s];%s", ResultProcessor.ID,
+                LiveVariableAnalysis.ID, processOpts) });
+    }
+
+    @Test
+    public void testBinaryRoundTrip() throws IOException {
+        for (String main : CLASSES) {
+            Path text = temp.newFile(main + ".txt").toPath();
+            Path binary = temp.newFile(main + ".bin").toPath();
+            Path converted = temp.newFile(main + "-converted.txt").toPath();
+            process(main, "action:dump;file:" + text);
+            process(main, "action:dump-binary;file:" + binary);
+            BinaryResultFile.main(new String[]{
+                    binary.toString(), converted.toString() });
+            Assert.assertArrayEquals(main, Files.readAllBytes(text),
+                    Files.readAllBytes(converted));
+        }
+    }
+
+    @Test
+    public void testBinarySectionLookup() throws IOException {
+        Path binary = temp.newFile("BranchLoop.bin").toPath();
+        process("BranchLoop", "action:dump-binary;file:" + binary);
+        BinaryResultFile file = BinaryResultFile.open(binary);
+        ExpectedResults expected = new ExpectedResults(
+                Path.of(CLASS_PATH, "BranchLoop-expected.txt"));
+        String method = "<BranchLoop: void branchLoop(int,boolean)>";
+        int section = file.findSection(method, LiveVariableAnalysis.ID);
+        Assert.assertTrue(section >= 0);
+        Assert.assertEquals(method, file.getMethod(section));
+        Assert.assertEquals(LiveVariableAnalysis.ID, file.getAnalysis(section));
+        Assert.assertEquals(expected.getLines(method, LiveVariableAnalysis.ID),
+                file.getLines(section));
+        // each section is found by its own method and analysis
+        for (int i = 0; i < file.getSectionCount(); ++i) {
+            Assert.assertEquals(i, file.findSection(
+                    file.getMethod(i), file.getAnalysis(i)));
+        }
+        Assert.assertEquals(-1, file.findSection(method, "constprop"));
+        Assert.assertEquals(-1, file.findSection(
+                "<BranchLoop: void absent()>", LiveVariableAnalysis.ID));
+    }
+
+    @Test
+    public void testCompareMismatches() throws IOException {
+        String original = Files.readString(
+                Path.of(CLASS_PATH, "BranchLoop-expected.txt"));
+        String doctored = original
+                .replace("[1@L1] return; []",
+                        "[1@L1] return; [%this]")
+                .replace("[4@L5] goto 15; [a]",
+                        "[4@L5] goto 15; []")
+                .replace("[14@L23] x = y + z; [%intconst0, c, d, x, y]",
+                        "[14@L23] x = y + z; [%intconst0, c, d, x]")
+                .replace("[23@L28] z = x; []",
+                        "[23@L28] z = x; [x]");
+        Path file = temp.newFile("BranchLoop-doctored.txt").toPath();
+        Files.writeString(file, doctored);
+        // the mismatches are in the order of the methods and statements
+        List<String> expected = List.of(
+                "<BranchLoop: void <init>()> [1@L1] return;" +
+                        " expected: [%this], given: []",
+                "<BranchLoop: int loopBranch(int,int,int)> [4@L5] goto 15;" +
+                        " expected: [], given: [a]",
+                "<BranchLoop: void branchLoop(int,boolean)> [14@L23] x = y + z;" +
+                        " expected: [%intconst0, c, d, x], given: [%intconst0, c, d, x, y]",
+                "<BranchLoop: void branchLoop(int,boolean)> [23@L28] z = x;" +
+                        " expected: [x], given: []");
+        for (int threads : new int[]{ 1, 4 }) {
+            process("BranchLoop", "action:compare;threads:" + threads +
+                    ";file:" + file);
+            Set<String> mismatches = World.getResult(ResultProcessor.ID);
+            Assert.assertEquals("threads:" + threads,
+                    expected, new ArrayList<>(mismatches));
+            process("BranchLoop", "action:compare;threads:" + threads +
+                    ";file:" + Path.of(CLASS_PATH, "BranchLoop-expected.txt"));
+            Assert.assertEquals(Set.of(), World.getResult(ResultProcessor.ID));
+        }
+    }
+
+    @Test
+    public void testDumpSameAsExpected() throws IOException {
+        for (String main : CLASSES) {
+            byte[] expected = Files.readAllBytes(
+                    Path.of(CLASS_PATH, main + "-expected.txt"));
+            for (int threads : new int[]{ 1, 4 }) {
+                Path dump = temp.newFile(main + "-" + threads + ".txt").toPath();
+                process(main, "action:dump;threads:" + threads + ";file:" + dump);
+                Assert.assertArrayEquals(main + " threads:" + threads,
+                        expected, Files.readAllBytes(dump));
+            }
+        }
+    }
+
+    @Test
+    public void testDumpLargeSection() throws IOException {
+        Path classPath = temp.newFolder("large").toPath();
+        Files.writeString(classPath.resolve("Large.java"), largeClass(800));
+        Path single = temp.newFile("Large-1.txt").toPath();
+        Path parallel = temp.newFile("Large-4.txt").toPath();
+        process(classPath.toString(), "Large",
+                "action:dump;threads:1;file:" + single);
+        process(classPath.toString(), "Large",
+                "action:dump;threads:4;file:" + parallel);
+        byte[] expected = Files.readAllBytes(single);
+        // the section of method large() exceeds the output buffer (1MB)
+        String header = "-------------------- <Large: int large(int)> (livevar)";
+        String text = new String(expected);
+        int start = text.indexOf(header);
+        Assert.assertTrue(start >= 0);
+        int end = text.indexOf("\n--------------------", text.indexOf('\n', start));
+        Assert.assertTrue(end - start > 1 << 20);
+        Assert.assertArrayEquals(expected, Files.readAllBytes(parallel));
+    }
+
+    /**
+     * @return the source of class Large, whose method large() has given
+     * number of variables which are live across most of the method,
+     * surrounded by two small methods.
+     */
+    private static String largeClass(int vars) {
+        StringBuilder builder = new StringBuilder();
+        builder.append("class Large {\n")
+                .append("    int first(int p) {\n")
+                .append("        return p + 1;\n")
+                .append("    }\n")
+                .append("    int large(int p) {\n")
+                .append("        int v0 = p;\n");
+        for (int i = 1; i < vars; ++i) {
+            builder.append(String.format("        int v%d = v%d + p;%n", i, i - 1));
+        }
+        builder.append("        int s = 0;\n");
+        for (int i = 0; i < vars; ++i) {
+            builder.append(String.format("        s = s + v%d;%n", i));
+        }
+        builder.append("        return s;\n")
+                .append("    }\n")
+                .append("    int last(int p) {\n")
+                .append("        return p - 1;\n")
+                .append("    }\n")
+                .append("}\n");
+        return builder.toString();
+    }
+}
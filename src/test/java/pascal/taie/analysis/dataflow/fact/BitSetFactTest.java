@@ -0,0 +1,187 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2020-- Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2020-- Yue Li <yueli@nju.edu.cn>
+ * All rights reserved.
+ *
+ * Tai-e is only for educational and academic purposes,
+ * and any form of commercial use is disallowed.
+ * Distribution of Tai-e is disallowed without the approval.
+ */
+
+package pascal.taie.analysis.dataflow.fact;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+public class BitSetFactTest {
+
+    /**
+     * Number of indexed elements, which spans a few words.
+     */
+    private static final int SIZE = 150;
+
+    private static final StringIndexer INDEXER = new StringIndexer(SIZE);
+
+    @Test
+    public void testAddRemove() {
+        BitSetFact<String> fact = new BitSetFact<>(INDEXER);
+        Assert.assertTrue(fact.isEmpty());
+        Assert.assertTrue(fact.add("e0"));
+        Assert.assertTrue(fact.add("e149"));
+        Assert.assertFalse(fact.add("e0"));
+        Assert.assertEquals(2, fact.size());
+        Assert.assertTrue(fact.contains("e149"));
+        Assert.assertFalse(fact.contains("e64"));
+        Assert.assertTrue(fact.remove("e0"));
+        Assert.assertFalse(fact.remove("e0"));
+        Assert.assertEquals(new SetFact<>(List.of("e149")), fact);
+    }
+
+    @Test
+    public void testForeignElements() {
+        BitSetFact<String> fact = new BitSetFact<>(INDEXER);
+        fact.add("e1");
+        Assert.assertFalse(fact.contains("foreign"));
+        Assert.assertFalse(fact.remove("foreign"));
+        Assert.assertThrows(IllegalArgumentException.class,
+                () -> fact.add("foreign"));
+        // queries do not index the foreign elements
+        Assert.assertEquals(SIZE, INDEXER.size());
+        Assert.assertEquals(-1, INDEXER.getIndex("foreign"));
+    }
+
+    @Test
+    public void testSetOperations() {
+        Random random = new Random(0);
+        for (int round = 0; round < 100; ++round) {
+            List<String> c1 = randomElements(random);
+            List<String> c2 = randomElements(random);
+            // union
+            BitSetFact<String> bits = newFact(c1);
+            SetFact<String> set = new SetFact<>(c1);
+            Assert.assertEquals(set.union(new SetFact<>(c2)),
+                    bits.union(newFact(c2)));
+            assertSame(set, bits);
+            // intersect
+            bits = newFact(c1);
+            set = new SetFact<>(c1);
+            Assert.assertEquals(set.intersect(new SetFact<>(c2)),
+                    bits.intersect(newFact(c2)));
+            assertSame(set, bits);
+            // operations with facts of other kinds
+            bits = newFact(c1);
+            set = new SetFact<>(c1);
+            Assert.assertEquals(set.union(new SetFact<>(c2)),
+                    bits.union(new SetFact<>(c2)));
+            assertSame(set, bits);
+            Assert.assertEquals(set.intersect(new SetFact<>(c1)),
+                    bits.intersect(new SetFact<>(c1)));
+            assertSame(set, bits);
+            // copy and set
+            BitSetFact<String> copy = bits.copy();
+            copy.set(newFact(c2));
+            assertSame(new SetFact<>(c2), copy);
+            assertSame(set, bits);
+        }
+    }
+
+    @Test
+    public void testUnionNew() {
+        BitSetFact<String> fact = newFact(List.of("e1", "e70"));
+        BitSetFact<String> added = new BitSetFact<>(INDEXER);
+        Assert.assertTrue(fact.unionNew(newFact(List.of("e1", "e2", "e130")), added));
+        assertSame(new SetFact<>(List.of("e2", "e130")), added);
+        assertSame(new SetFact<>(List.of("e1", "e2", "e70", "e130")), fact);
+        Assert.assertFalse(fact.unionNew(newFact(List.of("e2")), added));
+    }
+
+    @Test
+    public void testSetGenKill() {
+        BitSetFact<String> in = new BitSetFact<>(INDEXER);
+        BitSetFact<String> out = newFact(List.of("e3", "e65", "e140"));
+        Assert.assertTrue(in.setGenKill(out, 65, new int[]{ 1, 100 }));
+        assertSame(new SetFact<>(List.of("e1", "e3", "e100", "e140")), in);
+        Assert.assertFalse(in.setGenKill(out, 65, new int[]{ 1, 100 }));
+        Assert.assertTrue(in.setGenKill(out, newFact(List.of("e7")),
+                newFact(List.of("e3", "e140"))));
+        assertSame(new SetFact<>(List.of("e7", "e65")), in);
+    }
+
+    @Test
+    public void testEqualsAndHashCode() {
+        BitSetFact<String> fact = newFact(List.of("e5", "e80"));
+        SetFact<String> set = new SetFact<>(List.of("e5", "e80"));
+        Assert.assertEquals(set, fact);
+        Assert.assertEquals(fact, set);
+        Assert.assertEquals(set.hashCode(), fact.hashCode());
+        // facts of different capacities are equal if they have same bits
+        BitSetFact<String> grown = newFact(List.of("e5", "e80", "e149"));
+        grown.remove("e149");
+        Assert.assertEquals(fact, grown);
+        Assert.assertEquals(grown, fact);
+        Assert.assertEquals(fact.hashCode(), grown.hashCode());
+        Assert.assertNotEquals(fact, newFact(List.of("e5")));
+        Assert.assertEquals(fact, fact.freeze());
+    }
+
+    private static void assertSame(SetFact<String> expected, BitSetFact<String> given) {
+        Assert.assertEquals(expected, given);
+        Assert.assertEquals(given, expected);
+        Assert.assertEquals(expected.hashCode(), given.hashCode());
+        Assert.assertEquals(expected.size(), given.size());
+    }
+
+    private static BitSetFact<String> newFact(List<String> elements) {
+        BitSetFact<String> fact = new BitSetFact<>(INDEXER);
+        elements.forEach(fact::add);
+        return fact;
+    }
+
+    private static List<String> randomElements(Random random) {
+        List<String> elements = new ArrayList<>();
+        for (int i = random.nextInt(SIZE); i > 0; --i) {
+            elements.add(INDEXER.getObject(random.nextInt(SIZE)));
+        }
+        return elements;
+    }
+
+    /**
+     * Indexer of strings "e0", "e1", ..., whose indexes are their suffixes.
+     */
+    private static class StringIndexer implements Indexer<String> {
+
+        private final List<String> objects = new ArrayList<>();
+
+        private final Map<String, Integer> indexes = new HashMap<>();
+
+        private StringIndexer(int size) {
+            for (int i = 0; i < size; ++i) {
+                objects.add("e" + i);
+                indexes.put("e" + i, i);
+            }
+        }
+
+        @Override
+        public int getIndex(String o) {
+            return indexes.getOrDefault(o, -1);
+        }
+
+        @Override
+        public String getObject(int index) {
+            return objects.get(index);
+        }
+
+        @Override
+        public int size() {
+            return objects.size();
+        }
+    }
+}
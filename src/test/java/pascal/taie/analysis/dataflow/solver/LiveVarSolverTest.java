@@ -0,0 +1,132 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2020-- Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2020-- Yue Li <yueli@nju.edu.cn>
+ * All rights reserved.
+ *
+ * Tai-e is only for educational and academic purposes,
+ * and any form of commercial use is disallowed.
+ * Distribution of Tai-e is disallowed without the approval.
+ */
+
+package pascal.taie.analysis.dataflow.solver;
+
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import pascal.taie.analysis.dataflow.analysis.LiveVarTest;
+import pascal.taie.analysis.dataflow.analysis.LiveVarTests;
+import pascal.taie.analysis.dataflow.analysis.LiveVariableAnalysis;
+import pascal.taie.analysis.graph.cfg.CFG;
+import pascal.taie.analysis.graph.cfg.CFGBuilder;
+import pascal.taie.analysis.graph.cfg.IndexedCFG;
+import pascal.taie.ir.IR;
+import pascal.taie.ir.stmt.Stmt;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.List;
+
+/**
+ * Tests the solvers by live variable analysis, whose results must not
+ * depend on the solver.
+ */
+public class LiveVarSolverTest {
+
+    @Rule
+    public final TemporaryFolder temp = new TemporaryFolder();
+
+    @Test
+    public void testWorklistSolver() {
+        LiveVarTests.testSameFacts("BranchLoop", "solver:worklist");
+        LiveVarTests.testSameFacts("Fibonacci", "solver:worklist");
+    }
+
+    @Test
+    public void testBlockSolver() {
+        LiveVarTests.testSameFacts("BranchLoop", "solver:block");
+        LiveVarTests.testSameFacts("Fibonacci", "solver:block");
+    }
+
+    @Test
+    public void testSCCSolver() {
+        LiveVarTests.testSameFacts("BranchLoop", "solver:scc");
+        // the do-while loop of branchLoop() is the only cyclic SCC,
+        // and each of the other nodes is an SCC by itself
+        IR ir = LiveVarTests.getLargestIR("BranchLoop");
+        SCCStatistics stats = ir.getResult(SCCStatistics.KEY);
+        Assert.assertNotNull(stats);
+        Assert.assertEquals(ir.getStmts().size() + 2, stats.getNodes());
+        Assert.assertEquals(1, stats.getCyclicComponents());
+        Assert.assertEquals(14, stats.getLargestComponent());
+        Assert.assertEquals(stats.getNodes() - stats.getLargestComponent() + 1,
+                stats.getComponents());
+        Assert.assertTrue(stats.getTransfers() >= stats.getNodes() - 1);
+        // acyclic methods are solved in a single pass without statistics
+        LiveVarTests.testSameFacts("Fibonacci", "solver:scc");
+        Assert.assertNull(LiveVarTests.getLargestIR("Fibonacci")
+                .getResult(SCCStatistics.KEY));
+    }
+
+    @Test
+    public void testDeltaSolver() {
+        // the loops of BranchLoop are not solved by the acyclic fast path
+        LiveVarTests.testSameFacts("BranchLoop", "solver:delta;stats:true");
+        IR ir = LiveVarTests.getLargestIR("BranchLoop");
+        CFG<Stmt> cfg = ir.getResult(CFGBuilder.ID);
+        Assert.assertNull(IndexedCFG.of(cfg).getTopologicalOrder());
+        SolverStatistics stats = ir.getResult(SolverStatistics.KEY);
+        Assert.assertEquals("DeltaSolver", stats.getSolver());
+        LiveVarTests.testSameFacts("Fibonacci", "solver:delta");
+    }
+
+    @Test
+    public void testCompactResult() {
+        // the facts inside the blocks are recomputed when they are queried
+        LiveVarTests.testSameFacts("BranchLoop", "compact-result:true");
+        LiveVarTests.testSameFacts("Fibonacci", "compact-result:true;compact-cache:1");
+        Assert.assertTrue(LiveVarTests.getLargestIR("Fibonacci")
+                .getResult(LiveVariableAnalysis.ID) instanceof BlockDataflowResult);
+    }
+
+    @Test
+    public void testSolverStatistics() {
+        LiveVarTest.testLV("Fibonacci", "stats:true");
+        IR ir = LiveVarTests.getLargestIR("Fibonacci");
+        SolverStatistics stats = ir.getResult(SolverStatistics.KEY);
+        Assert.assertNotNull(stats);
+        // the iterative solver visits all nodes but the exit in each round
+        Assert.assertEquals(stats.getRounds() * (stats.getNodes() - 1),
+                stats.getVisits());
+        Assert.assertTrue(stats.getChanges() <= stats.getVisits());
+    }
+
+    @Test
+    public void testAcyclicSinglePass() {
+        LiveVarTest.testLV("Fibonacci", "stats:true;solver:worklist");
+        IR ir = LiveVarTests.getLargestIR("Fibonacci");
+        SolverStatistics stats = ir.getResult(SolverStatistics.KEY);
+        // the acyclic CFG is solved by visiting each node but the exit once
+        Assert.assertEquals(stats.getNodes() - 1, stats.getVisits());
+        Assert.assertEquals(1, stats.getRounds());
+    }
+
+    @Test
+    public void testSolverTrace() throws IOException {
+        Path trace = temp.newFile("livevar.trace").toPath();
+        LiveVarTest.testLV("Fibonacci", "trace:" + trace);
+        List<SolverTraceFile.Section> sections = SolverTraceFile.read(trace);
+        Assert.assertFalse(sections.isEmpty());
+        for (SolverTraceFile.Section section : sections) {
+            Assert.assertEquals(section.getTotal(), section.size());
+            for (int i = 0; i < section.size(); ++i) {
+                Assert.assertTrue(section.getNode(i) < section.getNumberOfNodes());
+                Assert.assertTrue(section.getRound(i) > 0);
+                Assert.assertEquals(section.isChanged(i),
+                        section.getSizeBefore(i) != section.getSizeAfter(i));
+            }
+        }
+    }
+}
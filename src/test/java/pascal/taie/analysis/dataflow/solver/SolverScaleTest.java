@@ -0,0 +1,150 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2020-- Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2020-- Yue Li <yueli@nju.edu.cn>
+ * All rights reserved.
+ *
+ * Tai-e is only for educational and academic purposes,
+ * and any form of commercial use is disallowed.
+ * Distribution of Tai-e is disallowed without the approval.
+ */
+
+package pascal.taie.analysis.dataflow.solver;
+
+import org.junit.Assert;
+import org.junit.Test;
+import pascal.taie.analysis.dataflow.analysis.LiveVariableAnalysis;
+import pascal.taie.analysis.dataflow.fact.DataflowResult;
+import pascal.taie.analysis.dataflow.fact.SetFact;
+import pascal.taie.analysis.graph.cfg.SyntheticCFG;
+import pascal.taie.config.AnalysisConfig;
+import pascal.taie.ir.exp.Var;
+import pascal.taie.ir.stmt.Stmt;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.lang.ref.Reference;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+/**
+ * Solves live variable analysis on synthetic methods of 1k to 1M
+ * statements, and records the solving time and the heap retained by the
+ * result of each size in build/reports/scale/livevar.csv. The test fails
+ * if the time or heap per statement of the largest method grows much more
+ * than that of the 10k-statement method, i.e., if solving becomes
+ * super-linear. The time of garbage collection, which grows with the live
+ * facts regardless of the solver, is reported separately and excluded
+ * from the check.
+ * <p>
+ * This test is excluded from task "test" of Gradle, and is run by
+ * task "scaleTest".
+ */
+public class SolverScaleTest {
+
+    private static final int[] SIZES = { 1_000, 10_000, 100_000, 1_000_000 };
+
+    private static final int VARS = 64;
+
+    private static final int DEPTH = 3;
+
+    private static final int BRANCHING = 2;
+
+    /**
+     * Allowed growth of the cost per statement from 10k statements
+     * to the largest size, which is loose to tolerate noisy machines.
+     */
+    private static final double MAX_GROWTH = 8;
+
+    /**
+     * Lower bound of the heap per statement of the 10k-statement method
+     * in the check, so that the check is not made too strict by a
+     * measurement close to 0.
+     */
+    private static final double MIN_BYTES_PER_STMT = 32;
+
+    private static final Path REPORT = Path.of("build", "reports", "scale", "livevar.csv");
+
+    @Test
+    public void testLiveVarScaling() throws IOException {
+        Files.createDirectories(REPORT.getParent());
+        try (PrintStream report = new PrintStream(REPORT.toFile())) {
+            report.println("solver,stmts,millis,gc-millis,retained-bytes");
+            for (String solver : List.of("iterative", "worklist")) {
+                testScaling(solver, report);
+            }
+        }
+    }
+
+    private static void testScaling(String solver, PrintStream report) {
+        AnalysisConfig config = AnalysisConfig.of(
+                LiveVariableAnalysis.ID, "solver", solver);
+        Solver<Stmt, SetFact<Var>> s = Solver.makeSolver(
+                new LiveVariableAnalysis(config), config.getOptions());
+        // warm up the solver on small methods
+        for (int i = 0; i < 20; ++i) {
+            s.solve(SyntheticCFG.structured(SIZES[0], VARS, DEPTH, BRANCHING, i));
+        }
+        double[] nanosPerStmt = new double[SIZES.length];
+        double[] bytesPerStmt = new double[SIZES.length];
+        for (int i = 0; i < SIZES.length; ++i) {
+            SyntheticCFG cfg = SyntheticCFG.structured(
+                    SIZES[i], VARS, DEPTH, BRANCHING, 0);
+            int stmts = cfg.getIR().getStmts().size();
+            // the best of a few runs, except for the largest method
+            long nanos = Long.MAX_VALUE;
+            long gcNanos = 0;
+            long bytes = 0;
+            for (int run = 0; run < (i < SIZES.length - 1 ? 3 : 1); ++run) {
+                long baseline = getUsedHeap();
+                long gcStart = getGCMillis();
+                long start = System.nanoTime();
+                DataflowResult<Stmt, SetFact<Var>> result = s.solve(cfg);
+                long elapsed = System.nanoTime() - start;
+                long gc = (getGCMillis() - gcStart) * 1_000_000;
+                if (elapsed - gc < nanos) {
+                    nanos = elapsed - gc;
+                    gcNanos = gc;
+                }
+                // the result must be reachable when the heap is measured
+                bytes = getUsedHeap() - baseline;
+                Reference.reachabilityFence(result);
+            }
+            nanosPerStmt[i] = (double) nanos / stmts;
+            bytesPerStmt[i] = (double) bytes / stmts;
+            report.printf("%s,%d,%.3f,%.3f,%d%n", solver, stmts,
+                    nanos / 1e6, gcNanos / 1e6, bytes);
+        }
+        int last = SIZES.length - 1;
+        Assert.assertTrue(String.format("Time per statement of %s solver grows from" +
+                                " %.0fns to %.0fns", solver, nanosPerStmt[1], nanosPerStmt[last]),
+                nanosPerStmt[last] <= nanosPerStmt[1] * MAX_GROWTH);
+        Assert.assertTrue(String.format("Heap per statement of %s solver grows from" +
+                                " %.0f bytes to %.0f bytes", solver, bytesPerStmt[1], bytesPerStmt[last]),
+                bytesPerStmt[last] <= Math.max(bytesPerStmt[1], MIN_BYTES_PER_STMT) * MAX_GROWTH);
+    }
+
+    private static long getGCMillis() {
+        long millis = 0;
+        for (GarbageCollectorMXBean gc : ManagementFactory.getGarbageCollectorMXBeans()) {
+            millis += Math.max(0, gc.getCollectionTime());
+        }
+        return millis;
+    }
+
+    /**
+     * Collects garbage, so that the usage of the heap only counts the
+     * reachable objects. Unlike the peak usage, which depends on when
+     * the garbage collector runs, this is stable across runs.
+     *
+     * @return the current usage of the heap.
+     */
+    private static long getUsedHeap() {
+        System.gc();
+        return ManagementFactory.getMemoryMXBean().getHeapMemoryUsage().getUsed();
+    }
+}
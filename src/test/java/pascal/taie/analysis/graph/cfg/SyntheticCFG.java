@@ -0,0 +1,576 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2020-- Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2020-- Yue Li <yueli@nju.edu.cn>
+ * All rights reserved.
+ *
+ * Tai-e is only for educational and academic purposes,
+ * and any form of commercial use is disallowed.
+ * Distribution of Tai-e is disallowed without the approval.
+ */
+
+package pascal.taie.analysis.graph.cfg;
+
+import pascal.taie.ir.DefaultIR;
+import pascal.taie.ir.IR;
+import pascal.taie.ir.exp.LValue;
+import pascal.taie.ir.exp.RValue;
+import pascal.taie.ir.exp.Var;
+import pascal.taie.ir.stmt.Stmt;
+import pascal.taie.ir.stmt.StmtVisitor;
+import pascal.taie.language.classes.JMethod;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.Random;
+import java.util.Set;
+import java.util.StringJoiner;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * A CFG of synthetic statements, which is not built from any program.
+ * Each statement defines at most one variable and uses a few variables,
+ * all chosen randomly (but deterministically for a given seed) from a
+ * fixed set of variables, so that CFGs of any size and shape can be
+ * made for benchmarking and scale testing of data-flow analyses.
+ * <p>
+ * The statements and variables are put in a synthetic IR, which has no
+ * method, and the CFG is stored in the IR as the result of
+ * {@link CFGBuilder}, so the CFG can be analyzed like a built one.
+ */
+public class SyntheticCFG implements CFG<Stmt> {
+
+    private final IR ir;
+
+    private final Stmt entry;
+
+    private final Stmt exit;
+
+    /**
+     * All nodes indexed like {@link IndexedCFG}, i.e., the statements
+     * followed by the entry and exit nodes.
+     */
+    private final List<Stmt> nodes;
+
+    private final List<List<Edge<Stmt>>> inEdges;
+
+    private final List<List<Edge<Stmt>>> outEdges;
+
+    private SyntheticCFG(IR ir, Stmt entry, Stmt exit) {
+        this.ir = ir;
+        this.entry = entry;
+        this.exit = exit;
+        nodes = new ArrayList<>(ir.getStmts());
+        nodes.add(entry);
+        nodes.add(exit);
+        inEdges = new ArrayList<>(nodes.size());
+        outEdges = new ArrayList<>(nodes.size());
+        for (int i = 0; i < nodes.size(); ++i) {
+            inEdges.add(new ArrayList<>(2));
+            outEdges.add(new ArrayList<>(2));
+        }
+    }
+
+    /**
+     * @return a CFG of a single run of statements.
+     */
+    public static SyntheticCFG straightLine(int stmts, int vars, long seed) {
+        Builder builder = new Builder(vars, seed);
+        int last = builder.addStmts(Builder.ENTRY, stmts);
+        builder.addEdge(Edge.Kind.RETURN, last, Builder.EXIT);
+        return builder.build();
+    }
+
+    /**
+     * @return a CFG of a chain of if-then-else diamonds, each of which
+     * consists of a condition, two branches and a join statement.
+     */
+    public static SyntheticCFG diamondChain(int stmts, int vars, long seed) {
+        Builder builder = new Builder(vars, seed);
+        int last = Builder.ENTRY;
+        for (int n = 0; n + 4 <= stmts; n += 4) {
+            last = builder.addDiamond(last);
+        }
+        builder.addEdge(Edge.Kind.RETURN, last, Builder.EXIT);
+        return builder.build();
+    }
+
+    /**
+     * @return a CFG of a chain of loop nests of given depth, whose
+     * innermost loops have straight-line bodies.
+     */
+    public static SyntheticCFG nestedLoops(int stmts, int depth, int vars, long seed) {
+        Builder builder = new Builder(vars, seed);
+        int bodySize = 8;
+        int last = Builder.ENTRY;
+        for (int n = 0; n + depth + bodySize <= stmts; n += depth + bodySize) {
+            last = builder.addLoopNest(last, depth, bodySize);
+        }
+        builder.addEdge(Edge.Kind.RETURN, last, Builder.EXIT);
+        return builder.build();
+    }
+
+    /**
+     * @return a CFG of a randomly structured method, which consists of
+     * runs of statements, branches and loops, nested up to given depth.
+     *
+     * @param stmts     number of statements (the result may have a few more)
+     * @param vars      number of variables
+     * @param depth     maximum nesting depth of the branches and loops
+     * @param branching number of arms of each branch, at least 2
+     * @param seed      seed of the random choices
+     */
+    public static SyntheticCFG structured(int stmts, int vars, int depth,
+                                          int branching, long seed) {
+        if (branching < 2) {
+            throw new IllegalArgumentException(
+                    "Branching factor must be at least 2: " + branching);
+        }
+        Builder builder = new Builder(vars, seed);
+        int last = builder.addRegion(Builder.ENTRY, stmts, depth, branching);
+        builder.addEdge(Edge.Kind.RETURN, last, Builder.EXIT);
+        return builder.build();
+    }
+
+    @Override
+    public IR getIR() {
+        return ir;
+    }
+
+    @Override
+    public JMethod getMethod() {
+        return ir.getMethod();
+    }
+
+    @Override
+    public Stmt getEntry() {
+        return entry;
+    }
+
+    @Override
+    public Stmt getExit() {
+        return exit;
+    }
+
+    @Override
+    public boolean isEntry(Stmt node) {
+        return node == entry;
+    }
+
+    @Override
+    public boolean isExit(Stmt node) {
+        return node == exit;
+    }
+
+    @Override
+    public Stream<Edge<Stmt>> inEdgesOf(Stmt node) {
+        return inEdges.get(indexOf(node)).stream();
+    }
+
+    @Override
+    public Stream<Edge<Stmt>> outEdgesOf(Stmt node) {
+        return outEdges.get(indexOf(node)).stream();
+    }
+
+    @Override
+    public boolean hasNode(Stmt node) {
+        int i = indexOf(node);
+        return 0 <= i && i < nodes.size() && nodes.get(i) == node;
+    }
+
+    @Override
+    public boolean hasEdge(Stmt source, Stmt target) {
+        return succsOf(source).anyMatch(succ -> succ == target);
+    }
+
+    @Override
+    public Stream<Stmt> predsOf(Stmt node) {
+        return inEdgesOf(node).map(Edge::getSource);
+    }
+
+    @Override
+    public Stream<Stmt> succsOf(Stmt node) {
+        return outEdgesOf(node).map(Edge::getTarget);
+    }
+
+    @Override
+    public Stream<Stmt> nodes() {
+        return nodes.stream();
+    }
+
+    @Override
+    public int getNumberOfNodes() {
+        return nodes.size();
+    }
+
+    /**
+     * Replaces the variables used by the statement of given index,
+     * e.g., for testing the re-analysis of changed statements.
+     */
+    public void setUses(int index, List<RValue> uses) {
+        ((SyntheticStmt) ir.getStmt(index)).uses = uses;
+    }
+
+    /**
+     * Removes the statement of given index, e.g., for testing the
+     * re-analysis after removing statements. The predecessors of the
+     * statement are connected to its successors.
+     *
+     * @return the CFG of a new IR without the statement. The other
+     * statements are shared with this CFG, and the ones after the
+     * removed statement are re-indexed, so this CFG must not be
+     * used afterwards.
+     */
+    public SyntheticCFG removeStmt(int index) {
+        Stmt removed = ir.getStmt(index);
+        List<Edge<Stmt>> edges = new ArrayList<>();
+        outEdges.forEach(edges::addAll);
+        List<Stmt> preds = predsOf(removed).collect(Collectors.toList());
+        List<Stmt> succs = succsOf(removed).collect(Collectors.toList());
+        List<Stmt> stmts = new ArrayList<>(ir.getStmts());
+        stmts.remove(index);
+        for (int i = index; i < stmts.size(); ++i) {
+            stmts.get(i).setIndex(i);
+        }
+        IR newIR = new DefaultIR(null, null, List.of(), Set.of(),
+                ir.getVars(), stmts, List.of());
+        SyntheticCFG cfg = new SyntheticCFG(newIR, entry, exit);
+        for (Edge<Stmt> edge : edges) {
+            if (edge.getSource() != removed && edge.getTarget() != removed) {
+                cfg.addEdge(edge.getKind(), cfg.indexOf(edge.getSource()),
+                        cfg.indexOf(edge.getTarget()));
+            }
+        }
+        for (Stmt pred : preds) {
+            for (Stmt succ : succs) {
+                if (pred != removed && succ != removed) {
+                    cfg.addEdge(Edge.Kind.GOTO, cfg.indexOf(pred), cfg.indexOf(succ));
+                }
+            }
+        }
+        newIR.storeResult(CFGBuilder.ID, cfg);
+        return cfg;
+    }
+
+    private void addEdge(Edge.Kind kind, int source, int target) {
+        Edge<Stmt> edge = new Edge<>(kind, nodes.get(source), nodes.get(target));
+        outEdges.get(source).add(edge);
+        inEdges.get(target).add(edge);
+    }
+
+    private int indexOf(Stmt node) {
+        int size = ir.getStmts().size();
+        return node == entry ? size : node == exit ? size + 1 : node.getIndex();
+    }
+
+    @Override
+    public String toString() {
+        return "SyntheticCFG{" + ir.getStmts().size() + " statements}";
+    }
+
+    /**
+     * Builds a synthetic CFG statement by statement. The statements are
+     * referred to by their indexes, and {@link #ENTRY} and {@link #EXIT}
+     * refer to the entry and exit nodes.
+     */
+    public static class Builder {
+
+        public static final int ENTRY = -1;
+
+        public static final int EXIT = -2;
+
+        private final Random random;
+
+        private final List<Var> vars;
+
+        private final List<Stmt> stmts = new ArrayList<>();
+
+        private final List<Edge.Kind> edgeKinds = new ArrayList<>();
+
+        private final List<int[]> edges = new ArrayList<>();
+
+        public Builder(int vars, long seed) {
+            random = new Random(seed);
+            this.vars = new ArrayList<>(vars);
+            for (int i = 0; i < vars; ++i) {
+                this.vars.add(new Var(null, "v" + i, null));
+            }
+        }
+
+        /**
+         * Adds a statement which defines a random variable (in most
+         * cases) and uses up to two random variables.
+         *
+         * @return the index of the statement.
+         */
+        public int addStmt() {
+            Var def = random.nextInt(4) > 0 ? randomVar() : null;
+            List<RValue> uses = new ArrayList<>(2);
+            for (int i = random.nextInt(3); i > 0; --i) {
+                uses.add(randomVar());
+            }
+            return add(new SyntheticStmt(def, uses));
+        }
+
+        /**
+         * Adds a condition statement, which uses two random variables.
+         *
+         * @return the index of the statement.
+         */
+        public int addCondition() {
+            return add(new SyntheticStmt(null, List.of(randomVar(), randomVar())));
+        }
+
+        /**
+         * Adds a run of statements after given statement.
+         *
+         * @return the index of the last statement of the run.
+         */
+        public int addStmts(int pred, int count) {
+            int last = pred;
+            for (int i = 0; i < count; ++i) {
+                int stmt = addStmt();
+                addEdge(kindFrom(last), last, stmt);
+                last = stmt;
+            }
+            return last;
+        }
+
+        /**
+         * Adds an if-then-else diamond of four statements after given statement.
+         *
+         * @return the index of the join statement of the diamond.
+         */
+        public int addDiamond(int pred) {
+            int cond = addCondition();
+            addEdge(kindFrom(pred), pred, cond);
+            int then = addStmt();
+            int other = addStmt();
+            int join = addStmt();
+            addEdge(Edge.Kind.IF_TRUE, cond, then);
+            addEdge(Edge.Kind.IF_FALSE, cond, other);
+            addEdge(Edge.Kind.GOTO, then, join);
+            addEdge(Edge.Kind.FALL_THROUGH, other, join);
+            return join;
+        }
+
+        /**
+         * Adds a nest of loops of given depth after given statement.
+         * Each loop starts with a condition statement (the loop header),
+         * and the body of the innermost loop is a run of statements.
+         *
+         * @return the index of the header of the outermost loop,
+         * from where the control leaves the nest.
+         */
+        public int addLoopNest(int pred, int depth, int bodySize) {
+            int[] headers = new int[depth];
+            for (int d = 0; d < depth; ++d) {
+                headers[d] = addCondition();
+                if (d == 0) {
+                    addEdge(kindFrom(pred), pred, headers[d]);
+                } else {
+                    addEdge(Edge.Kind.IF_TRUE, headers[d - 1], headers[d]);
+                }
+            }
+            int last = headers[depth - 1];
+            for (int i = 0; i < bodySize; ++i) {
+                int stmt = addStmt();
+                addEdge(i == 0 ? Edge.Kind.IF_TRUE : Edge.Kind.FALL_THROUGH,
+                        last, stmt);
+                last = stmt;
+            }
+            addEdge(Edge.Kind.GOTO, last, headers[depth - 1]);
+            // leaving an inner loop goes back to the header of its outer loop
+            for (int d = depth - 1; d > 0; --d) {
+                addEdge(Edge.Kind.IF_FALSE, headers[d], headers[d - 1]);
+            }
+            return headers[0];
+        }
+
+        /**
+         * Adds a region of about given number of statements after given
+         * statement. The region is a sequence of runs of statements,
+         * branches and loops, and the arms of the branches and the bodies
+         * of the loops are regions of smaller sizes and depths.
+         *
+         * @return the index of the statement where the control leaves
+         * the region, which is pred itself if the size is not positive.
+         */
+        public int addRegion(int pred, int size, int depth, int branching) {
+            int end = stmts.size() + size;
+            int last = pred;
+            for (int remaining = size; remaining > 0;
+                 remaining = end - stmts.size()) {
+                int choice = depth > 0 && remaining > branching ?
+                        random.nextInt(3) : 0;
+                // nested regions take a random part of the remaining statements
+                int part = remaining / (2 + random.nextInt(3));
+                switch (choice) {
+                    case 0:
+                        last = addStmts(last, Math.min(remaining, 1 + random.nextInt(8)));
+                        break;
+                    case 1:
+                        last = addBranch(last, part, depth - 1, branching);
+                        break;
+                    case 2:
+                        last = addLoop(last, part, depth - 1, branching);
+                        break;
+                }
+            }
+            return last;
+        }
+
+        /**
+         * Adds a branch of given number of arms after given statement,
+         * i.e., a condition, the arms and a join statement.
+         *
+         * @return the index of the join statement.
+         */
+        private int addBranch(int pred, int size, int depth, int branching) {
+            int cond = addCondition();
+            addEdge(kindFrom(pred), pred, cond);
+            int[] ends = new int[branching];
+            for (int i = 0; i < branching; ++i) {
+                int first = addStmt();
+                addEdge(i == 0 ? Edge.Kind.IF_TRUE :
+                        (i == 1 ? Edge.Kind.IF_FALSE : Edge.Kind.GOTO), cond, first);
+                ends[i] = addRegion(first, size / branching - 1, depth, branching);
+            }
+            int join = addStmt();
+            for (int end : ends) {
+                addEdge(Edge.Kind.GOTO, end, join);
+            }
+            return join;
+        }
+
+        /**
+         * Adds a loop after given statement, i.e., a header and a body.
+         *
+         * @return the index of the loop header, from where
+         * the control leaves the loop.
+         */
+        private int addLoop(int pred, int size, int depth, int branching) {
+            int header = addCondition();
+            addEdge(kindFrom(pred), pred, header);
+            int first = addStmt();
+            addEdge(Edge.Kind.IF_TRUE, header, first);
+            int end = addRegion(first, size - 1, depth, branching);
+            addEdge(Edge.Kind.GOTO, end, header);
+            return header;
+        }
+
+        /**
+         * Adds an edge between the statements of given indexes.
+         */
+        public void addEdge(Edge.Kind kind, int source, int target) {
+            edgeKinds.add(kind);
+            edges.add(new int[]{ source, target });
+        }
+
+        /**
+         * @return the number of statements added so far.
+         */
+        public int size() {
+            return stmts.size();
+        }
+
+        /**
+         * @return the CFG of the statements and edges added so far.
+         * The synthetic IR of the CFG has no method.
+         */
+        public SyntheticCFG build() {
+            IR ir = new DefaultIR(null, null, List.of(), Set.of(),
+                    vars, stmts, List.of());
+            SyntheticCFG cfg = new SyntheticCFG(ir,
+                    new SyntheticStmt(null, List.of()),
+                    new SyntheticStmt(null, List.of()));
+            int size = stmts.size();
+            for (int i = 0; i < edges.size(); ++i) {
+                int[] edge = edges.get(i);
+                cfg.addEdge(edgeKinds.get(i),
+                        edge[0] == ENTRY ? size : edge[0] == EXIT ? size + 1 : edge[0],
+                        edge[1] == ENTRY ? size : edge[1] == EXIT ? size + 1 : edge[1]);
+            }
+            ir.storeResult(CFGBuilder.ID, cfg);
+            return cfg;
+        }
+
+        private static Edge.Kind kindFrom(int pred) {
+            return pred == ENTRY ? Edge.Kind.ENTRY : Edge.Kind.FALL_THROUGH;
+        }
+
+        private Var randomVar() {
+            return vars.get(random.nextInt(vars.size()));
+        }
+
+        private int add(SyntheticStmt stmt) {
+            int index = stmts.size();
+            stmt.setIndex(index);
+            stmts.add(stmt);
+            return index;
+        }
+    }
+
+    private static class SyntheticStmt implements Stmt {
+
+        private final Var def;
+
+        private List<RValue> uses;
+
+        private int index = -1;
+
+        private SyntheticStmt(Var def, List<RValue> uses) {
+            this.def = def;
+            this.uses = uses;
+        }
+
+        @Override
+        public int getIndex() {
+            return index;
+        }
+
+        @Override
+        public void setIndex(int index) {
+            this.index = index;
+        }
+
+        @Override
+        public int getLineNumber() {
+            return index;
+        }
+
+        @Override
+        public void setLineNumber(int lineNumber) {
+        }
+
+        @Override
+        public Optional<LValue> getDef() {
+            return Optional.ofNullable(def);
+        }
+
+        @Override
+        public List<RValue> getUses() {
+            return uses;
+        }
+
+        @Override
+        public boolean canFallThrough() {
+            return true;
+        }
+
+        @Override
+        public <T> T accept(StmtVisitor<T> visitor) {
+            return visitor.visitDefault(this);
+        }
+
+        @Override
+        public String toString() {
+            StringJoiner joiner = new StringJoiner(", ", "use(", ")");
+            uses.forEach(use -> joiner.add(use.toString()));
+            return (def != null ? def + " = " : "") + joiner;
+        }
+    }
+}
@@ -0,0 +1,60 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2020-- Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2020-- Yue Li <yueli@nju.edu.cn>
+ * All rights reserved.
+ *
+ * Tai-e is only for educational and academic purposes,
+ * and any form of commercial use is disallowed.
+ * Distribution of Tai-e is disallowed without the approval.
+ */
+
+package pascal.taie.util.graph;
+
+import org.junit.Assert;
+import org.junit.Test;
+import pascal.taie.analysis.graph.cfg.Edge;
+import pascal.taie.analysis.graph.cfg.IndexedCFG;
+import pascal.taie.analysis.graph.cfg.SyntheticCFG;
+import pascal.taie.ir.stmt.Stmt;
+
+public class TopologicalOrderTest {
+
+    @Test
+    public void testAcyclic() {
+        for (SyntheticCFG cfg : new SyntheticCFG[]{
+                SyntheticCFG.straightLine(100, 8, 0),
+                SyntheticCFG.diamondChain(100, 8, 0) }) {
+            IndexedCFG<Stmt> g = IndexedCFG.of(cfg);
+            int[] order = TopologicalOrder.compute(g);
+            Assert.assertNotNull(order);
+            Assert.assertEquals(g.getNumberOfNodes(), order.length);
+            int[] positions = new int[order.length];
+            for (int i = 0; i < order.length; ++i) {
+                positions[order[i]] = i;
+            }
+            for (int node = 0; node < g.getNumberOfNodes(); ++node) {
+                for (int k = 0; k < g.succCount(node); ++k) {
+                    Assert.assertTrue(positions[node] < positions[g.succAt(node, k)]);
+                }
+            }
+        }
+    }
+
+    @Test
+    public void testCyclic() {
+        SyntheticCFG loops = SyntheticCFG.nestedLoops(100, 2, 8, 0);
+        Assert.assertNull(TopologicalOrder.compute(IndexedCFG.of(loops)));
+        Assert.assertNull(IndexedCFG.of(loops).getTopologicalOrder());
+    }
+
+    @Test
+    public void testSelfLoop() {
+        SyntheticCFG.Builder builder = new SyntheticCFG.Builder(8, 0);
+        int last = builder.addStmts(SyntheticCFG.Builder.ENTRY, 3);
+        builder.addEdge(Edge.Kind.GOTO, 1, 1);
+        builder.addEdge(Edge.Kind.RETURN, last, SyntheticCFG.Builder.EXIT);
+        Assert.assertNull(TopologicalOrder.compute(IndexedCFG.of(builder.build())));
+    }
+}